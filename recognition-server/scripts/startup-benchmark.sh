@@ -0,0 +1,51 @@
+#!/usr/bin/env bash
+# 启动耗时基准：对比普通 fat jar、解压运行、AOT、AOT + AppCDS 四种方式从 JVM 启动到 Spring 上下文刷新完成的耗时。
+# 使用 -Dspring.context.exit=onRefresh 在上下文刷新完成后退出，不需要数据库、RabbitMQ 等外部依赖。
+# 用法：startup-benchmark.sh <recognition-server.jar> [运行次数]
+set -euo pipefail
+
+JAR=$(realpath "$1")
+RUNS=${2:-5}
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+# 训练和基准运行使用的占位配置，避免连接外部服务
+PROPS=(
+  -Dspring.context.exit=onRefresh
+  -Dtencent.cloud.secret-id=benchmark
+  -Dtencent.cloud.secret-key=benchmark
+  -Dspring.flyway.enabled=false
+  -Drecognition.cache.disk.enabled=false
+)
+
+cd "$WORK"
+java -Djarmode=layertools -jar "$JAR" extract --destination extracted >/dev/null
+mkdir app
+for layer in dependencies spring-boot-loader snapshot-dependencies application; do
+  cp -r "extracted/$layer/." app/
+done
+CP="app/BOOT-INF/classes:app/BOOT-INF/lib/*"
+MAIN=io.chenyiax.RecognitionServerApplication
+
+# 训练运行，生成 AppCDS 动态归档
+java -XX:ArchiveClassesAtExit=app.jsa -Dspring.aot.enabled=true "${PROPS[@]}" -cp "$CP" "$MAIN" >/dev/null 2>&1
+
+measure() {
+  local name=$1
+  shift
+  local total=0
+  for ((i = 0; i < RUNS; i++)); do
+    local start end
+    start=$(date +%s%N)
+    "$@" >/dev/null 2>&1
+    end=$(date +%s%N)
+    total=$((total + (end - start) / 1000000))
+  done
+  printf '%-24s %6d ms\n' "$name" $((total / RUNS))
+}
+
+echo "Average time to context refresh over $RUNS run(s):"
+measure "fat jar" java "${PROPS[@]}" -jar "$JAR"
+measure "extracted" java "${PROPS[@]}" -cp "$CP" "$MAIN"
+measure "extracted + AOT" java -Dspring.aot.enabled=true "${PROPS[@]}" -cp "$CP" "$MAIN"
+measure "extracted + AOT + CDS" java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true "${PROPS[@]}" -cp "$CP" "$MAIN"
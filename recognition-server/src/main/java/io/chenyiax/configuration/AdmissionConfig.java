@@ -0,0 +1,81 @@
+package io.chenyiax.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * HTTP 入口准入控制配置。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "recognition.admission")
+public class AdmissionConfig {
+    /**
+     * 是否启用准入控制。
+     */
+    private boolean enabled = true;
+
+    /**
+     * 同时处理中的请求数上限（CRITICAL 请求不计入），应小于 Tomcat 工作线程数，为登录等请求保留线程。
+     */
+    private int maxInFlight = 150;
+
+    /**
+     * 排队时间目标（毫秒），排队时间持续超过该值时进入过载状态。
+     */
+    private long targetDelay = 100;
+
+    /**
+     * 排队时间持续超过目标多久（毫秒）判定为过载。
+     */
+    private long interval = 500;
+
+    /**
+     * 拒绝请求时 Retry-After 响应头的秒数。
+     */
+    private int retryAfter = 5;
+
+    /**
+     * 未匹配任何路由的请求优先级。
+     */
+    private Priority defaultPriority = Priority.NORMAL;
+
+    /**
+     * 按接口路径（Ant 风格）配置的优先级，按声明顺序匹配第一个。
+     */
+    private Map<String, Priority> routes = new LinkedHashMap<>();
+
+    /**
+     * 请求优先级。share 为该优先级可占用的处理槽位比例，maxWait 为槽位不足时最多排队的时间（排队时间目标的倍数）。
+     * 过载时 NORMAL 不再排队，LOW 直接拒绝。
+     */
+    public enum Priority {
+        /**
+         * 登录、健康检查等廉价且必须可用的请求，不经过准入控制。
+         */
+        CRITICAL(1.0, 0),
+        HIGH(1.0, 5),
+        NORMAL(0.8, 1),
+        LOW(0.5, 0);
+
+        private final double share;
+        private final int maxWait;
+
+        Priority(double share, int maxWait) {
+            this.share = share;
+            this.maxWait = maxWait;
+        }
+
+        public double getShare() {
+            return share;
+        }
+
+        public int getMaxWait() {
+            return maxWait;
+        }
+    }
+}
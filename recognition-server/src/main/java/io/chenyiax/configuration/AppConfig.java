@@ -1,14 +1,38 @@
 package io.chenyiax.configuration;
 
+import io.chenyiax.utils.DeadlineContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.time.Clock;
 
 @Configuration
+@EnableScheduling
 public class AppConfig {
     @Bean
     public Clock clock() {
         return Clock.systemDefaultZone();
     }
+
+    /**
+     * 异步识别任务使用的有界线程池，队列满时直接拒绝，由调用方向客户端返回繁忙提示。
+     * 任务继承提交线程的请求截止时间；停机时等待已提交的任务完成后再关闭。
+     *
+     * @param config 线程池配置。
+     * @return 识别线程池。
+     */
+    @Bean
+    public ThreadPoolTaskExecutor recognitionExecutor(RecognitionExecutorConfig config, ShutdownConfig shutdownConfig) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(config.getCoreSize());
+        executor.setMaxPoolSize(config.getMaxSize());
+        executor.setQueueCapacity(config.getQueueCapacity());
+        executor.setThreadNamePrefix("recognition-");
+        executor.setTaskDecorator(DeadlineContext::wrap);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationMillis(shutdownConfig.getDrainTimeout());
+        return executor;
+    }
 }
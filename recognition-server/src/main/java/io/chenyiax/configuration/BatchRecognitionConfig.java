@@ -0,0 +1,23 @@
+package io.chenyiax.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 批量识别配置。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "recognition.batch")
+public class BatchRecognitionConfig {
+    /**
+     * 单次批量请求允许的最大图片数量。
+     */
+    private int maxSize = 60;
+
+    /**
+     * 整个批量请求的响应超时时间（毫秒）。
+     */
+    private long timeout = 300000;
+}
@@ -0,0 +1,52 @@
+package io.chenyiax.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 评测结果缓存配置。相同图片和提示词版本的评测结果直接复用，不再调用混元模型。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "recognition.cache")
+public class CacheConfig {
+    /**
+     * 是否启用评测结果缓存。
+     */
+    private boolean enabled = true;
+
+    /**
+     * 内存缓存（第一级）的最大条目数。
+     */
+    private int memoryEntries = 1000;
+
+    /**
+     * 磁盘缓存（第二级）配置。
+     */
+    private Disk disk = new Disk();
+
+    @Data
+    public static class Disk {
+        /**
+         * 是否启用磁盘缓存。
+         */
+        private boolean enabled = true;
+
+        /**
+         * 缓存文件路径，应位于重新部署后仍然保留的持久卷上。
+         */
+        private String path = "data/evaluation-cache.dat";
+
+        /**
+         * 缓存文件容量上限，不超过 2GB。
+         */
+        private DataSize maxSize = DataSize.ofMegabytes(256);
+
+        /**
+         * 文件写满时压缩，只保留最新的有效记录直到占用达到容量的该比例。
+         */
+        private double compactRatio = 0.5;
+    }
+}
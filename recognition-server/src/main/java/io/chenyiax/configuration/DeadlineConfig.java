@@ -0,0 +1,41 @@
+package io.chenyiax.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 请求截止时间配置。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "recognition.deadline")
+public class DeadlineConfig {
+    /**
+     * 是否为请求设置截止时间。
+     */
+    private boolean enabled = true;
+
+    /**
+     * 客户端声明剩余等待时间（毫秒）的请求头，只能缩短服务端的时间上限，不能延长。
+     */
+    private String header = "X-Request-Timeout";
+
+    /**
+     * 未单独配置的接口使用的时间上限（毫秒）。
+     */
+    private long defaultTimeout = 60000;
+
+    /**
+     * 按接口路径（Ant 风格）配置的时间上限（毫秒），按声明顺序匹配第一个。
+     */
+    private Map<String, Long> endpoints = new LinkedHashMap<>();
+
+    /**
+     * WebSocket 识别请求的时间上限（毫秒）。STOMP 消息不经过 DeadlineFilter，从收到请求时开始计算。
+     */
+    private long socketTimeout = 60000;
+}
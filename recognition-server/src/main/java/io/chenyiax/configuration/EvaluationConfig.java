@@ -0,0 +1,18 @@
+package io.chenyiax.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 评测历史相关配置，包括异步批量写入队列的容量、批大小、刷新间隔以及历史查询的分页上限。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "evaluation.history")
+public class EvaluationConfig {
+    private int queueCapacity = 10000;
+    private int batchSize = 100;
+    private long flushInterval = 1000;
+    private int maxPageSize = 50;
+}
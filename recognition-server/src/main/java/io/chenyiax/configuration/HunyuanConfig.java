@@ -0,0 +1,312 @@
+package io.chenyiax.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * 腾讯混元调用相关配置。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "tencent.hunyuan")
+public class HunyuanConfig {
+    /**
+     * 全局同时进行中的混元调用数上限，所有入口（HTTP、WebSocket、批量评测）共享。
+     * 为 0 时取各账号并发配额之和；配置值超过该和时按该和截断，多出的调用只会被腾讯云限流。
+     */
+    private int maxConcurrency = 0;
+
+    /**
+     * 等待并发许可的最长时间（毫秒），超时后直接返回繁忙错误。
+     */
+    private long acquireTimeout = 30000;
+
+    /**
+     * SDK 的读取超时（秒）。请求截止时间到达后调用方会立即返回，该超时保证被放弃的调用最终也会结束。
+     */
+    private int readTimeout = 60;
+
+    /**
+     * 候选的视觉模型列表，由 ModelRouter 根据延迟、错误率和成本在其中选择。
+     */
+    private List<Model> models = List.of(new Model());
+
+    /**
+     * 模型路由配置。
+     */
+    private Routing routing = new Routing();
+
+    /**
+     * 对冲请求配置。
+     */
+    private Hedge hedge = new Hedge();
+
+    /**
+     * 重试配置。
+     */
+    private Retry retry = new Retry();
+
+    /**
+     * 集群共享的调用配额。
+     */
+    private RateLimit rateLimit = new RateLimit();
+
+    /**
+     * 候选的接入点（地域域名），由 HunyuanEndpointSelector 按探测延迟选择。
+     */
+    private List<Endpoint> endpoints = List.of(new Endpoint());
+
+    /**
+     * 接入点延迟探测配置。
+     */
+    private Probe probe = new Probe();
+
+    @Data
+    public static class Model {
+        /**
+         * 模型名称。
+         */
+        private String name = "hunyuan-vision";
+
+        /**
+         * 温度参数，用于控制模型生成结果的随机性。
+         */
+        private Float temperature = 0.7f;
+
+        /**
+         * 成本权重，路由得分会乘以该值，较贵的模型应设置更大的权重。
+         */
+        private double costWeight = 1.0;
+    }
+
+    @Data
+    public static class Routing {
+        /**
+         * 延迟和错误率指数加权移动平均的平滑系数。
+         */
+        private double ewmaAlpha = 0.2;
+
+        /**
+         * 尚无延迟样本的模型使用的初始延迟估计（毫秒）。
+         */
+        private long initialLatency = 3000;
+
+        /**
+         * 错误率对路由得分的惩罚系数。
+         */
+        private double errorPenalty = 4.0;
+
+        /**
+         * 连续失败达到该次数时暂时摘除模型。
+         */
+        private int failureThreshold = 3;
+
+        /**
+         * 错误率超过该值时暂时摘除模型。
+         */
+        private double errorRateThreshold = 0.5;
+
+        /**
+         * 模型被摘除后的冷却时间（毫秒），冷却结束后重新参与路由。
+         */
+        private long cooldown = 30000;
+
+        /**
+         * 探索比例：以该概率把请求发往最久没有样本的其他健康模型，使新加入或已经变快的模型能被发现。
+         */
+        private double exploreRatio = 0.02;
+    }
+
+    @Data
+    public static class Hedge {
+        /**
+         * 是否启用对冲请求。
+         */
+        private boolean enabled = false;
+
+        /**
+         * 对冲延迟取最近调用耗时的该分位数，例如 0.95 表示超过 p95 仍未返回时发出对冲请求。
+         */
+        private double percentile = 0.95;
+
+        /**
+         * 对冲延迟的下限（毫秒）。
+         */
+        private long minDelay = 1000;
+
+        /**
+         * 样本不足时使用的对冲延迟（毫秒）。
+         */
+        private long defaultDelay = 8000;
+
+        /**
+         * 计算分位数所需的最少样本数。
+         */
+        private int minSamples = 50;
+
+        /**
+         * 计算分位数时保留的最近样本数。
+         */
+        private int window = 1024;
+
+        /**
+         * 对冲请求占总请求数的比例上限，例如 0.05 表示额外调用不超过 5%。
+         */
+        private double budgetRatio = 0.05;
+    }
+
+    @Data
+    public static class Retry {
+        /**
+         * 是否启用重试。
+         */
+        private boolean enabled = true;
+
+        /**
+         * 最多尝试次数（包含首次调用）。
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * 退避时间的基数（毫秒）。
+         */
+        private long baseDelay = 200;
+
+        /**
+         * 单次退避时间的上限（毫秒）。
+         */
+        private long maxDelay = 3000;
+
+        /**
+         * 从首次调用开始计算的整体截止时间（毫秒），超过后不再重试。
+         */
+        private long deadline = 20000;
+
+        /**
+         * 可重试的错误码前缀，例如频率限制、内部错误等暂时性错误。
+         */
+        private List<String> retryableCodes = List.of(
+                "RequestLimitExceeded", "InternalError", "ResourceUnavailable",
+                "FailedOperation.EngineRequestTimeout", "FailedOperation.EngineServerError",
+                "FailedOperation.EngineServerLimitExceeded", "ClientNetworkError");
+
+        /**
+         * 不可重试的错误码前缀，优先于可重试列表匹配，包括鉴权失败和内容安全拦截等错误。
+         */
+        private List<String> nonRetryableCodes = List.of(
+                "AuthFailure", "UnauthorizedOperation", "OperationDenied",
+                "InvalidParameter", "MissingParameter", "UnsupportedOperation");
+    }
+
+    @Data
+    public static class RateLimit {
+        /**
+         * 是否启用集群共享的调用配额。
+         */
+        private boolean enabled = true;
+
+        /**
+         * Redis 中令牌桶的键。
+         */
+        private String key = "hunyuan:quota";
+
+        /**
+         * 整个集群每秒允许的调用数，应不超过各账号配额之和。
+         */
+        private double permitsPerSecond = 20;
+
+        /**
+         * 令牌桶容量，即允许的突发调用数。
+         */
+        private long burst = 20;
+
+        /**
+         * 每次从 Redis 预取的令牌数。越大访问 Redis 越少，但节点之间分配越不均匀。
+         */
+        private int prefetch = 5;
+
+        /**
+         * 预取令牌的有效期（毫秒），过期未用的令牌直接丢弃。
+         */
+        private long prefetchTtl = 1000;
+
+        /**
+         * Redis 不可用时单个节点的本地限速（每秒调用数），应按节点数保守设置。
+         */
+        private double fallbackPermitsPerSecond = 2;
+
+        /**
+         * Redis 调用失败后再次尝试 Redis 的间隔（毫秒）。
+         */
+        private long retryInterval = 5000;
+    }
+
+    @Data
+    public static class Endpoint {
+        /**
+         * 接入点名称，用于日志和监控指标。
+         */
+        private String name = "default";
+
+        /**
+         * 接入域名，例如 hunyuan.tencentcloudapi.com 或 hunyuan.ap-guangzhou.tencentcloudapi.com。
+         */
+        private String host = "hunyuan.tencentcloudapi.com";
+
+        /**
+         * 创建客户端时使用的地域，就近接入的默认域名不需要地域。
+         */
+        private String region = "";
+
+        /**
+         * 探测地址，为空时使用 https://{host}/。测试时可指向本地的桩服务。
+         */
+        private String probeUrl;
+    }
+
+    @Data
+    public static class Probe {
+        /**
+         * 是否在后台探测各接入点的延迟，只配置了一个接入点时不探测。
+         */
+        private boolean enabled = true;
+
+        /**
+         * 两轮探测之间的间隔（毫秒）。
+         */
+        private long interval = 10000;
+
+        /**
+         * 单次探测的超时时间（毫秒），超时视为一次失败。
+         */
+        private long timeout = 2000;
+
+        /**
+         * 探测延迟指数加权移动平均的平滑系数。
+         */
+        private double ewmaAlpha = 0.3;
+
+        /**
+         * 其他接入点的延迟低于当前接入点的该比例时才切换，避免在延迟相近的接入点之间来回切换。
+         */
+        private double switchRatio = 0.8;
+
+        /**
+         * 连续失败（探测失败或调用出现网络错误）多少次后暂停使用该接入点。
+         */
+        private int failureThreshold = 3;
+
+        /**
+         * 接入点被暂停使用的时间（毫秒），期间继续探测，探测成功后恢复。
+         */
+        private long sidelineDuration = 30000;
+
+        /**
+         * 视为接入点故障的错误码前缀，即网络层面的错误，而不是模型或账号的错误。
+         */
+        private List<String> failureCodes = List.of("ClientNetworkError");
+    }
+}
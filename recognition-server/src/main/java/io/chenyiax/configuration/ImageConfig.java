@@ -0,0 +1,89 @@
+package io.chenyiax.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 图片预处理配置，包括调用模型前的本地质量检测阈值和墨迹区域裁剪参数。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "recognition.image")
+public class ImageConfig {
+    /**
+     * 质量检测配置。
+     */
+    private Quality quality = new Quality();
+
+    /**
+     * 墨迹区域裁剪配置。
+     */
+    private Crop crop = new Crop();
+
+    @Data
+    public static class Quality {
+        /**
+         * 是否启用质量检测。
+         */
+        private boolean enabled = true;
+
+        /**
+         * 质量检测时图片下采样后的最长边像素数。
+         */
+        private int sampleSize = 512;
+
+        /**
+         * 清晰度下限：最强拉普拉斯响应的均值与墨迹/纸张亮度差之比，低于该值认为图片模糊。
+         */
+        private double minSharpness = 0.6;
+
+        /**
+         * 平均亮度下限，低于该值认为图片过暗。
+         */
+        private double minBrightness = 60;
+
+        /**
+         * 墨迹与纸张的最小亮度差，低于该值认为图片中没有书写内容。
+         */
+        private double minContrast = 40;
+
+        /**
+         * 墨迹像素占比下限，低于该值认为图片中没有书写内容。
+         */
+        private double minInkRatio = 0.005;
+    }
+
+    @Data
+    public static class Crop {
+        /**
+         * 是否裁剪到墨迹区域。
+         */
+        private boolean enabled = true;
+
+        /**
+         * 定位墨迹区域时从四个方向各自忽略的墨迹比例，用于排除边缘零星的噪点和阴影。
+         */
+        private double trim = 0.01;
+
+        /**
+         * 墨迹区域四周保留的边距，占区域宽高的比例。
+         */
+        private double margin = 0.05;
+
+        /**
+         * 裁剪后面积至少减少的比例，低于该值时直接发送原图，避免无意义的重新编码。
+         */
+        private double minSaving = 0.15;
+
+        /**
+         * 裁剪结果的最长边像素数上限。
+         */
+        private int maxSide = 2048;
+
+        /**
+         * 重新编码 JPEG 时的压缩质量。
+         */
+        private float jpegQuality = 0.9f;
+    }
+}
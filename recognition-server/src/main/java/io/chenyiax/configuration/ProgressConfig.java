@@ -0,0 +1,30 @@
+package io.chenyiax.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 学生进度统计配置。分数先在内存中累加，每隔 flushInterval 毫秒批量写入汇总表。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "recognition.progress")
+public class ProgressConfig {
+    private boolean enabled = true;
+
+    /**
+     * 汇总写入数据库的间隔（毫秒），也是看板数据的最大滞后。
+     */
+    private long flushInterval = 5000;
+
+    /**
+     * 单条 SQL 中的最大行数。
+     */
+    private int batchSize = 500;
+
+    /**
+     * 看板单次查询的最大天数。
+     */
+    private int maxDays = 90;
+}
@@ -0,0 +1,36 @@
+package io.chenyiax.configuration;
+
+import io.chenyiax.service.RecognitionQueueClient;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * QueueModeCheck 在启动时确认识别任务队列的开关与实际创建的 Bean 一致。
+ * <p>
+ * 以 -Dspring.aot.enabled=true 启动时，RabbitConfig、RecognitionQueueClient 等
+ * {@code @ConditionalOnProperty(recognition.queue.enabled)} 的结果已在 AOT 构建时确定，
+ * 运行时修改 RECOGNITION_QUEUE_ENABLED 不会再创建或移除这些 Bean。
+ * 不一致时拒绝启动，避免开启了队列的 API 节点静默地在进程内识别。
+ */
+@Component
+@RequiredArgsConstructor
+public class QueueModeCheck {
+
+    private final RecognitionQueueConfig recognitionQueueConfig;
+    private final ListableBeanFactory beanFactory;
+
+    /**
+     * @throws IllegalStateException 若运行时的 recognition.queue.enabled 与构建时确定的队列模式不一致。
+     */
+    @PostConstruct
+    public void check() {
+        boolean built = beanFactory.getBeanNamesForType(RecognitionQueueClient.class, false, false).length > 0;
+        if (built != recognitionQueueConfig.isEnabled()) {
+            throw new IllegalStateException("recognition.queue.enabled is " + recognitionQueueConfig.isEnabled()
+                    + " but the application was built with the queue " + (built ? "enabled" : "disabled")
+                    + "; rebuild with mvn -Paot -Daot.queue-enabled=" + recognitionQueueConfig.isEnabled());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package io.chenyiax.configuration;
+
+import io.chenyiax.service.ShutdownDrainer;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.config.AbstractRabbitListenerContainerFactory;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * RabbitMQ 配置类，仅在启用识别任务队列时生效。
+ * 声明持久化的识别任务队列，并使用 JSON 作为消息格式。
+ * 消费端的 prefetch 和并发数通过 spring.rabbitmq.listener.simple.* 配置。
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "recognition.queue", name = "enabled", havingValue = "true")
+public class RabbitConfig {
+
+    /**
+     * 声明持久化的识别任务队列，Broker 重启后队列及其中的持久化消息不会丢失。
+     *
+     * @param config 识别任务队列配置。
+     * @return 识别任务队列。
+     */
+    @Bean
+    public Queue recognitionQueue(RecognitionQueueConfig config) {
+        return new Queue(config.getName(), true);
+    }
+
+    /**
+     * 使用 Jackson 序列化消息，RabbitTemplate 和监听容器会自动使用该转换器。
+     *
+     * @return JSON 消息转换器。
+     */
+    @Bean
+    public MessageConverter jsonMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+
+    /**
+     * 消息监听容器默认在 Integer.MAX_VALUE 阶段停止，与 ShutdownDrainer 相同，同一阶段内的停止顺序没有保证。
+     * 容器注册表的阶段取自其中的容器，把容器工厂的阶段设为下一个阶段，确保 ShutdownDrainer 先调整容器的
+     * 停止超时并等待处理中的任务，注册表不会先以默认的 5 秒超时停止容器。
+     *
+     * @return 调整监听容器停止阶段的后处理器。
+     */
+    @Bean
+    public static BeanPostProcessor rabbitListenerPhase() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractRabbitListenerContainerFactory<?> factory) {
+                    factory.setPhase(ShutdownDrainer.PHASE - 1);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,17 @@
+package io.chenyiax.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 异步识别线程池配置，WebSocket 推送、批量识别等异步识别场景共用该线程池。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "recognition.executor")
+public class RecognitionExecutorConfig {
+    private int coreSize = 64;
+    private int maxSize = 64;
+    private int queueCapacity = 500;
+}
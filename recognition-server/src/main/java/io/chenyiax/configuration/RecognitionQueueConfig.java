@@ -0,0 +1,17 @@
+package io.chenyiax.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 识别任务队列配置。enabled 为 true 时 API 节点把识别任务发布到 RabbitMQ，
+ * 由 worker 角色消费；为 false 时在当前进程内直接处理。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "recognition.queue")
+public class RecognitionQueueConfig {
+    private boolean enabled = false;
+    private String name = "recognition.jobs";
+}
@@ -1,5 +1,6 @@
 package io.chenyiax.configuration;
 
+import io.chenyiax.utils.DeadlineRequestFactory;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -8,7 +9,6 @@ import org.springframework.http.converter.json.MappingJackson2HttpMessageConvert
 import org.springframework.web.client.RestTemplate;
 
 import java.nio.charset.StandardCharsets;
-import java.time.Duration;
 import java.util.Arrays;
 
 /**
@@ -23,7 +23,7 @@ public class RestTemplateConfig {
      * 创建并配置一个 RestTemplate bean。
      * 此方法使用 Spring Boot 提供的 RestTemplateBuilder 来创建 RestTemplate 实例。
      * 它添加了一个自定义的 MappingJackson2HttpMessageConverter，以支持解析 'application/json' 和 'text/plain' 格式的 JSON 数据。
-     * 此外，还设置了 RestTemplate 的连接超时时间和读取超时时间。
+     * 此外，还设置了 RestTemplate 的连接超时时间和读取超时时间，实际超时不超过当前请求的剩余时间。
      *
      * @param builder Spring Boot 提供的 RestTemplateBuilder，用于构建 RestTemplate。
      * @return 一个配置好的 RestTemplate 实例。
@@ -37,8 +37,7 @@ public class RestTemplateConfig {
         ));
 
         return builder
-                .setConnectTimeout(Duration.ofSeconds(5))
-                .setReadTimeout(Duration.ofSeconds(10))
+                .requestFactory(() -> new DeadlineRequestFactory(5000, 10000))
                 .additionalMessageConverters(converter)
                 .build();
     }
@@ -0,0 +1,23 @@
+package io.chenyiax.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 分维度并行评测配置。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "recognition.sections")
+public class SectionConfig {
+    /**
+     * 每个维度的时间上限（毫秒），所有维度同时开始，超时的维度以 TIMEOUT 状态返回。
+     */
+    private long timeout = 20000;
+
+    /**
+     * 每个维度回答的最大字数，写入提示词，并在服务端对超出部分截断。
+     */
+    private int maxChars = 150;
+}
@@ -3,6 +3,7 @@ package io.chenyiax.configuration;
 import io.chenyiax.entity.RestBean;
 import io.chenyiax.filter.JwtAuthenticationFilter;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
@@ -68,8 +69,12 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 // 配置请求授权规则
                 .authorizeHttpRequests(conf -> {
-                    // 允许所有对指定端点的请求
-                    conf.requestMatchers("/api/auth/*").permitAll()
+                    // 允许所有对指定端点的请求，WebSocket 握手在 STOMP CONNECT 帧中完成身份验证
+                    conf.requestMatchers("/api/auth/*", "/ws/**").permitAll()
+                            // 监控端点只暴露在独立的管理端口上，不经过对外代理
+                            .requestMatchers("/actuator/**").permitAll()
+                            // 流式响应（批量识别）结束时的异步分派已在首次分派时完成鉴权
+                            .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                             // 要求所有其他请求进行身份验证
                             .anyRequest().authenticated();
                 })
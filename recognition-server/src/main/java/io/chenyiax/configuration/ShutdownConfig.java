@@ -0,0 +1,29 @@
+package io.chenyiax.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 优雅停机配置。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "recognition.shutdown")
+public class ShutdownConfig {
+    /**
+     * 就绪探针切换为 REFUSING_TRAFFIC 后继续正常处理请求的时间（毫秒），
+     * 等待负载均衡摘除本实例，期间到达的请求不会失败。
+     */
+    private long propagationDelay = 5000;
+
+    /**
+     * 等待进行中的识别任务和混元调用结束的最长时间（毫秒）。
+     */
+    private long drainTimeout = 30000;
+
+    /**
+     * 排空期间输出进度日志的间隔（毫秒）。
+     */
+    private long progressInterval = 1000;
+}
@@ -0,0 +1,23 @@
+package io.chenyiax.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * WebSocket/STOMP 通道配置。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "recognition.websocket")
+public class StompConfig {
+    /**
+     * STOMP 握手端点。
+     */
+    private String endpoint = "/ws";
+
+    /**
+     * 单条 STOMP 消息的最大字节数，需要能容纳 Base64 编码的书法图片。
+     */
+    private int messageSizeLimit = 4 * 1024 * 1024;
+}
@@ -0,0 +1,40 @@
+package io.chenyiax.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 结构化评测配置。
+ * 混元 ChatCompletions 接口没有输出 token 上限参数，输出预算通过提示词中的字数要求落实：
+ * 扣除 JSON 结构本身的开销后平均分给每条评语，并在服务端截断超出的部分。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "recognition.structured")
+public class StructuredConfig {
+    /**
+     * 单次评测的输出 token 预算。
+     */
+    private int maxOutputTokens = 400;
+
+    /**
+     * JSON 键名、分数和标点等结构部分预留的 token 数。
+     */
+    private int structureTokens = 80;
+
+    /**
+     * 每条评语的最少字数，预算过小时不低于该值。
+     */
+    private int minCommentChars = 20;
+
+    /**
+     * 按预算计算每条评语的最大字数。中文评语大约每个字一个 token，按此保守估算。
+     *
+     * @param comments 评语条数。
+     * @return 每条评语的最大字数。
+     */
+    public int commentMaxChars(int comments) {
+        return Math.max(minCommentChars, (maxOutputTokens - structureTokens) / comments);
+    }
+}
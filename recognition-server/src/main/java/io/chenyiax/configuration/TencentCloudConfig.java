@@ -4,10 +4,55 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 @ConfigurationProperties(prefix = "tencent.cloud")
 @Data
 public class TencentCloudConfig {
     private String secretId;
     private String secretKey;
+
+    /**
+     * 凭证池。配置后按各账号的剩余配额分摊混元调用；为空时只使用上面的 secretId/secretKey。
+     */
+    private List<Account> accounts = new ArrayList<>();
+
+    /**
+     * 账号被限流后暂停使用的时间（毫秒）。
+     */
+    private long sidelineDuration = 10000;
+
+    /**
+     * 未配置凭证池时，单个账号的并发配额。
+     */
+    private int maxConcurrency = 5;
+
+    @Data
+    public static class Account {
+        /**
+         * 账号名称，用于日志和监控指标。
+         */
+        private String name;
+
+        private String secretId;
+
+        private String secretKey;
+
+        /**
+         * 账号的并发配额，按腾讯云控制台中该账号的实际配额配置。
+         */
+        private int maxConcurrency = 5;
+    }
+
+    /**
+     * @return 所有账号的并发配额之和，即同时向混元发出的调用数的实际上限。
+     */
+    public int totalConcurrency() {
+        if (accounts.isEmpty()) {
+            return Math.max(1, maxConcurrency);
+        }
+        return accounts.stream().mapToInt(account -> Math.max(1, account.getMaxConcurrency())).sum();
+    }
 }
@@ -0,0 +1,50 @@
+package io.chenyiax.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 混元 token 用量统计与每日额度配置。
+ * 用量先在内存中累加，每隔 flushInterval 毫秒批量写入数据库，同时读回其他节点的用量用于额度判断。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "recognition.usage")
+public class UsageConfig {
+    /**
+     * 是否检查每日额度，关闭后仍然统计用量。
+     */
+    private boolean enabled = true;
+
+    /**
+     * 每个用户每天可消耗的 token 数（输入 + 输出），0 表示不限制。
+     */
+    private long dailyQuota = 0;
+
+    /**
+     * 按用户 ID 单独设置的每日额度，优先于 dailyQuota。
+     */
+    private Map<Integer, Long> overrides = new HashMap<>();
+
+    /**
+     * 用量写入数据库的间隔（毫秒）。
+     */
+    private long flushInterval = 10000;
+
+    /**
+     * 单条 SQL 中的最大用户数。
+     */
+    private int batchSize = 500;
+
+    /**
+     * @param userId 用户 ID。
+     * @return 该用户的每日额度，0 表示不限制。
+     */
+    public long quotaOf(Integer userId) {
+        return overrides.getOrDefault(userId, dailyQuota);
+    }
+}
@@ -0,0 +1,35 @@
+package io.chenyiax.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 启动预热配置。预热在就绪探针变为 ACCEPTING_TRAFFIC 之前执行。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "recognition.warmup")
+public class WarmupConfig {
+    private boolean enabled = true;
+
+    /**
+     * 预热的总时间上限（毫秒），超过后跳过剩余步骤直接就绪。
+     */
+    private long timeout = 30000;
+
+    /**
+     * JWT 签发/解析和 JSON 序列化的重复次数，使这些热点方法在接收流量前完成 JIT 编译。
+     */
+    private int iterations = 5000;
+
+    /**
+     * 数据库查询的重复次数，用于预热 MyBatis 的映射和预编译语句缓存。
+     */
+    private int queries = 50;
+
+    /**
+     * 是否预先建立到微信接口的连接。
+     */
+    private boolean wechat = true;
+}
@@ -0,0 +1,62 @@
+package io.chenyiax.configuration;
+
+import io.chenyiax.filter.StompAuthenticationInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+
+/**
+ * WebSocket/STOMP 配置类。
+ * 客户端通过一条长连接提交书法图片，并在 /user/queue/recognition 上接收识别进度和最终结果，
+ * 避免为每次评测长时间占用一个 HTTP 请求。
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    private final StompConfig stompConfig;
+    private final StompAuthenticationInterceptor stompAuthenticationInterceptor;
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        // 身份验证在 STOMP CONNECT 帧中完成，不依赖浏览器 Cookie，因此允许任意来源
+        registry.addEndpoint(stompConfig.getEndpoint()).setAllowedOriginPatterns("*");
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.enableSimpleBroker("/queue");
+        registry.setApplicationDestinationPrefixes("/app");
+        registry.setUserDestinationPrefix("/user");
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(stompAuthenticationInterceptor);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setMessageSizeLimit(stompConfig.getMessageSizeLimit());
+    }
+
+    /**
+     * 调大 Servlet 容器的 WebSocket 文本消息缓冲区，使其与 STOMP 消息大小上限一致。
+     *
+     * @return WebSocket 容器配置。
+     */
+    @Bean
+    public ServletServerContainerFactoryBean webSocketContainer() {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxTextMessageBufferSize(stompConfig.getMessageSizeLimit());
+        return container;
+    }
+}
@@ -0,0 +1,31 @@
+package io.chenyiax.controller;
+
+import io.chenyiax.entity.ProgressStats;
+import io.chenyiax.entity.RestBean;
+import io.chenyiax.entity.WeChatUserDetails;
+import io.chenyiax.service.ProgressService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 进度看板接口，读取预先汇总的每日统计，不扫描评测历史。
+ */
+@RequestMapping("/api/app/progress")
+@RestController
+public class ProgressController {
+    @Autowired
+    ProgressService progressService;
+
+    @GetMapping
+    public RestBean<List<ProgressStats>> student(@AuthenticationPrincipal WeChatUserDetails user,
+                                                 @RequestParam(defaultValue = "30") int days) {
+        return RestBean.success(progressService.query(ProgressService.STUDENT,
+                String.valueOf(user.getUser().getId()), days));
+    }
+}
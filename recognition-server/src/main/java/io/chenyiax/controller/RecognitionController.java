@@ -1,13 +1,27 @@
 package io.chenyiax.controller;
 
+import io.chenyiax.entity.BatchRecognitionRequest;
+import io.chenyiax.entity.CursorPage;
+import io.chenyiax.entity.Evaluation;
 import io.chenyiax.entity.ImgRequest;
 import io.chenyiax.entity.RestBean;
+import io.chenyiax.entity.SectionedEvaluation;
+import io.chenyiax.entity.StructuredEvaluation;
+import io.chenyiax.entity.WeChatUserDetails;
+import io.chenyiax.service.BatchRecognitionService;
 import io.chenyiax.service.RecognitionService;
+import io.chenyiax.service.SectionedRecognitionService;
+import io.chenyiax.service.StructuredRecognitionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
 @RequestMapping("/api/app")
 @RestController
@@ -15,8 +29,45 @@ public class RecognitionController {
     @Autowired
     RecognitionService recognitionService;
 
+    @Autowired
+    BatchRecognitionService batchRecognitionService;
+
+    @Autowired
+    SectionedRecognitionService sectionedRecognitionService;
+
+    @Autowired
+    StructuredRecognitionService structuredRecognitionService;
+
     @PostMapping("/recognition")
-    public RestBean<String> recognition(@RequestBody ImgRequest request) {
-        return RestBean.success(recognitionService.recognition(request));
+    public RestBean<String> recognition(@AuthenticationPrincipal WeChatUserDetails user,
+                                        @RequestBody ImgRequest request) {
+        return RestBean.success(recognitionService.recognition(request, user.getUser().getId()));
+    }
+
+    @PostMapping("/recognition/sections")
+    public RestBean<SectionedEvaluation> sectionedRecognition(@AuthenticationPrincipal WeChatUserDetails user,
+                                                             @RequestBody ImgRequest request) {
+        return RestBean.success(sectionedRecognitionService.recognition(request, user.getUser().getId()));
+    }
+
+    @PostMapping("/recognition/structured")
+    public RestBean<StructuredEvaluation> structuredRecognition(@AuthenticationPrincipal WeChatUserDetails user,
+                                                               @RequestBody ImgRequest request) {
+        return RestBean.success(structuredRecognitionService.recognition(request, user.getUser().getId()));
+    }
+
+    @PostMapping("/recognition/batch")
+    public ResponseEntity<ResponseBodyEmitter> batchRecognition(@AuthenticationPrincipal WeChatUserDetails user,
+                                                                @RequestBody BatchRecognitionRequest request) {
+        return ResponseEntity.ok()
+                .contentType(BatchRecognitionService.NDJSON)
+                .body(batchRecognitionService.recognition(request, user.getUser().getId()));
+    }
+
+    @GetMapping("/history")
+    public RestBean<CursorPage<Evaluation>> history(@AuthenticationPrincipal WeChatUserDetails user,
+                                                    @RequestParam(required = false) Long cursor,
+                                                    @RequestParam(defaultValue = "20") int size) {
+        return RestBean.success(recognitionService.history(user.getUser().getId(), cursor, size));
     }
 }
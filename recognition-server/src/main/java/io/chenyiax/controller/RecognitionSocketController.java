@@ -0,0 +1,25 @@
+package io.chenyiax.controller;
+
+import io.chenyiax.entity.SocketRecognitionRequest;
+import io.chenyiax.entity.WeChatUserDetails;
+import io.chenyiax.service.RecognitionPushService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Controller;
+
+@Controller
+public class RecognitionSocketController {
+    @Autowired
+    RecognitionPushService recognitionPushService;
+
+    @MessageMapping("/recognition")
+    public void recognition(Authentication authentication,
+                            @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId,
+                            @Payload SocketRecognitionRequest request) {
+        recognitionPushService.submit((WeChatUserDetails) authentication.getPrincipal(), sessionId, request);
+    }
+}
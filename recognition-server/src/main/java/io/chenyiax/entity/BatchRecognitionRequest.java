@@ -0,0 +1,13 @@
+package io.chenyiax.entity;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量识别请求，通常由老师一次性上传整个班级的作业图片。
+ */
+@Data
+public class BatchRecognitionRequest {
+    List<String> imgs;
+}
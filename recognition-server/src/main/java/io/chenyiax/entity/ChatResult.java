@@ -0,0 +1,21 @@
+package io.chenyiax.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * ChatResult 类封装一次混元调用的结果，包括模型返回的内容、实际处理该请求的模型以及本次调用消耗的 token 数。
+ * 从缓存读取的结果没有产生调用，token 数为 0。
+ */
+@Data
+@AllArgsConstructor
+public class ChatResult {
+    private String content;
+    private String model;
+    private long promptTokens;
+    private long completionTokens;
+
+    public ChatResult(String content, String model) {
+        this(content, model, 0, 0);
+    }
+}
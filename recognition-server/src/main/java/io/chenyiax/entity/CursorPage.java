@@ -0,0 +1,27 @@
+package io.chenyiax.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * CursorPage 类用于封装基于游标（keyset）的分页结果。
+ * 客户端在请求下一页时携带 nextCursor，若 nextCursor 为 null 则表示没有更多数据。
+ *
+ * @param <T> 分页数据的类型
+ */
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    /**
+     * 当前页的数据列表。
+     */
+    private List<T> items;
+
+    /**
+     * 下一页的游标，为 null 时表示已经到达最后一页。
+     */
+    private Long nextCursor;
+}
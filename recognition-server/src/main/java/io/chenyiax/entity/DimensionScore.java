@@ -0,0 +1,22 @@
+package io.chenyiax.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 结构化评测中单个维度的分数和简短评语。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DimensionScore {
+    private EvaluationDimension dimension;
+    private String title;
+
+    /**
+     * 0 到 100 的整数分数。
+     */
+    private int score;
+    private String comment;
+}
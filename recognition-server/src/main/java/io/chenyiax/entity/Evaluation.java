@@ -0,0 +1,22 @@
+package io.chenyiax.entity;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evaluation 类对应 evaluations 表中的一条书法评测记录。
+ * 记录用户、图片哈希、所用模型、提示词版本、评测结果以及调用耗时，
+ * 以便用户重新查看历史评测时无需再次调用混元模型。
+ */
+@Data
+public class Evaluation {
+    private Long id;
+    private Integer userId;
+    private String imageHash;
+    private String model;
+    private String promptVersion;
+    private String result;
+    private Long latencyMs;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,37 @@
+package io.chenyiax.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 书法评测的四个维度，每个维度对应一段独立的提示词。
+ */
+@Getter
+@AllArgsConstructor
+public enum EvaluationDimension {
+    BRUSHWORK("笔法分析", "评价笔画的力度、流畅度和技法运用"),
+    STRUCTURE("结构分析", "评价字形结构、比例和空间安排"),
+    COMPOSITION("章法分析", "评价整体布局、行气连贯性和节奏感"),
+    SUGGESTION("改进建议", "针对不足之处提出具体改进建议");
+
+    /**
+     * 维度标题。
+     */
+    private final String title;
+
+    /**
+     * 该维度的评价要求。
+     */
+    private final String requirement;
+
+    /**
+     * 生成只针对该维度的提示词，并限制回答长度。
+     *
+     * @param maxChars 回答的最大字数。
+     * @return 提示词。
+     */
+    public String prompt(int maxChars) {
+        return String.format("你是一位小学书法老师。请只针对提供的书法作品进行%s：%s。回答不超过%d字。",
+                title, requirement, maxChars);
+    }
+}
@@ -0,0 +1,29 @@
+package io.chenyiax.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 分维度评测中单个维度的结果。
+ */
+@Data
+@AllArgsConstructor
+public class EvaluationSection {
+
+    /**
+     * 单个维度的处理状态。
+     */
+    public enum Status {
+        /** 已完成 */
+        DONE,
+        /** 调用失败 */
+        FAILED,
+        /** 超过该维度的时间上限 */
+        TIMEOUT
+    }
+
+    private EvaluationDimension dimension;
+    private String title;
+    private Status status;
+    private String content;
+}
@@ -0,0 +1,35 @@
+package io.chenyiax.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * ProgressRollup 类对应 progress_rollups 表中的一行：某个统计对象（目前只有学生）在某一天、
+ * 某个评分维度上落在某个分数段的评测次数和分数之和。批量写入时 count 和 scoreSum 表示需要累加的增量。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressRollup {
+    /**
+     * 统计对象类型，目前只有 student。
+     */
+    private String scope;
+    private String scopeId;
+    private LocalDate day;
+
+    /**
+     * 评分维度：overall 或 EvaluationDimension 的小写名称。
+     */
+    private String dimension;
+
+    /**
+     * 分数段，0 表示 0-9 分，9 表示 90-100 分。
+     */
+    private Integer bucket;
+    private Long count;
+    private Long scoreSum;
+}
@@ -0,0 +1,25 @@
+package io.chenyiax.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * 某一天某个评分维度的进度统计：评测次数、平均分和按 10 分一段的分数分布。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressStats {
+    private LocalDate day;
+    private String dimension;
+    private long count;
+    private double mean;
+
+    /**
+     * 各分数段的评测次数，下标 0 表示 0-9 分，下标 9 表示 90-100 分。
+     */
+    private long[] histogram;
+}
@@ -0,0 +1,55 @@
+package io.chenyiax.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * RecognitionEvent 类表示一次识别请求的状态变化，用于向客户端推送识别进度和最终结果。
+ */
+@Data
+@AllArgsConstructor
+public class RecognitionEvent {
+
+    /**
+     * 识别请求的状态。
+     */
+    public enum Status {
+        /** 请求已接收，等待处理 */
+        ACCEPTED,
+        /** 正在调用模型进行识别 */
+        PROCESSING,
+        /** 识别完成 */
+        DONE,
+        /** 识别失败 */
+        FAILED
+    }
+
+    /**
+     * 客户端提供的请求标识。
+     */
+    private String requestId;
+
+    private Status status;
+
+    /**
+     * 识别结果，仅在 DONE 状态时有值。
+     */
+    private String result;
+
+    /**
+     * 失败原因，仅在 FAILED 状态时有值。
+     */
+    private String message;
+
+    public static RecognitionEvent of(String requestId, Status status) {
+        return new RecognitionEvent(requestId, status, null, null);
+    }
+
+    public static RecognitionEvent done(String requestId, String result) {
+        return new RecognitionEvent(requestId, Status.DONE, result, null);
+    }
+
+    public static RecognitionEvent failed(String requestId, String message) {
+        return new RecognitionEvent(requestId, Status.FAILED, null, message);
+    }
+}
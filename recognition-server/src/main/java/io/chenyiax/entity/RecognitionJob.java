@@ -0,0 +1,17 @@
+package io.chenyiax.entity;
+
+import lombok.Data;
+
+/**
+ * RecognitionJob 类表示一次书法识别任务，在 API 节点与识别 worker 之间通过消息队列传递。
+ */
+@Data
+public class RecognitionJob {
+    private Integer userId;
+    private String img;
+
+    /**
+     * 请求的截止时间（毫秒时间戳），为 null 表示没有截止时间。worker 取到已过期的任务时直接放弃。
+     */
+    private Long deadline;
+}
@@ -0,0 +1,26 @@
+package io.chenyiax.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * RecognitionJobResult 类是 worker 处理识别任务后回复给 API 节点的结果。
+ * 成功时 code 为 200 并携带识别结果，失败时携带业务错误码和错误消息。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecognitionJobResult {
+    private int code;
+    private String message;
+    private String result;
+
+    public static RecognitionJobResult success(String result) {
+        return new RecognitionJobResult(200, "Success", result);
+    }
+
+    public static RecognitionJobResult failure(int code, String message) {
+        return new RecognitionJobResult(code, message, null);
+    }
+}
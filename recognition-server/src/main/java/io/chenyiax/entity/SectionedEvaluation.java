@@ -0,0 +1,20 @@
+package io.chenyiax.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 分维度评测结果，按维度顺序包含各维度的结果；部分维度失败或超时时仍返回其余维度。
+ */
+@Data
+@AllArgsConstructor
+public class SectionedEvaluation {
+    private List<EvaluationSection> sections;
+
+    /**
+     * 是否所有维度都已成功完成。
+     */
+    private boolean complete;
+}
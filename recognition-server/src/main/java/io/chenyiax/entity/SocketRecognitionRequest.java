@@ -0,0 +1,12 @@
+package io.chenyiax.entity;
+
+import lombok.Data;
+
+/**
+ * 客户端通过 WebSocket 提交的识别请求，requestId 由客户端生成，用于将推送的进度和结果与请求对应起来。
+ */
+@Data
+public class SocketRecognitionRequest {
+    String requestId;
+    String img;
+}
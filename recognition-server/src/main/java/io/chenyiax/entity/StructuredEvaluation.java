@@ -0,0 +1,25 @@
+package io.chenyiax.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 结构化评测结果：笔法、结构、章法三个维度的分数和评语，以及一条改进建议。
+ * 由模型返回的 JSON 在服务端校验后解析得到，长度可控，便于存储和统计。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StructuredEvaluation {
+    private List<DimensionScore> scores;
+
+    /**
+     * 各维度分数的平均值（四舍五入）。
+     */
+    private int overall;
+    private String suggestion;
+    private String model;
+}
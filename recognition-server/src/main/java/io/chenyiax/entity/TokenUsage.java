@@ -0,0 +1,22 @@
+package io.chenyiax.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * TokenUsage 类对应 token_usage 表中的一行，记录某个用户在某一天消耗的混元 token 数和调用次数。
+ * 批量写入时各字段表示本次需要累加的增量。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenUsage {
+    private Integer userId;
+    private LocalDate usageDate;
+    private Long promptTokens;
+    private Long completionTokens;
+    private Long requests;
+}
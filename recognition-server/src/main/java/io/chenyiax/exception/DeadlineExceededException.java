@@ -0,0 +1,7 @@
+package io.chenyiax.exception;
+
+public class DeadlineExceededException extends BusinessException {
+    public DeadlineExceededException() {
+        super(1006, "请求处理超时，请稍后重试");
+    }
+}
@@ -1,7 +1,20 @@
 package io.chenyiax.exception;
 
+import lombok.Getter;
+
+@Getter
 public class HunYuanException extends BusinessException {
+    /**
+     * 腾讯云 API 返回的错误码，非 API 错误（如本地限流）时为 null。
+     */
+    private final String errorCode;
+
     public HunYuanException(String message) {
+        this(message, null);
+    }
+
+    public HunYuanException(String message, String errorCode) {
         super(1001, message);
+        this.errorCode = errorCode;
     }
 }
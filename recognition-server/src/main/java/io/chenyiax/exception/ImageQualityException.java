@@ -0,0 +1,7 @@
+package io.chenyiax.exception;
+
+public class ImageQualityException extends BusinessException {
+    public ImageQualityException(String message) {
+        super(1005, message);
+    }
+}
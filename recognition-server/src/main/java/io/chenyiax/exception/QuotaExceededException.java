@@ -0,0 +1,7 @@
+package io.chenyiax.exception;
+
+public class QuotaExceededException extends BusinessException {
+    public QuotaExceededException() {
+        super(1007, "今日评测额度已用完，请明天再试");
+    }
+}
@@ -0,0 +1,114 @@
+package io.chenyiax.filter;
+
+import io.chenyiax.configuration.AdmissionConfig;
+import io.chenyiax.configuration.AdmissionConfig.Priority;
+import io.chenyiax.entity.RestBean;
+import io.chenyiax.service.AdmissionController;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * AdmissionFilter 在 Spring Security（包括 JwtAuthenticationFilter）之前按路由优先级做准入控制，
+ * 过载时尽早以 503 和 Retry-After 拒绝低优先级请求，避免廉价请求排在昂贵的识别请求后面；
+ * 停机排空期间以同样的方式拒绝除 CRITICAL 之外的所有新请求。
+ * 位于 DeadlineFilter 之后，排队时间同样不超过请求的截止时间。
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private final AdmissionConfig admissionConfig;
+    private final AdmissionController admissionController;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !admissionConfig.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        Priority priority = priority(request);
+        if (priority == Priority.CRITICAL) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!admissionController.tryAcquire(priority)) {
+            // 排空期间负载均衡已在摘除本实例，客户端重试时会被分配到其他实例
+            reject(response, admissionController.isDraining() ? "服务正在重启，请稍后重试" : "服务繁忙，请稍后重试");
+            return;
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                admissionController.release();
+            }
+        };
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // 流式响应（如批量识别）在异步处理结束后才释放槽位
+                request.getAsyncContext().addListener(new ReleaseListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response, String message) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(admissionConfig.getRetryAfter()));
+        response.setContentType("application/json;charset=utf-8");
+        response.getWriter().write(RestBean.failure(503, message).asJsonString());
+    }
+
+    private Priority priority(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Map.Entry<String, Priority> entry : admissionConfig.getRoutes().entrySet()) {
+            if (pathMatcher.match(entry.getKey(), path)) {
+                return entry.getValue();
+            }
+        }
+        return admissionConfig.getDefaultPriority();
+    }
+
+    private record ReleaseListener(Runnable release) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
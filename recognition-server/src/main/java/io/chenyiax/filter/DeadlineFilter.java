@@ -0,0 +1,75 @@
+package io.chenyiax.filter;
+
+import io.chenyiax.configuration.DeadlineConfig;
+import io.chenyiax.utils.Deadline;
+import io.chenyiax.utils.DeadlineContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * DeadlineFilter 为每个请求计算截止时间并保存到 DeadlineContext。
+ * 时间上限取接口配置，客户端可以通过请求头声明更短的剩余等待时间（如小程序 wx.request 的 timeout），
+ * 超过截止时间后下游调用不再继续，避免为客户端已经放弃的请求消耗模型调用额度。
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    private final DeadlineConfig deadlineConfig;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !deadlineConfig.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        DeadlineContext.set(Deadline.after(timeout(request)));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            DeadlineContext.clear();
+        }
+    }
+
+    /**
+     * 计算请求的时间上限：接口配置与客户端声明的剩余时间中较小的一个。
+     */
+    private long timeout(HttpServletRequest request) {
+        long timeout = deadlineConfig.getDefaultTimeout();
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Map.Entry<String, Long> entry : deadlineConfig.getEndpoints().entrySet()) {
+            if (pathMatcher.match(entry.getKey(), path)) {
+                timeout = entry.getValue();
+                break;
+            }
+        }
+
+        String header = request.getHeader(deadlineConfig.getHeader());
+        if (header != null) {
+            try {
+                long requested = Long.parseLong(header.trim());
+                if (requested > 0) {
+                    timeout = Math.min(timeout, requested);
+                }
+            } catch (NumberFormatException ignored) {
+                // 无效的请求头按未提供处理
+            }
+        }
+        return timeout;
+    }
+}
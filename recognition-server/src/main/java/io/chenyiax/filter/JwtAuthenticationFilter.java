@@ -51,8 +51,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // 调用 JwtUtils 工具类的 parseToken 方法将令牌解析为 UserDetails 对象
             // 如果解析结果为 null，说明解析失败，JWT 令牌无效
             UserDetails user = jwtUtils.parseToken(token);
-            // 打印解析得到的用户信息
-            System.out.println(user);
             // 检查解析得到的用户信息是否不为 null
             if (user != null) {
                 // 使用 UsernamePasswordAuthenticationToken 作为身份验证实体，并填充相关用户信息
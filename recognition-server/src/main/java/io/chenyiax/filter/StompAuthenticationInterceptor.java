@@ -0,0 +1,67 @@
+package io.chenyiax.filter;
+
+import io.chenyiax.entity.WeChatUserDetails;
+import io.chenyiax.exception.JwtException;
+import io.chenyiax.utils.JwtUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+/**
+ * 该拦截器在 STOMP CONNECT 帧上进行 JWT 身份验证，与 JwtAuthenticationFilter 使用相同的令牌。
+ * 验证通过后把用户信息绑定到 WebSocket 会话上，后续消息和推送都基于该用户。
+ * 客户端只能订阅 /user/** 下的用户目的地、只能向 /app/** 发送消息，
+ * 不能直接订阅或发送到简单代理的 /queue/** 目的地，否则可以收到或伪造其他会话的推送。
+ */
+@Component
+@RequiredArgsConstructor
+public class StompAuthenticationInterceptor implements ChannelInterceptor {
+
+    private static final String USER_PREFIX = "/user/";
+    private static final String APP_PREFIX = "/app/";
+
+    private final JwtUtils jwtUtils;
+
+    /**
+     * 在消息发送到入站通道之前调用，对 CONNECT 帧进行身份验证，拒绝未认证会话的其他帧，
+     * 以及订阅或发送到不允许的目的地的帧。
+     *
+     * @param message 入站消息。
+     * @param channel 入站通道。
+     * @return 原始消息。
+     * @throws JwtException 如果 CONNECT 帧缺少令牌或令牌无效，或帧的目的地不允许访问，抛出该异常，客户端会收到 ERROR 帧。
+     */
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            // 从 CONNECT 帧的原生头中获取 "Authorization" 信息
+            String authorization = accessor.getFirstNativeHeader("Authorization");
+            if (authorization == null || !authorization.startsWith("Bearer ")) {
+                throw new JwtException("Missing bearer token");
+            }
+            WeChatUserDetails user = jwtUtils.parseToken(authorization.substring(7));
+            accessor.setUser(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        } else if (StompCommand.SEND.equals(accessor.getCommand()) || StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            if (accessor.getUser() == null) {
+                throw new JwtException("Unauthenticated STOMP session");
+            }
+            String prefix = StompCommand.SUBSCRIBE.equals(accessor.getCommand()) ? USER_PREFIX : APP_PREFIX;
+            String destination = accessor.getDestination();
+            if (destination == null || !destination.startsWith(prefix) || destination.contains("..")) {
+                throw new JwtException("Destination not allowed: " + destination);
+            }
+        }
+        return message;
+    }
+}
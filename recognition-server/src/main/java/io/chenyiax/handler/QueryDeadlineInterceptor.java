@@ -0,0 +1,36 @@
+package io.chenyiax.handler;
+
+import io.chenyiax.utils.DeadlineContext;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * QueryDeadlineInterceptor 按当前请求的剩余时间设置 JDBC 查询超时。
+ * 已经超过截止时间的请求不再执行查询；没有截止时间的线程（如评测历史写入线程）保持原有的超时设置。
+ */
+@Component
+@Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}))
+public class QueryDeadlineInterceptor implements Interceptor {
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (DeadlineContext.current() == null) {
+            return invocation.proceed();
+        }
+        long remaining = DeadlineContext.remainingMillis(Long.MAX_VALUE);
+        Statement statement = (Statement) invocation.proceed();
+        // JDBC 查询超时以秒为单位，向上取整
+        int seconds = (int) Math.min(Integer.MAX_VALUE, (remaining + 999) / 1000);
+        if (statement.getQueryTimeout() == 0 || statement.getQueryTimeout() > seconds) {
+            statement.setQueryTimeout(seconds);
+        }
+        return statement;
+    }
+}
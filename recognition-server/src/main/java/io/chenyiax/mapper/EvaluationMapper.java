@@ -0,0 +1,35 @@
+package io.chenyiax.mapper;
+
+import io.chenyiax.entity.Evaluation;
+import org.apache.ibatis.annotations.*;
+
+import java.util.List;
+
+@Mapper
+public interface EvaluationMapper {
+    @Insert({"<script>",
+            "insert into evaluations(user_id, image_hash, model, prompt_version, result, latency_ms, created_at) values",
+            "<foreach collection='list' item='e' separator=','>",
+            "(#{e.userId}, #{e.imageHash}, #{e.model}, #{e.promptVersion}, #{e.result}, #{e.latencyMs}, #{e.createdAt})",
+            "</foreach>",
+            "</script>"})
+    int insertBatch(@Param("list") List<Evaluation> evaluations);
+
+    @Select({"<script>",
+            "select id, user_id, image_hash, model, prompt_version, result, latency_ms, created_at from evaluations",
+            "where user_id = #{userId}",
+            "<if test='cursor != null'>and id &lt; #{cursor}</if>",
+            "order by id desc limit #{limit}",
+            "</script>"})
+    @Results(id = "evaluationResult", value = {
+            @Result(property = "id", column = "id"),
+            @Result(property = "userId", column = "user_id"),
+            @Result(property = "imageHash", column = "image_hash"),
+            @Result(property = "model", column = "model"),
+            @Result(property = "promptVersion", column = "prompt_version"),
+            @Result(property = "result", column = "result"),
+            @Result(property = "latencyMs", column = "latency_ms"),
+            @Result(property = "createdAt", column = "created_at")
+    })
+    List<Evaluation> listByUser(@Param("userId") Integer userId, @Param("cursor") Long cursor, @Param("limit") int limit);
+}
@@ -0,0 +1,35 @@
+package io.chenyiax.mapper;
+
+import io.chenyiax.entity.ProgressRollup;
+import org.apache.ibatis.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Mapper
+public interface ProgressMapper {
+    @Insert({"<script>",
+            "insert into progress_rollups(scope, scope_id, day, dimension, bucket, count, score_sum) values",
+            "<foreach collection='list' item='r' separator=','>",
+            "(#{r.scope}, #{r.scopeId}, #{r.day}, #{r.dimension}, #{r.bucket}, #{r.count}, #{r.scoreSum})",
+            "</foreach>",
+            "on duplicate key update",
+            "count = count + values(count),",
+            "score_sum = score_sum + values(score_sum)",
+            "</script>"})
+    int upsertBatch(@Param("list") List<ProgressRollup> rollups);
+
+    @Select({"select scope, scope_id, day, dimension, bucket, count, score_sum from progress_rollups",
+            "where scope = #{scope} and scope_id = #{scopeId} and day between #{from} and #{to}"})
+    @Results(id = "progressRollupResult", value = {
+            @Result(property = "scope", column = "scope"),
+            @Result(property = "scopeId", column = "scope_id"),
+            @Result(property = "day", column = "day"),
+            @Result(property = "dimension", column = "dimension"),
+            @Result(property = "bucket", column = "bucket"),
+            @Result(property = "count", column = "count"),
+            @Result(property = "scoreSum", column = "score_sum")
+    })
+    List<ProgressRollup> listRange(@Param("scope") String scope, @Param("scopeId") String scopeId,
+                                   @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
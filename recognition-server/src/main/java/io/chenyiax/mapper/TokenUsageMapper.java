@@ -0,0 +1,37 @@
+package io.chenyiax.mapper;
+
+import io.chenyiax.entity.TokenUsage;
+import org.apache.ibatis.annotations.*;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Mapper
+public interface TokenUsageMapper {
+    @Insert({"<script>",
+            "insert into token_usage(user_id, usage_date, prompt_tokens, completion_tokens, requests) values",
+            "<foreach collection='list' item='u' separator=','>",
+            "(#{u.userId}, #{u.usageDate}, #{u.promptTokens}, #{u.completionTokens}, #{u.requests})",
+            "</foreach>",
+            "on duplicate key update",
+            "prompt_tokens = prompt_tokens + values(prompt_tokens),",
+            "completion_tokens = completion_tokens + values(completion_tokens),",
+            "requests = requests + values(requests)",
+            "</script>"})
+    int upsertBatch(@Param("list") List<TokenUsage> usages);
+
+    @Select({"<script>",
+            "select user_id, usage_date, prompt_tokens, completion_tokens, requests from token_usage",
+            "where usage_date = #{date} and user_id in",
+            "<foreach collection='userIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+            "</script>"})
+    @Results(id = "tokenUsageResult", value = {
+            @Result(property = "userId", column = "user_id"),
+            @Result(property = "usageDate", column = "usage_date"),
+            @Result(property = "promptTokens", column = "prompt_tokens"),
+            @Result(property = "completionTokens", column = "completion_tokens"),
+            @Result(property = "requests", column = "requests")
+    })
+    List<TokenUsage> listByDate(@Param("date") LocalDate date, @Param("userIds") Collection<Integer> userIds);
+}
@@ -0,0 +1,165 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.AdmissionConfig;
+import io.chenyiax.configuration.AdmissionConfig.Priority;
+import io.chenyiax.utils.Deadline;
+import io.chenyiax.utils.DeadlineContext;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AdmissionController 跟踪处理中的请求数和请求排队时间，按优先级决定是否接纳新请求。
+ * 每个优先级只能占用一部分处理槽位，低优先级请求先被拒绝，高优先级请求始终保留余量；
+ * 槽位不足时请求最多排队一段时间，排队时间持续超过目标（参考 CoDel）即判定为过载，
+ * 过载期间 NORMAL 请求不再排队、LOW 请求直接拒绝，让服务在过载时仍能及时响应。
+ * 停机排空开始后拒绝所有新请求，使处理中的请求数能够降到零。
+ */
+@Component
+@RequiredArgsConstructor
+public class AdmissionController {
+
+    private final AdmissionConfig admissionConfig;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+
+    private final Object lock = new Object();
+
+    /**
+     * 处理中的请求数，受 lock 保护。
+     */
+    private int inFlight;
+
+    /**
+     * 排队时间开始持续超过目标后判定为过载的时刻（毫秒），为 0 表示排队时间未超过目标。
+     */
+    private long overloadAt;
+
+    private volatile boolean overloaded;
+
+    private volatile boolean draining;
+
+    private DistributionSummary queueDelay;
+
+    @PostConstruct
+    public void init() {
+        this.queueDelay = meterRegistry.summary("http.admission.queue.delay");
+        meterRegistry.gauge("http.admission.inflight", this, controller -> controller.inFlight);
+        meterRegistry.gauge("http.admission.overloaded", this, controller -> controller.overloaded ? 1 : 0);
+    }
+
+    /**
+     * 尝试接纳一个请求，必要时排队等待槽位。接纳成功后必须调用 release。
+     *
+     * @param priority 请求优先级。
+     * @return 接纳成功返回 true，应拒绝时返回 false。
+     */
+    public boolean tryAcquire(Priority priority) {
+        if (draining || (priority == Priority.LOW && overloaded)) {
+            return reject(priority);
+        }
+
+        long start = System.nanoTime();
+        int limit = Math.max(1, (int) (admissionConfig.getMaxInFlight() * priority.getShare()));
+        long maxWait = priority == Priority.NORMAL && overloaded
+                ? 0 : admissionConfig.getTargetDelay() * priority.getMaxWait();
+        // 排队不超过请求的截止时间；已经到期的请求不排队，但在过滤器中不抛出异常，有空闲槽位时照常接纳，
+        // 由下游按截止时间返回超时响应
+        Deadline deadline = DeadlineContext.current();
+        if (deadline != null) {
+            maxWait = Math.max(0, Math.min(maxWait, deadline.remainingMillis()));
+        }
+        long waitUntil = start + TimeUnit.MILLISECONDS.toNanos(maxWait);
+
+        synchronized (lock) {
+            while (inFlight >= limit) {
+                if (draining) {
+                    return reject(priority);
+                }
+                long remaining = waitUntil - System.nanoTime();
+                if (remaining <= 0) {
+                    // 等不到槽位本身就说明排队时间超过了允许值
+                    observe(priority, Math.max(admissionConfig.getTargetDelay() + 1,
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+                    return reject(priority);
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return reject(priority);
+                }
+            }
+            inFlight++;
+            observe(priority, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return true;
+    }
+
+    /**
+     * @return 处理中的请求数（不含 CRITICAL 请求）。
+     */
+    public int inFlight() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    /**
+     * 开始停机排空：拒绝之后的所有请求，正在排队的请求也立即被拒绝。
+     */
+    public void startDraining() {
+        synchronized (lock) {
+            draining = true;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * @return 是否正在停机排空。
+     */
+    public boolean isDraining() {
+        return draining;
+    }
+
+    /**
+     * 释放一个处理槽位。
+     */
+    public void release() {
+        synchronized (lock) {
+            inFlight--;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * 记录一次排队时间并更新过载状态，调用时需持有 lock。
+     * 排队时间持续超过目标一个 interval 后进入过载状态，出现一次低于目标的排队时间即退出。
+     * HIGH 请求有预留的槽位，其排队时间不能反映整体负载，不参与过载判定。
+     */
+    private void observe(Priority priority, long delayMillis) {
+        queueDelay.record(delayMillis);
+        if (priority == Priority.HIGH) {
+            return;
+        }
+        long now = clock.millis();
+        if (delayMillis <= admissionConfig.getTargetDelay()) {
+            overloadAt = 0;
+            overloaded = false;
+        } else if (overloadAt == 0) {
+            overloadAt = now + admissionConfig.getInterval();
+        } else if (now >= overloadAt) {
+            overloaded = true;
+        }
+    }
+
+    private boolean reject(Priority priority) {
+        meterRegistry.counter("http.admission.rejected", "priority", priority.name()).increment();
+        return false;
+    }
+}
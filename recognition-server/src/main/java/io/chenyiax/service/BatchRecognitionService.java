@@ -0,0 +1,176 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.BatchRecognitionConfig;
+import io.chenyiax.entity.BatchRecognitionRequest;
+import io.chenyiax.entity.ImgRequest;
+import io.chenyiax.entity.RecognitionEvent;
+import io.chenyiax.exception.BusinessException;
+import io.chenyiax.utils.Deadline;
+import io.chenyiax.utils.DeadlineContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * BatchRecognitionService 负责处理批量识别请求。
+ * 图片在识别线程池中并行调用混元模型，同时进行的图片数不超过混元调用的全局并发许可数，
+ * 一张图片完成后再提交下一张，避免超出配额的图片在等待许可时超时。
+ * 每张图片完成后立即以一行 JSON（NDJSON）的形式写回客户端。
+ * 写出结果失败（客户端已断开）或响应超时后取消请求的截止时间，剩余图片不再等待模型调用。
+ */
+@Service
+public class BatchRecognitionService {
+
+    /**
+     * NDJSON 响应的媒体类型。
+     */
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    /**
+     * 非业务异常导致单张图片失败时写给客户端的消息。
+     */
+    static final String ITEM_FAILED = "Recognition failed";
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchRecognitionService.class);
+
+    @Autowired
+    RecognitionService recognitionService;
+
+    @Autowired
+    BatchRecognitionConfig batchRecognitionConfig;
+
+    @Autowired
+    @Qualifier("recognitionExecutor")
+    ThreadPoolTaskExecutor recognitionExecutor;
+
+    @Autowired
+    HunyuanCallExecutor callExecutor;
+
+    /**
+     * 并行处理批量识别请求，并返回逐条推送结果的响应发射器。
+     * 每条结果的 requestId 为图片在请求列表中的下标。
+     *
+     * @param request 批量识别请求。
+     * @param userId 发起请求的用户 ID。
+     * @return 逐条写出识别结果的 ResponseBodyEmitter。
+     * @throws BusinessException 当图片列表为空或超过数量上限时抛出。
+     */
+    public ResponseBodyEmitter recognition(BatchRecognitionRequest request, Integer userId) {
+        List<String> imgs = request.getImgs();
+        if (imgs == null || imgs.isEmpty()) {
+            throw new BusinessException(400, "No images in batch");
+        }
+        if (imgs.size() > batchRecognitionConfig.getMaxSize()) {
+            throw new BusinessException(400, "Batch size exceeds " + batchRecognitionConfig.getMaxSize());
+        }
+
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(batchRecognitionConfig.getTimeout());
+        // 各图片的任务通过线程池的 TaskDecorator 继承这一截止时间
+        Deadline deadline = DeadlineContext.current();
+        Runnable cancel = () -> {
+            if (deadline != null) {
+                deadline.cancel();
+            }
+        };
+        emitter.onTimeout(cancel);
+        emitter.onError(e -> cancel.run());
+        AtomicInteger next = new AtomicInteger();
+        Consumer<RecognitionEvent> sink = event -> send(emitter, event, cancel);
+        CompletableFuture<?>[] lanes = new CompletableFuture<?>[Math.min(imgs.size(), callExecutor.maxConcurrency())];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = submitNext(imgs, next, userId, sink);
+        }
+        CompletableFuture.allOf(lanes).whenComplete((ignored, e) -> emitter.complete());
+        return emitter;
+    }
+
+    /**
+     * 提交下一张尚未处理的图片，写出结果后继续提交，直到所有图片都已提交。
+     *
+     * @param imgs 图片列表。
+     * @param next 下一张图片的下标，由各个并行的提交链共享。
+     * @param userId 用户 ID。
+     * @param sink 写出单张图片的结果。
+     * @return 该提交链上所有图片都写出结果后完成。
+     */
+    private CompletableFuture<Void> submitNext(List<String> imgs, AtomicInteger next, Integer userId,
+                                               Consumer<RecognitionEvent> sink) {
+        int i = next.getAndIncrement();
+        if (i >= imgs.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return submitItem(String.valueOf(i), imgs.get(i), userId)
+                .thenAccept(sink)
+                .thenCompose(ignored -> submitNext(imgs, next, userId, sink));
+    }
+
+    /**
+     * 将单张图片提交到识别线程池，线程池拒绝时直接返回失败结果。
+     *
+     * @param requestId 图片在请求列表中的下标。
+     * @param img 图片数据。
+     * @param userId 用户 ID。
+     * @return 单张图片的识别结果。
+     */
+    private CompletableFuture<RecognitionEvent> submitItem(String requestId, String img, Integer userId) {
+        ImgRequest imgRequest = new ImgRequest();
+        imgRequest.setImg(img);
+        try {
+            return CompletableFuture
+                    .supplyAsync(() -> RecognitionEvent.done(requestId,
+                            recognitionService.recognition(imgRequest, userId)), recognitionExecutor)
+                    .exceptionally(e -> RecognitionEvent.failed(requestId, rootMessage(e)));
+        } catch (TaskRejectedException e) {
+            return CompletableFuture.completedFuture(
+                    RecognitionEvent.failed(requestId, "Server busy, please retry later"));
+        }
+    }
+
+    /**
+     * 写出一行识别结果。多个线程可能同时完成，因此需要对发射器加锁保证每行完整。
+     *
+     * @param emitter 响应发射器。
+     * @param event 单张图片的识别结果。
+     * @param cancel 写出失败时取消剩余图片的处理。
+     */
+    private void send(ResponseBodyEmitter emitter, RecognitionEvent event, Runnable cancel) {
+        synchronized (emitter) {
+            try {
+                emitter.send(event, MediaType.APPLICATION_JSON);
+                emitter.send("\n", MediaType.TEXT_PLAIN);
+            } catch (IOException | IllegalStateException e) {
+                // 客户端已断开或响应已结束，剩余结果无需再写出，也无需再处理
+                logger.debug("Failed to write batch item {}: {}", event.getRequestId(), e.getMessage());
+                cancel.run();
+            }
+        }
+    }
+
+    /**
+     * 获取写给客户端的错误消息。只有业务异常（包括 HunYuanException）的消息面向客户端，
+     * 其他异常的消息可能包含内部细节，只记录日志，客户端收到固定的提示。
+     *
+     * @param e 异步执行抛出的异常。
+     * @return 错误消息。
+     */
+    private String rootMessage(Throwable e) {
+        Throwable cause = e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof BusinessException) {
+            return cause.getMessage();
+        }
+        logger.error("Batch recognition item failed", cause);
+        return ITEM_FAILED;
+    }
+}
@@ -0,0 +1,172 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.CacheConfig;
+import io.chenyiax.entity.ChatResult;
+import io.chenyiax.utils.AppendOnlyStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * EvaluationCache 是评测结果的两级缓存，键由提示词版本和图片摘要组成。
+ * 第一级是内存中的 LRU 缓存；第二级是基于内存映射文件的追加写存储（AppendOnlyStore），
+ * 重新部署后从文件重建索引，热门作业照片的评测结果不必重新调用混元模型。
+ * 磁盘缓存打开失败时只使用内存缓存。
+ */
+@Component
+public class EvaluationCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(EvaluationCache.class);
+
+    @Autowired
+    private CacheConfig cacheConfig;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Map<String, ChatResult> memory;
+
+    private AppendOnlyStore disk;
+
+    private ExecutorService compactor;
+
+    @PostConstruct
+    public void init() {
+        int maxEntries = cacheConfig.getMemoryEntries();
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ChatResult> eldest) {
+                return size() > maxEntries;
+            }
+        };
+
+        CacheConfig.Disk config = cacheConfig.getDisk();
+        if (cacheConfig.isEnabled() && config.isEnabled()) {
+            // 压缩需要重写整个文件，放在单独的线程上，不阻塞写入缓存的请求线程
+            this.compactor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "evaluation-cache-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                long start = System.nanoTime();
+                this.disk = new AppendOnlyStore(Path.of(config.getPath()), config.getMaxSize().toBytes(),
+                        config.getCompactRatio(), compactor);
+                logger.info("Evaluation disk cache loaded {} entries from {} in {} ms",
+                        disk.size(), config.getPath(), (System.nanoTime() - start) / 1_000_000);
+                meterRegistry.gauge("recognition.cache.disk.entries", disk, AppendOnlyStore::size);
+                meterRegistry.gauge("recognition.cache.disk.used.bytes", disk, AppendOnlyStore::usedBytes);
+                meterRegistry.gauge("recognition.cache.disk.live.bytes", disk, AppendOnlyStore::liveBytes);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to open evaluation disk cache at {}, using memory cache only", config.getPath(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (disk != null) {
+            try {
+                // 等待进行中的压缩完成后关闭
+                disk.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close evaluation disk cache", e);
+            }
+        }
+        if (compactor != null) {
+            compactor.shutdown();
+        }
+    }
+
+    /**
+     * 构造缓存键。
+     *
+     * @param promptVersion 提示词版本。
+     * @param imageHash 图片摘要。
+     * @return 缓存键。
+     */
+    public static String key(String promptVersion, String imageHash) {
+        return promptVersion + ":" + imageHash;
+    }
+
+    /**
+     * 依次查询内存缓存和磁盘缓存，磁盘命中的结果会放入内存缓存。
+     *
+     * @param key 缓存键。
+     * @return 缓存的评测结果，未命中时返回 null。
+     */
+    public ChatResult get(String key) {
+        if (!cacheConfig.isEnabled()) {
+            return null;
+        }
+        ChatResult result;
+        synchronized (memory) {
+            result = memory.get(key);
+        }
+        if (result != null) {
+            count("memory");
+            return result;
+        }
+
+        if (disk != null) {
+            byte[] value = disk.get(key);
+            if (value != null) {
+                result = decode(value);
+                synchronized (memory) {
+                    memory.put(key, result);
+                }
+                count("disk");
+                return result;
+            }
+        }
+        count("miss");
+        return null;
+    }
+
+    /**
+     * 写入两级缓存。磁盘缓存写满时本次只写入内存，压缩在后台进行。
+     *
+     * @param key 缓存键。
+     * @param result 评测结果。
+     */
+    public void put(String key, ChatResult result) {
+        if (!cacheConfig.isEnabled()) {
+            return;
+        }
+        synchronized (memory) {
+            memory.put(key, result);
+        }
+        if (disk != null) {
+            disk.put(key, encode(result));
+        }
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("recognition.cache.requests", "result", result).increment();
+    }
+
+    /**
+     * 值的格式为“模型名称\n评测内容”，模型名称中不含换行。
+     */
+    private static byte[] encode(ChatResult result) {
+        return (result.getModel() + "\n" + result.getContent()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static ChatResult decode(byte[] value) {
+        String text = new String(value, StandardCharsets.UTF_8);
+        int separator = text.indexOf('\n');
+        return new ChatResult(text.substring(separator + 1), text.substring(0, separator));
+    }
+}
@@ -0,0 +1,139 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.EvaluationConfig;
+import io.chenyiax.entity.Evaluation;
+import io.chenyiax.mapper.EvaluationMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * EvaluationWriter 负责将评测记录异步、批量地写入数据库。
+ * 调用方只需将记录放入有界队列即可立即返回，后台线程在攒够一批或到达刷新间隔时
+ * 使用一条多行 INSERT 语句写入，从而使持久化不增加识别接口的响应延迟。
+ */
+@Component
+@RequiredArgsConstructor
+public class EvaluationWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(EvaluationWriter.class);
+
+    private final EvaluationMapper evaluationMapper;
+    private final EvaluationConfig evaluationConfig;
+
+    /**
+     * 等待写入的评测记录队列，容量有限，队列满时直接丢弃新记录而不阻塞请求线程。
+     */
+    private BlockingQueue<Evaluation> queue;
+
+    /**
+     * 因队列已满而被丢弃的记录数。
+     */
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    /**
+     * 创建队列并启动后台写入线程。
+     */
+    @PostConstruct
+    public void start() {
+        this.queue = new ArrayBlockingQueue<>(evaluationConfig.getQueueCapacity());
+        this.running = true;
+        this.worker = new Thread(this::runLoop, "evaluation-writer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * 提交一条评测记录等待写入，该方法不会阻塞。
+     *
+     * @param evaluation 待写入的评测记录。
+     * @return 若记录成功进入队列返回 true，队列已满或写入器已停止时返回 false。
+     */
+    public boolean submit(Evaluation evaluation) {
+        if (running && queue.offer(evaluation)) {
+            return true;
+        }
+        long count = dropped.incrementAndGet();
+        logger.warn("Evaluation queue is full or closed, dropped {} record(s) so far", count);
+        return false;
+    }
+
+    /**
+     * @return 队列中等待写入的记录数。
+     */
+    public int pending() {
+        return queue.size();
+    }
+
+    /**
+     * 停止接收新记录，并等待后台线程写完队列中剩余的记录。
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.join(evaluationConfig.getFlushInterval() * 5);
+    }
+
+    /**
+     * 后台写入循环：按批大小或刷新间隔（先到者为准）触发一次批量写入。
+     */
+    private void runLoop() {
+        int batchSize = evaluationConfig.getBatchSize();
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(evaluationConfig.getFlushInterval());
+        List<Evaluation> batch = new ArrayList<>(batchSize);
+        long flushAt = System.nanoTime() + intervalNanos;
+
+        while (running || !queue.isEmpty()) {
+            try {
+                long waitNanos = flushAt - System.nanoTime();
+                Evaluation next = waitNanos > 0 ? queue.poll(waitNanos, TimeUnit.NANOSECONDS) : queue.poll();
+                if (next != null) {
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            if (batch.size() >= batchSize || System.nanoTime() - flushAt >= 0) {
+                flush(batch);
+                flushAt = System.nanoTime() + intervalNanos;
+            }
+        }
+        // 退出前写完剩余记录
+        queue.drainTo(batch);
+        flush(batch);
+    }
+
+    /**
+     * 将当前批次写入数据库并清空批次。写入失败时记录日志并丢弃该批次，避免阻塞后续写入。
+     *
+     * @param batch 待写入的记录批次。
+     */
+    private void flush(List<Evaluation> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            evaluationMapper.insertBatch(batch);
+        } catch (Exception e) {
+            logger.error("Failed to persist {} evaluation record(s)", batch.size(), e);
+        } finally {
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.HunyuanConfig;
+import io.chenyiax.configuration.TencentCloudConfig;
+import io.chenyiax.exception.HunYuanException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HunyuanCallExecutor 持有混元调用的全局并发许可，并提供执行调用的有界线程池。
+ * <p>
+ * 调用方先获取许可，再把调用交给 execute；许可由执行调用的线程在调用真正结束时归还，
+ * 而不是在调用方因截止时间或对冲放弃等待时归还。SDK 的阻塞调用无法中断，被放弃的调用
+ * 最长会运行到 SDK 读取超时，期间仍然占用许可，因此 maxConcurrency 始终是上游实际进行中的调用数上限，
+ * inFlight 也如实反映停机时需要等待的调用。线程池的线程数和队列容量都不超过许可数。
+ * <p>
+ * 许可数不超过凭证池中各账号并发配额之和，超出配额的调用只会被腾讯云拒绝。
+ */
+@Component
+@RequiredArgsConstructor
+public class HunyuanCallExecutor implements Executor {
+
+    private static final Logger logger = LoggerFactory.getLogger(HunyuanCallExecutor.class);
+
+    private final HunyuanConfig hunyuanConfig;
+
+    private final TencentCloudConfig tencentCloudConfig;
+
+    private int maxConcurrency;
+
+    private Semaphore permits;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        int quota = tencentCloudConfig.totalConcurrency();
+        int configured = hunyuanConfig.getMaxConcurrency();
+        if (configured > quota) {
+            logger.warn("tencent.hunyuan.max-concurrency {} exceeds the account quota {}, using {}",
+                    configured, quota, quota);
+        }
+        this.maxConcurrency = configured > 0 ? Math.min(configured, quota) : quota;
+        this.permits = new Semaphore(maxConcurrency, true);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(maxConcurrency), runnable -> {
+                    Thread thread = new Thread(runnable, "hunyuan-call-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return 全局并发许可数。
+     */
+    public int maxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * @return 持有许可的调用数，包括调用方已经放弃等待但仍在进行中的调用和对冲请求。
+     */
+    public int inFlight() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * 等待一个并发许可。
+     *
+     * @param timeoutMillis 最长等待时间（毫秒）。
+     * @return 获取成功返回 true，超时返回 false。
+     * @throws InterruptedException 若等待时线程被中断。
+     */
+    public boolean acquire(long timeoutMillis) throws InterruptedException {
+        return permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return 能立即获得许可时返回 true，不等待。
+     */
+    public boolean tryAcquire() {
+        return permits.tryAcquire();
+    }
+
+    /**
+     * 归还一个没有交给 execute 的许可。
+     */
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * 在线程池中执行一个已经持有许可的调用，调用结束后归还许可。
+     *
+     * @param task 调用，调用方必须已经通过 acquire 或 tryAcquire 获得一个许可。
+     * @throws HunYuanException 若线程池已关闭，此时许可已归还。
+     */
+    @Override
+    public void execute(Runnable task) {
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw new HunYuanException("Hunyuan is busy, please retry later");
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package io.chenyiax.service;
+
+import com.tencentcloudapi.common.Credential;
+import com.tencentcloudapi.common.profile.ClientProfile;
+import com.tencentcloudapi.common.profile.HttpProfile;
+import com.tencentcloudapi.hunyuan.v20230901.HunyuanClient;
+import io.chenyiax.configuration.HunyuanConfig;
+import io.chenyiax.configuration.TencentCloudConfig;
+import io.chenyiax.exception.HunYuanException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * HunyuanClientPool 为凭证池中的每个腾讯云账号维护一个 HunyuanClient，
+ * 按剩余并发配额把调用分摊到各账号，每个账号进行中的调用数不超过其 max-concurrency，
+ * 被限流的账号暂停使用一段时间，使整体吞吐不再受单个账号配额的限制。
+ * 所有账号都在暂停期时不会拒绝调用，而是使用最早恢复的账号，由重试策略的退避降低调用频率。
+ * 未配置凭证池时只包含 tencent.cloud 下的单个账号。
+ * 这里跟踪的配额只是各账号本实例内进行中的调用数，不统计请求频率或 token 额度，也不感知其他实例的占用；
+ * 账号的实际额度用尽时只能通过限流错误发现，此时暂停使用该账号。
+ * 启动时只校验凭证，客户端在第一次使用时才创建，缩短新实例的启动时间。
+ * 每个账号在每个接入点上各有一个客户端，接入点由 HunyuanEndpointSelector 选择。
+ */
+@Component
+@RequiredArgsConstructor
+public class HunyuanClientPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(HunyuanClientPool.class);
+
+    /**
+     * 账号被限流时返回的错误码前缀。
+     */
+    private static final List<String> THROTTLE_CODES = List.of("RequestLimitExceeded", "LimitExceeded");
+
+    private final TencentCloudConfig tencentCloudConfig;
+    private final HunyuanConfig hunyuanConfig;
+    private final MeterRegistry meterRegistry;
+
+    private final List<PooledClient> clients = new ArrayList<>();
+
+    /**
+     * 校验每个账号的凭证，客户端延迟到第一次使用时创建。
+     *
+     * @throws IllegalStateException 若没有配置任何有效的凭证。
+     */
+    @PostConstruct
+    public void init() {
+        List<TencentCloudConfig.Account> accounts = tencentCloudConfig.getAccounts();
+        if (accounts.isEmpty()) {
+            TencentCloudConfig.Account account = new TencentCloudConfig.Account();
+            account.setName("default");
+            account.setSecretId(tencentCloudConfig.getSecretId());
+            account.setSecretKey(tencentCloudConfig.getSecretKey());
+            account.setMaxConcurrency(tencentCloudConfig.getMaxConcurrency());
+            accounts = List.of(account);
+        }
+
+        for (TencentCloudConfig.Account account : accounts) {
+            if (!StringUtils.hasText(account.getSecretId()) || !StringUtils.hasText(account.getSecretKey())) {
+                logger.error("Tencent Cloud credentials of account {} are not configured properly", account.getName());
+                throw new IllegalStateException("Invalid Tencent Cloud configuration");
+            }
+            PooledClient client = new PooledClient(account.getName(), endpoint -> createClient(account, endpoint),
+                    account.getMaxConcurrency());
+            clients.add(client);
+            meterRegistry.gauge("hunyuan.account.inflight", Tags.of("account", client.name),
+                    client, c -> c.inFlight.get());
+        }
+        logger.info("Tencent Hunyuan client pool configured with {} account(s)", clients.size());
+    }
+
+    /**
+     * 预热：为每个账号创建指定接入点上的客户端，避免第一次调用时才初始化 SDK。
+     *
+     * @param endpoint 接入点。
+     */
+    public void warmUp(HunyuanEndpointSelector.Endpoint endpoint) {
+        for (PooledClient client : clients) {
+            client.getClient(endpoint);
+        }
+    }
+
+    /**
+     * 选择剩余并发配额比例最高、仍有空闲名额的可用账号并占用一个并发名额，使用完毕后必须调用 release。
+     * 所有账号的名额都已占满时等待其他调用释放；所有账号都处于限流暂停期时使用最早恢复的账号。
+     *
+     * @param timeoutMillis 等待空闲名额的最长时间（毫秒）。
+     * @return 选中的客户端。
+     * @throws HunYuanException 若等待超时或被中断。
+     */
+    public synchronized PooledClient acquire(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        PooledClient best;
+        while ((best = select(System.nanoTime())) == null) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new HunYuanException("All Tencent Cloud accounts are at their concurrency limit");
+            }
+            try {
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new HunYuanException("Interrupted while waiting for a Tencent Cloud account");
+            }
+        }
+        best.inFlight.incrementAndGet();
+        meterRegistry.counter("hunyuan.account.requests", "account", best.name).increment();
+        return best;
+    }
+
+    /**
+     * 释放 acquire 占用的并发名额。
+     *
+     * @param client 客户端。
+     */
+    public synchronized void release(PooledClient client) {
+        client.inFlight.decrementAndGet();
+        notifyAll();
+    }
+
+    /**
+     * 报告调用失败。限流错误会使账号暂停使用一段时间。
+     *
+     * @param client 客户端。
+     * @param errorCode 腾讯云错误码。
+     * @return 若是账号限流错误返回 true。
+     */
+    public boolean recordFailure(PooledClient client, String errorCode) {
+        if (!isThrottle(errorCode)) {
+            return false;
+        }
+        client.sidelinedUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(tencentCloudConfig.getSidelineDuration());
+        meterRegistry.counter("hunyuan.account.throttled", "account", client.name).increment();
+        logger.warn("Tencent Cloud account {} is throttled, sidelined for {} ms",
+                client.name, tencentCloudConfig.getSidelineDuration());
+        return true;
+    }
+
+    /**
+     * @return 未暂停的账号中剩余比例最高且有空闲名额的账号；全部暂停时为最早恢复的账号（如有空闲名额）；
+     * 没有可用名额时返回 null。
+     */
+    private PooledClient select(long now) {
+        PooledClient best = null;
+        double bestHeadroom = 0;
+        PooledClient soonest = null;
+        boolean anyActive = false;
+        for (PooledClient client : clients) {
+            if (now - client.sidelinedUntil < 0) {
+                if (soonest == null || client.sidelinedUntil - soonest.sidelinedUntil < 0) {
+                    soonest = client;
+                }
+                continue;
+            }
+            anyActive = true;
+            double headroom = 1 - (double) client.inFlight.get() / client.maxConcurrency;
+            if (headroom > bestHeadroom) {
+                best = client;
+                bestHeadroom = headroom;
+            }
+        }
+        // 不让最后的可用账号也被暂停：单账号时一次限流不应变成整个节点的停顿
+        if (!anyActive && soonest.inFlight.get() < soonest.maxConcurrency) {
+            return soonest;
+        }
+        return best;
+    }
+
+    private boolean isThrottle(String errorCode) {
+        return errorCode != null && THROTTLE_CODES.stream().anyMatch(errorCode::startsWith);
+    }
+
+    private HunyuanClient createClient(TencentCloudConfig.Account account, HunyuanEndpointSelector.Endpoint endpoint) {
+        try {
+            Credential cred = new Credential(account.getSecretId(), account.getSecretKey());
+
+            HttpProfile httpProfile = new HttpProfile();
+            httpProfile.setEndpoint(endpoint.getHost());
+            httpProfile.setReadTimeout(hunyuanConfig.getReadTimeout());
+
+            ClientProfile clientProfile = new ClientProfile();
+            clientProfile.setHttpProfile(httpProfile);
+            return new HunyuanClient(cred, endpoint.getRegion(), clientProfile);
+        } catch (Exception e) {
+            logger.error("Failed to initialize Tencent Hunyuan client for account {} at {}",
+                    account.getName(), endpoint.getName(), e);
+            throw new HunYuanException("Failed to initialize Tencent Hunyuan client:" + e);
+        }
+    }
+
+    /**
+     * 凭证池中的一个账号及其在各接入点上的客户端。
+     */
+    public static class PooledClient {
+        private final String name;
+        private final Function<HunyuanEndpointSelector.Endpoint, HunyuanClient> factory;
+        private final int maxConcurrency;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile long sidelinedUntil = System.nanoTime();
+        private final Map<String, HunyuanClient> clients = new ConcurrentHashMap<>();
+
+        PooledClient(String name, Function<HunyuanEndpointSelector.Endpoint, HunyuanClient> factory, int maxConcurrency) {
+            this.name = name;
+            this.factory = factory;
+            this.maxConcurrency = Math.max(1, maxConcurrency);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @param endpoint 接入点。
+         * @return 该账号在指定接入点上的客户端，第一次调用时创建。
+         */
+        public HunyuanClient getClient(HunyuanEndpointSelector.Endpoint endpoint) {
+            return clients.computeIfAbsent(endpoint.getName(), key -> factory.apply(endpoint));
+        }
+    }
+}
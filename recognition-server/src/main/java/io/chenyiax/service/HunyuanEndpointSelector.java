@@ -0,0 +1,258 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.HunyuanConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HunyuanEndpointSelector 在配置的多个接入点（地域域名）中选择当前延迟最低的健康接入点。
+ * <p>
+ * 后台线程定期向每个接入点发送一个轻量的 HTTP 请求，收到任何响应即视为可达，
+ * 以往返时间的指数加权移动平均作为该接入点的延迟。选择结果只在探测后或接入点故障时更新，
+ * 因此 select 不做任何计算；其他接入点明显更快（低于 switchRatio）时才切换。
+ * 连续多次探测失败或调用出现网络错误的接入点暂停使用，流量自动切换到其他接入点，探测恢复后重新参与选择。
+ * 只配置了一个接入点时不启动探测。
+ */
+@Component
+@RequiredArgsConstructor
+public class HunyuanEndpointSelector {
+
+    private static final Logger logger = LoggerFactory.getLogger(HunyuanEndpointSelector.class);
+
+    private final HunyuanConfig hunyuanConfig;
+    private final MeterRegistry meterRegistry;
+
+    private final List<Endpoint> endpoints = new ArrayList<>();
+
+    /**
+     * 当前选中的接入点。
+     */
+    private volatile Endpoint current;
+
+    private HttpClient httpClient;
+
+    private ScheduledExecutorService prober;
+
+    @PostConstruct
+    public void init() {
+        for (HunyuanConfig.Endpoint config : hunyuanConfig.getEndpoints()) {
+            String probeUrl = StringUtils.hasText(config.getProbeUrl()) ? config.getProbeUrl() : "https://" + config.getHost() + "/";
+            Endpoint endpoint = new Endpoint(config, URI.create(probeUrl));
+            endpoints.add(endpoint);
+            meterRegistry.gauge("hunyuan.endpoint.latency", Tags.of("endpoint", endpoint.getName()),
+                    endpoint, e -> e.latency);
+            meterRegistry.gauge("hunyuan.endpoint.healthy", Tags.of("endpoint", endpoint.getName()),
+                    endpoint, e -> e.isHealthy(System.nanoTime()) ? 1 : 0);
+        }
+        if (endpoints.isEmpty()) {
+            throw new IllegalStateException("No Tencent Hunyuan endpoint configured");
+        }
+        this.current = endpoints.get(0);
+
+        HunyuanConfig.Probe probe = hunyuanConfig.getProbe();
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(probe.getTimeout()))
+                .build();
+        if (probe.isEnabled() && endpoints.size() > 1) {
+            this.prober = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "hunyuan-endpoint-probe");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // 第一轮探测在后台立即开始，不阻塞启动
+            prober.scheduleWithFixedDelay(this::probeAll, 0, probe.getInterval(), TimeUnit.MILLISECONDS);
+            logger.info("Probing {} Tencent Hunyuan endpoint(s) every {} ms", endpoints.size(), probe.getInterval());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (prober != null) {
+            prober.shutdownNow();
+        }
+    }
+
+    /**
+     * @return 当前延迟最低的健康接入点；全部不健康时返回最早恢复的接入点。
+     */
+    public Endpoint select() {
+        return current;
+    }
+
+    /**
+     * 报告一次调用失败，只有网络层面的错误才计入接入点的连续失败次数。
+     *
+     * @param endpoint 调用使用的接入点。
+     * @param errorCode 腾讯云错误码。
+     */
+    public void recordFailure(Endpoint endpoint, String errorCode) {
+        if (errorCode == null || hunyuanConfig.getProbe().getFailureCodes().stream().noneMatch(errorCode::startsWith)) {
+            return;
+        }
+        fail(endpoint, errorCode);
+    }
+
+    /**
+     * 报告一次调用成功，清零连续失败次数。
+     *
+     * @param endpoint 调用使用的接入点。
+     */
+    public void recordSuccess(Endpoint endpoint) {
+        endpoint.failures = 0;
+    }
+
+    /**
+     * 预热：同步探测一次所有接入点，建立 DNS 缓存和 TLS 会话，并在接收流量前得到初始延迟。
+     */
+    public void warmUp() {
+        probeAll();
+    }
+
+    /**
+     * 探测所有接入点并重新选择。
+     */
+    void probeAll() {
+        for (Endpoint endpoint : endpoints) {
+            probe(endpoint);
+        }
+        reselect();
+    }
+
+    private void probe(Endpoint endpoint) {
+        HunyuanConfig.Probe config = hunyuanConfig.getProbe();
+        HttpRequest request = HttpRequest.newBuilder(endpoint.probeUri)
+                .timeout(Duration.ofMillis(config.getTimeout()))
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        try {
+            // 腾讯云 API 对 GET 请求返回错误信息，任何 HTTP 响应都说明接入点可达
+            httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            double elapsed = (System.nanoTime() - start) / 1_000_000.0;
+            endpoint.latency = Double.isNaN(endpoint.latency)
+                    ? elapsed
+                    : config.getEwmaAlpha() * elapsed + (1 - config.getEwmaAlpha()) * endpoint.latency;
+            if (!endpoint.isHealthy(System.nanoTime())) {
+                logger.info("Tencent Hunyuan endpoint {} recovered", endpoint.getName());
+            }
+            endpoint.failures = 0;
+            endpoint.sidelinedUntil = System.nanoTime();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            fail(endpoint, e.getClass().getSimpleName());
+        }
+    }
+
+    private void fail(Endpoint endpoint, String reason) {
+        HunyuanConfig.Probe config = hunyuanConfig.getProbe();
+        meterRegistry.counter("hunyuan.endpoint.failures", "endpoint", endpoint.getName()).increment();
+        if (++endpoint.failures < config.getFailureThreshold() || !endpoint.isHealthy(System.nanoTime())) {
+            return;
+        }
+        endpoint.sidelinedUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getSidelineDuration());
+        logger.warn("Tencent Hunyuan endpoint {} failed {} time(s) in a row ({}), sidelined for {} ms",
+                endpoint.getName(), endpoint.failures, reason, config.getSidelineDuration());
+        if (endpoint == current) {
+            reselect();
+        }
+    }
+
+    /**
+     * 在健康的接入点中选择延迟最低的一个，只有明显更快时才离开当前接入点。
+     */
+    private synchronized void reselect() {
+        long now = System.nanoTime();
+        Endpoint selected = current;
+        if (!selected.isHealthy(now)) {
+            selected = null;
+        }
+        for (Endpoint endpoint : endpoints) {
+            if (!endpoint.isHealthy(now) || endpoint == selected) {
+                continue;
+            }
+            if (selected == null || faster(endpoint, selected, selected == current)) {
+                selected = endpoint;
+            }
+        }
+        if (selected == null) {
+            // 全部不健康时选择最早恢复的接入点，调用仍然可以尝试
+            selected = endpoints.stream()
+                    .min((a, b) -> Long.compare(a.sidelinedUntil - now, b.sidelinedUntil - now))
+                    .orElse(current);
+        }
+        if (selected != current) {
+            logger.info("Switching Tencent Hunyuan endpoint from {} to {} ({} ms vs {} ms)",
+                    current.getName(), selected.getName(), Math.round(current.latency), Math.round(selected.latency));
+            current = selected;
+        }
+    }
+
+    /**
+     * 尚无延迟数据的接入点不会取代已有数据的接入点；与当前接入点比较时要求明显更快。
+     */
+    private boolean faster(Endpoint candidate, Endpoint selected, boolean selectedIsCurrent) {
+        if (Double.isNaN(candidate.latency)) {
+            return false;
+        }
+        if (Double.isNaN(selected.latency)) {
+            return true;
+        }
+        double threshold = selectedIsCurrent ? hunyuanConfig.getProbe().getSwitchRatio() : 1.0;
+        return candidate.latency < selected.latency * threshold;
+    }
+
+    /**
+     * 一个接入点及其探测状态。
+     */
+    public static class Endpoint {
+        private final HunyuanConfig.Endpoint config;
+        private final URI probeUri;
+
+        /**
+         * 探测延迟的指数加权移动平均（毫秒），尚未探测成功时为 NaN。
+         */
+        private volatile double latency = Double.NaN;
+        private volatile int failures;
+        private volatile long sidelinedUntil = System.nanoTime();
+
+        Endpoint(HunyuanConfig.Endpoint config, URI probeUri) {
+            this.config = config;
+            this.probeUri = probeUri;
+        }
+
+        public String getName() {
+            return config.getName();
+        }
+
+        public String getHost() {
+            return config.getHost();
+        }
+
+        public String getRegion() {
+            return config.getRegion();
+        }
+
+        private boolean isHealthy(long now) {
+            return now - sidelinedUntil >= 0;
+        }
+    }
+}
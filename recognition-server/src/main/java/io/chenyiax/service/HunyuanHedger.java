@@ -0,0 +1,251 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.HunyuanConfig;
+import io.chenyiax.exception.DeadlineExceededException;
+import io.chenyiax.exception.HunYuanException;
+import io.chenyiax.utils.Deadline;
+import io.chenyiax.utils.DeadlineContext;
+import io.chenyiax.utils.LatencyTracker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * HunyuanHedger 为混元调用提供对冲请求（hedged request）能力，用于降低长尾延迟。
+ * 首个请求在对冲延迟（最近调用耗时的分位数）内未返回时，再发出一个相同的请求，取先成功返回的结果。
+ * 对冲请求数受预算约束，不超过总请求数的固定比例；预算只在对冲请求真正发出时消耗。
+ * 等待结果时不超过调用线程上的请求截止时间。所有请求都在 HunyuanCallExecutor 中执行并各自持有一个并发许可，
+ * 落后的请求无法中断，会运行到结束并在结束时归还许可。
+ */
+@Component
+@RequiredArgsConstructor
+public class HunyuanHedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(HunyuanHedger.class);
+
+    /**
+     * 对冲预算的累积上限，避免长时间空闲后突发大量对冲请求。
+     */
+    private static final double MAX_BUDGET = 10;
+
+    private final HunyuanConfig hunyuanConfig;
+    private final MeterRegistry meterRegistry;
+    private final HunyuanCallExecutor callExecutor;
+
+    private LatencyTracker latencyTracker;
+
+    /**
+     * 当前可用的对冲预算，每个请求增加 budgetRatio，每次对冲消耗 1。
+     */
+    private double budget;
+
+    private Counter requests;
+    private Counter hedged;
+    private Counter hedgeWins;
+    private Counter hedgeSkipped;
+
+    @PostConstruct
+    public void init() {
+        this.latencyTracker = new LatencyTracker(hunyuanConfig.getHedge().getWindow());
+        this.requests = meterRegistry.counter("hunyuan.hedge.requests");
+        this.hedged = meterRegistry.counter("hunyuan.hedge.issued");
+        this.hedgeWins = meterRegistry.counter("hunyuan.hedge.wins");
+        this.hedgeSkipped = meterRegistry.counter("hunyuan.hedge.skipped");
+    }
+
+    /**
+     * @return 是否启用对冲请求。
+     */
+    public boolean isEnabled() {
+        return hunyuanConfig.getHedge().isEnabled();
+    }
+
+    /**
+     * 执行一次带对冲的调用。
+     *
+     * @param primary 首个请求，调用方必须已经为它获得一个并发许可。
+     * @param hedge 准备对冲请求：能立即获得并发许可和配额时返回已持有许可的请求，否则返回 null 放弃对冲。
+     * @param <T> 调用结果类型。
+     * @return 先成功返回的结果。
+     * @throws RuntimeException 所有请求都失败时抛出最后一个失败请求的异常。
+     */
+    public <T> T call(Callable<T> primary, Supplier<Callable<T>> hedge) {
+        requests.increment();
+        deposit();
+
+        ExecutorCompletionService<T> completion = new ExecutorCompletionService<>(callExecutor);
+        Future<T> primaryFuture = completion.submit(timed(primary));
+        try {
+            Future<T> first = completion.poll(DeadlineContext.remainingMillis(hedgeDelay()), TimeUnit.MILLISECONDS);
+            if (first != null) {
+                return first.get();
+            }
+            Future<T> hedgeFuture = startHedge(completion, hedge);
+            if (hedgeFuture == null) {
+                return await(primaryFuture);
+            }
+
+            first = next(completion);
+            try {
+                return result(first, hedgeFuture);
+            } catch (ExecutionException e) {
+                // 先返回的请求失败了，等待另一个请求的结果
+                logger.debug("First hedged attempt failed, waiting for the other one", e.getCause());
+                return result(next(completion), hedgeFuture);
+            }
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HunYuanException("Interrupted while waiting for Hunyuan");
+        }
+    }
+
+    /**
+     * 在 HunyuanCallExecutor 中执行单个已持有并发许可的调用，等待结果时不超过调用线程上的请求截止时间。
+     * 截止时间到达后调用方立即返回；SDK 调用无法中断，会继续运行到结束并在结束时归还许可。
+     *
+     * @param attempt 调用，调用方必须已经获得一个并发许可。
+     * @param <T> 调用结果类型。
+     * @return 调用结果。
+     * @throws DeadlineExceededException 若在截止时间内没有得到结果。
+     */
+    public <T> T callWithinDeadline(Callable<T> attempt) {
+        FutureTask<T> future = new FutureTask<>(attempt);
+        callExecutor.execute(future);
+        try {
+            return await(future);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HunYuanException("Interrupted while waiting for Hunyuan");
+        }
+    }
+
+    /**
+     * 预留一份对冲预算并尝试发出对冲请求，没有真正发出时退回预算，不计入对冲次数。
+     *
+     * @return 对冲请求，预算不足或无法立即获得资源时返回 null。
+     */
+    private <T> Future<T> startHedge(ExecutorCompletionService<T> completion, Supplier<Callable<T>> hedge) {
+        if (!withdraw()) {
+            return null;
+        }
+        Future<T> future = null;
+        try {
+            Callable<T> attempt = hedge.get();
+            if (attempt != null) {
+                future = completion.submit(timed(attempt));
+            }
+        } catch (RuntimeException e) {
+            logger.debug("Failed to start hedged request: {}", e.getMessage());
+        }
+        if (future == null) {
+            refund();
+            hedgeSkipped.increment();
+            return null;
+        }
+        hedged.increment();
+        return future;
+    }
+
+    private <T> T result(Future<T> future, Future<T> hedgeFuture) throws ExecutionException, InterruptedException {
+        T result = future.get();
+        if (future == hedgeFuture) {
+            hedgeWins.increment();
+        }
+        return result;
+    }
+
+    /**
+     * 在截止时间内等待指定请求的结果。
+     */
+    private <T> T await(Future<T> future) throws ExecutionException, InterruptedException {
+        Deadline deadline = DeadlineContext.current();
+        if (deadline == null) {
+            return future.get();
+        }
+        try {
+            return future.get(DeadlineContext.remainingMillis(Long.MAX_VALUE), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException();
+        }
+    }
+
+    /**
+     * 在截止时间内等待下一个完成的请求。
+     */
+    private <T> Future<T> next(ExecutorCompletionService<T> completion) throws InterruptedException {
+        if (DeadlineContext.current() == null) {
+            return completion.take();
+        }
+        Future<T> future = completion.poll(DeadlineContext.remainingMillis(Long.MAX_VALUE), TimeUnit.MILLISECONDS);
+        if (future == null) {
+            throw new DeadlineExceededException();
+        }
+        return future;
+    }
+
+    /**
+     * 计算对冲延迟：样本足够时取配置分位数的耗时（不低于下限），否则使用默认延迟。
+     *
+     * @return 对冲延迟（毫秒）。
+     */
+    private long hedgeDelay() {
+        HunyuanConfig.Hedge config = hunyuanConfig.getHedge();
+        if (latencyTracker.size() < config.getMinSamples()) {
+            return config.getDefaultDelay();
+        }
+        return Math.max(config.getMinDelay(), latencyTracker.percentile(config.getPercentile()));
+    }
+
+    private synchronized void deposit() {
+        budget = Math.min(MAX_BUDGET, budget + hunyuanConfig.getHedge().getBudgetRatio());
+    }
+
+    private synchronized boolean withdraw() {
+        if (budget < 1) {
+            return false;
+        }
+        budget -= 1;
+        return true;
+    }
+
+    private synchronized void refund() {
+        budget = Math.min(MAX_BUDGET, budget + 1);
+    }
+
+    /**
+     * 包装调用，记录成功调用的耗时用于计算对冲延迟。
+     */
+    private <T> Callable<T> timed(Callable<T> attempt) {
+        return () -> {
+            long start = System.nanoTime();
+            T result = attempt.call();
+            latencyTracker.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return result;
+        };
+    }
+
+    private RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new HunYuanException("Failed to call Tencent Hunyuan API:" + cause);
+    }
+}
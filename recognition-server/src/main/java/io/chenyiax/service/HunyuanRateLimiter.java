@@ -0,0 +1,131 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.HunyuanConfig;
+import io.chenyiax.utils.TokenBucket;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HunyuanRateLimiter 在所有节点之间共享混元调用配额。
+ * 令牌桶保存在 QuotaStore（Redis）中，每次从中预取一小批令牌在本地使用，常见情况下调用不需要访问 Redis；
+ * 预取的令牌在短时间后失效，未用完的直接丢弃，节点之间的配额不会因预取而超出。
+ * Redis 不可用时退化为保守的本地限速，并在一段时间后再尝试 Redis。
+ */
+@Component
+@RequiredArgsConstructor
+public class HunyuanRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(HunyuanRateLimiter.class);
+
+    private final HunyuanConfig hunyuanConfig;
+    private final QuotaStore quotaStore;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 本地预取的剩余令牌数，受 this 保护。
+     */
+    private int localTokens;
+
+    /**
+     * 预取令牌的失效时刻（纳秒）。
+     */
+    private long localExpiresAt;
+
+    /**
+     * Redis 不可用时的本地令牌桶。
+     */
+    private TokenBucket fallback;
+
+    /**
+     * Redis 调用失败后，下一次尝试 Redis 的时刻（纳秒）。
+     */
+    private volatile long remoteRetryAt = System.nanoTime();
+
+    /**
+     * 获取一次调用的配额，必要时等待。
+     *
+     * @param timeoutMillis 最长等待时间（毫秒），为 0 时不等待。
+     * @return 获取成功返回 true，超时返回 false。
+     */
+    public boolean acquire(long timeoutMillis) {
+        HunyuanConfig.RateLimit config = hunyuanConfig.getRateLimit();
+        if (!config.isEnabled()) {
+            return true;
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (true) {
+            long wait = tryTake(config);
+            if (wait == 0) {
+                return true;
+            }
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) {
+                meterRegistry.counter("hunyuan.ratelimit.rejected").increment();
+                return false;
+            }
+            try {
+                Thread.sleep(Math.max(1, Math.min(wait, remaining)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 尝试取一个令牌：先用本地预取的令牌，用完后从 Redis 预取一批，Redis 不可用时使用本地令牌桶。
+     *
+     * @return 取到令牌返回 0，否则返回建议等待的毫秒数。
+     */
+    private long tryTake(HunyuanConfig.RateLimit config) {
+        long now = System.nanoTime();
+        synchronized (this) {
+            if (localTokens > 0 && now - localExpiresAt < 0) {
+                localTokens--;
+                return 0;
+            }
+            localTokens = 0;
+        }
+
+        if (now - remoteRetryAt >= 0) {
+            try {
+                QuotaStore.Grant grant = quotaStore.take(config.getKey(), config.getPermitsPerSecond(),
+                        config.getBurst(), config.getPrefetch());
+                meterRegistry.counter("hunyuan.ratelimit.remote").increment();
+                if (grant.granted() == 0) {
+                    return Math.max(1, grant.waitMillis());
+                }
+                synchronized (this) {
+                    localTokens += grant.granted() - 1;
+                    localExpiresAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getPrefetchTtl());
+                }
+                return 0;
+            } catch (RuntimeException e) {
+                remoteRetryAt = now + TimeUnit.MILLISECONDS.toNanos(config.getRetryInterval());
+                logger.warn("Quota store unavailable, using local limit of {}/s for {} ms: {}",
+                        config.getFallbackPermitsPerSecond(), config.getRetryInterval(), e.getMessage());
+            }
+        }
+
+        TokenBucket bucket = fallback(config);
+        if (bucket.take(1) == 1) {
+            meterRegistry.counter("hunyuan.ratelimit.fallback").increment();
+            return 0;
+        }
+        return Math.max(1, bucket.millisUntilAvailable());
+    }
+
+    private synchronized TokenBucket fallback(HunyuanConfig.RateLimit config) {
+        if (fallback == null) {
+            double rate = config.getFallbackPermitsPerSecond();
+            fallback = new TokenBucket(rate, Math.max(1, rate));
+        }
+        return fallback;
+    }
+}
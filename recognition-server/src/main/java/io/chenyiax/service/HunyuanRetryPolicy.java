@@ -0,0 +1,119 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.HunyuanConfig;
+import io.chenyiax.exception.HunYuanException;
+import io.chenyiax.utils.Deadline;
+import io.chenyiax.utils.DeadlineContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * HunyuanRetryPolicy 根据腾讯云错误码决定混元调用是否重试。
+ * 频率限制、内部错误等暂时性错误在整体截止时间内按 decorrelated jitter 退避重试，
+ * 鉴权失败、内容安全拦截、参数错误等不可恢复的错误从不重试，
+ * 避免学生手动重新提交造成的加倍负载。
+ */
+@Component
+@RequiredArgsConstructor
+public class HunyuanRetryPolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(HunyuanRetryPolicy.class);
+
+    private final HunyuanConfig hunyuanConfig;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 执行调用，并在遇到可重试错误时重试。
+     *
+     * @param attempt 单次调用。
+     * @param <T> 调用结果类型。
+     * @return 调用结果。
+     * @throws HunYuanException 遇到不可重试错误、重试次数用尽或超过截止时间时，抛出最后一次调用的异常。
+     */
+    public <T> T execute(Supplier<T> attempt) {
+        HunyuanConfig.Retry config = hunyuanConfig.getRetry();
+        if (!config.isEnabled()) {
+            return attempt.get();
+        }
+
+        // 重试不超过配置的整体时间，也不超过当前请求的截止时间
+        long budget = config.getDeadline();
+        Deadline requestDeadline = DeadlineContext.current();
+        if (requestDeadline != null) {
+            budget = Math.min(budget, requestDeadline.remainingMillis());
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget);
+        long previousDelay = config.getBaseDelay();
+        for (int attemptNumber = 1; ; attemptNumber++) {
+            try {
+                return attempt.get();
+            } catch (HunYuanException e) {
+                if (attemptNumber >= config.getMaxAttempts() || !isRetryable(e.getErrorCode())) {
+                    throw e;
+                }
+                long delay = nextDelay(previousDelay, config);
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (delay >= remaining) {
+                    throw e;
+                }
+
+                meterRegistry.counter("hunyuan.retries", "code", e.getErrorCode()).increment();
+                logger.warn("Hunyuan call failed with {}, retrying in {} ms (attempt {}/{})",
+                        e.getErrorCode(), delay, attemptNumber + 1, config.getMaxAttempts());
+                sleep(delay, e);
+                previousDelay = delay;
+            }
+        }
+    }
+
+    /**
+     * 判断错误码是否可重试。不可重试列表优先匹配，未知错误码默认不重试。
+     *
+     * @param errorCode 腾讯云错误码。
+     * @return 可重试时返回 true。
+     */
+    public boolean isRetryable(String errorCode) {
+        if (errorCode == null) {
+            return false;
+        }
+        HunyuanConfig.Retry config = hunyuanConfig.getRetry();
+        if (matches(errorCode, config.getNonRetryableCodes())) {
+            return false;
+        }
+        return matches(errorCode, config.getRetryableCodes());
+    }
+
+    /**
+     * 计算 decorrelated jitter 退避时间：在 [base, previous * 3] 之间随机取值，并且不超过上限。
+     *
+     * @param previousDelay 上一次的退避时间。
+     * @param config 重试配置。
+     * @return 本次退避时间（毫秒）。
+     */
+    long nextDelay(long previousDelay, HunyuanConfig.Retry config) {
+        long upper = Math.max(config.getBaseDelay() + 1, previousDelay * 3);
+        long delay = ThreadLocalRandom.current().nextLong(config.getBaseDelay(), upper);
+        return Math.min(config.getMaxDelay(), delay);
+    }
+
+    private boolean matches(String errorCode, List<String> prefixes) {
+        return prefixes.stream().anyMatch(errorCode::startsWith);
+    }
+
+    private void sleep(long delay, HunYuanException cause) {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+}
@@ -1,28 +1,30 @@
 package io.chenyiax.service;
 
-import com.tencentcloudapi.common.Credential;
 import com.tencentcloudapi.common.exception.TencentCloudSDKException;
-import com.tencentcloudapi.common.profile.ClientProfile;
-import com.tencentcloudapi.common.profile.HttpProfile;
-import com.tencentcloudapi.hunyuan.v20230901.HunyuanClient;
 import com.tencentcloudapi.hunyuan.v20230901.models.*;
 
-import io.chenyiax.configuration.TencentCloudConfig;
+import io.chenyiax.configuration.HunyuanConfig;
+import io.chenyiax.entity.ChatResult;
+import io.chenyiax.exception.DeadlineExceededException;
 import io.chenyiax.exception.HunYuanException;
-import jakarta.annotation.PostConstruct;
+import io.chenyiax.utils.DeadlineContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
 
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 
 /**
  * HunyuanService 是一个 Spring 服务类，用于与腾讯混元大模型进行交互。
- * 该类负责初始化腾讯云客户端，验证配置信息，并提供与模型进行聊天的功能。
+ * 该类负责限制全局并发，并提供与模型进行聊天的功能；腾讯云客户端由 HunyuanClientPool 按账号管理。
  */
 @Service
 public class HunyuanService {
@@ -33,88 +35,194 @@ public class HunyuanService {
     private static final Logger logger = LoggerFactory.getLogger(HunyuanService.class);
 
     /**
-     * 默认使用的腾讯混元模型名称。
+     * 模型没有返回内容时的默认回复。
      */
-    private static final String DEFAULT_MODEL = "hunyuan-vision";
+    public static final String NO_RESPONSE = "No response from the model";
 
     /**
-     * 默认的温度参数，用于控制模型生成结果的随机性。
+     * 自动注入混元调用配置，包含全局并发上限等信息。
      */
-    private static final Float DEFAULT_TEMPERATURE = 0.7f;
+    @Autowired
+    private HunyuanConfig hunyuanConfig;
 
     /**
-     * 自动注入腾讯云配置信息，包含密钥等关键信息。
+     * 对冲请求执行器，启用对冲时用于降低长尾延迟。
      */
     @Autowired
-    private TencentCloudConfig tencentCloudConfig;
+    private HunyuanHedger hunyuanHedger;
 
     /**
-     * 腾讯混元客户端，用于与腾讯混元 API 进行通信。
+     * 重试策略，根据错误码决定是否重试。
      */
-    private HunyuanClient client;
+    @Autowired
+    private HunyuanRetryPolicy hunyuanRetryPolicy;
 
     /**
-     * 初始化方法，在 Bean 初始化完成后自动调用。
-     * 该方法验证腾讯云配置信息，并初始化腾讯混元客户端。
+     * 集群共享的调用配额。
      */
-    @PostConstruct
-    public void init() {
-        // 验证腾讯云配置信息是否有效
-        if (!validateConfig()) {
-            // 若配置无效，抛出异常并终止初始化
-            throw new IllegalStateException("Invalid Tencent Cloud configuration");
-        }
+    @Autowired
+    private HunyuanRateLimiter hunyuanRateLimiter;
 
-        try {
-            // 创建腾讯云凭证对象，使用配置中的密钥信息
-            Credential cred = new Credential(tencentCloudConfig.getSecretId(), tencentCloudConfig.getSecretKey());
-
-            // 创建 HTTP 配置对象，并设置腾讯混元 API 的端点
-            HttpProfile httpProfile = new HttpProfile();
-            httpProfile.setEndpoint("hunyuan.tencentcloudapi.com");
-
-            // 创建客户端配置对象，并将 HTTP 配置对象设置到其中
-            ClientProfile clientProfile = new ClientProfile();
-            clientProfile.setHttpProfile(httpProfile);
-
-            // 初始化腾讯混元客户端
-            this.client = new HunyuanClient(cred, "", clientProfile);
-            // 记录客户端初始化成功的日志
-            logger.info("Tencent Hunyuan client initialized successfully");
-        } catch (Exception e) {
-            // 记录客户端初始化失败的日志，并抛出自定义异常
-            logger.error("Failed to initialize Tencent Hunyuan client", e);
-            throw new HunYuanException("Failed to initialize Tencent Hunyuan client:" + e);
-        }
-    }
+    /**
+     * 模型路由器，根据各候选模型的延迟和错误率选择本次请求使用的模型。
+     */
+    @Autowired
+    private ModelRouter modelRouter;
 
     /**
-     * 验证腾讯云配置信息是否有效。
-     * 检查配置中的密钥信息是否存在。
-     *
-     * @return 若配置有效返回 true，否则返回 false。
-     */
-    private boolean validateConfig() {
-        // 检查配置中的密钥信息是否为空
-        if (!StringUtils.hasText(tencentCloudConfig.getSecretId()) ||
-                !StringUtils.hasText(tencentCloudConfig.getSecretKey())) {
-            // 若密钥信息为空，记录错误日志并返回 false
-            logger.error("Tencent Cloud credentials are not configured properly");
-            return false;
-        }
-        return true;
+     * 腾讯混元客户端池，按各账号的剩余配额选择本次调用使用的客户端。
+     */
+    @Autowired
+    private HunyuanClientPool clientPool;
+
+    /**
+     * 接入点选择器，选择当前延迟最低的健康接入点。
+     */
+    @Autowired
+    private HunyuanEndpointSelector endpointSelector;
+
+    /**
+     * 全局并发许可和执行调用的线程池，许可在 SDK 调用真正结束时才归还。
+     */
+    @Autowired
+    private HunyuanCallExecutor callExecutor;
+
+    /**
+     * @return 进行中的混元调用数（包括对冲请求和调用方已放弃等待的调用）。
+     */
+    public int inFlight() {
+        return callExecutor.inFlight();
     }
 
     /**
      * 与腾讯混元模型进行聊天的方法。
      * 构建聊天请求，调用腾讯混元 API，并处理响应结果。
+     * 频率限制等暂时性错误会按 HunyuanRetryPolicy 自动重试。
+     * 当前线程设置了请求截止时间时，等待并发许可和模型响应的时间都不超过截止时间。
      *
      * @param prompt 文本提示信息，用于向模型提问。
      * @param imageData 图像数据，可用于视觉相关的模型交互。
      * @return 模型返回的聊天响应内容，若没有响应则返回默认提示信息。
-     * @throws HunYuanException 若调用腾讯混元 API 失败，抛出该异常。
+     * @throws HunYuanException 若等待并发许可超时或调用腾讯混元 API 失败，抛出该异常。
+     * @throws DeadlineExceededException 若超过请求截止时间。
      */
     public String chat(String prompt, String imageData) {
+        return chatForResult(prompt, imageData).getContent();
+    }
+
+    /**
+     * 与腾讯混元模型进行聊天，并返回包含实际所用模型的结果。
+     * 重试时会避开本次请求中已经出现暂时性错误的模型，实现模型间的故障切换。
+     *
+     * @param prompt 文本提示信息。
+     * @param imageData 图像数据。
+     * @return 聊天结果，包含响应内容和处理该请求的模型名称。
+     * @throws HunYuanException 若等待并发许可超时或调用腾讯混元 API 失败，抛出该异常。
+     * @throws DeadlineExceededException 若超过请求截止时间。
+     */
+    public ChatResult chatForResult(String prompt, String imageData) {
+        Set<String> failedModels = ConcurrentHashMap.newKeySet();
+        return hunyuanRetryPolicy.execute(() -> chatOnce(prompt, imageData, failedModels));
+    }
+
+    /**
+     * 取得配额和全局并发许可后执行一次调用（启用对冲时可能包含一个对冲请求）。
+     *
+     * @param prompt 文本提示信息。
+     * @param imageData 图像数据。
+     * @param failedModels 本次请求中已经失败的模型，选择模型时会避开。
+     * @return 聊天结果。
+     */
+    private ChatResult chatOnce(String prompt, String imageData, Set<String> failedModels) {
+        // 先在集群共享的配额内取得令牌，配额用尽时按频率限制错误交给重试策略退避。
+        // 等待配额时不占用并发许可，许可只由已经拿到配额、即将调用的请求持有
+        if (!hunyuanRateLimiter.acquire(DeadlineContext.remainingMillis(hunyuanConfig.getAcquireTimeout()))) {
+            DeadlineContext.check();
+            throw new HunYuanException("Hunyuan quota exhausted, please retry later", "RequestLimitExceeded");
+        }
+
+        // 获取全局并发许可，超过上限的调用在此排队等待
+        try {
+            if (!callExecutor.acquire(DeadlineContext.remainingMillis(hunyuanConfig.getAcquireTimeout()))) {
+                DeadlineContext.check();
+                throw new HunYuanException("Hunyuan is busy, please retry later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HunYuanException("Interrupted while waiting for Hunyuan");
+        }
+
+        // 许可交给执行调用的线程后，由该线程在 SDK 调用结束时归还
+        boolean handedOff = false;
+        try {
+            HunyuanConfig.Model model = modelRouter.select(failedModels);
+            if (hunyuanHedger.isEnabled()) {
+                handedOff = true;
+                return hunyuanHedger.call(() -> doChat(prompt, imageData, model, failedModels),
+                        () -> prepareHedge(prompt, imageData, model, failedModels));
+            }
+            if (DeadlineContext.current() != null) {
+                // SDK 调用无法按请求设置超时，放到执行器中执行，截止时间到达后调用方立即返回，
+                // 调用本身继续占用许可直到 SDK 返回
+                handedOff = true;
+                return hunyuanHedger.callWithinDeadline(() -> doChat(prompt, imageData, model, failedModels));
+            }
+            return doChat(prompt, imageData, model, failedModels);
+        } finally {
+            if (!handedOff) {
+                callExecutor.release();
+            }
+        }
+    }
+
+    /**
+     * 准备对冲请求：只有在能立即获得额外的并发许可和配额时才发出，避免在高负载时进一步加压。
+     * 先取许可再取配额，取不到配额时归还许可，不会白白消耗配额。
+     * 若有其他可用模型，对冲请求优先发往另一个模型，避免两个请求同时受单个模型变慢的影响。
+     *
+     * @param prompt 文本提示信息。
+     * @param imageData 图像数据。
+     * @param primary 首个请求使用的模型。
+     * @param failedModels 本次请求中已经失败的模型。
+     * @return 持有一个并发许可的对冲请求，无法立即获得许可或配额时返回 null。
+     */
+    private Callable<ChatResult> prepareHedge(String prompt, String imageData, HunyuanConfig.Model primary,
+                                              Set<String> failedModels) {
+        if (!callExecutor.tryAcquire()) {
+            return null;
+        }
+        boolean prepared = false;
+        try {
+            // 对冲请求同样消耗配额，但不等待
+            if (!hunyuanRateLimiter.acquire(0)) {
+                return null;
+            }
+            Set<String> excluded = new HashSet<>(failedModels);
+            excluded.add(primary.getName());
+            HunyuanConfig.Model model = modelRouter.select(excluded);
+            prepared = true;
+            return () -> doChat(prompt, imageData, model, failedModels);
+        } finally {
+            if (!prepared) {
+                callExecutor.release();
+            }
+        }
+    }
+
+    /**
+     * 构建聊天请求并调用腾讯混元 API，同时向模型路由器报告调用结果。
+     *
+     * @param prompt 文本提示信息。
+     * @param imageData 图像数据。
+     * @param model 本次调用使用的模型。
+     * @param failedModels 本次请求中已经失败的模型，暂时性错误时会加入该模型。
+     * @return 聊天结果。
+     */
+    private ChatResult doChat(String prompt, String imageData, HunyuanConfig.Model model, Set<String> failedModels) {
+        long start = System.nanoTime();
+        HunyuanClientPool.PooledClient pooled =
+                clientPool.acquire(DeadlineContext.remainingMillis(hunyuanConfig.getAcquireTimeout()));
+        HunyuanEndpointSelector.Endpoint endpoint = endpointSelector.select();
         try {
             // 创建聊天完成请求对象
             ChatCompletionsRequest req = new ChatCompletionsRequest();
@@ -129,27 +237,45 @@ public class HunyuanService {
 
             // 将消息对象设置到请求对象中
             req.setMessages(new Message[]{message});
-            // 设置请求使用的模型名称为默认模型
-            req.setModel(DEFAULT_MODEL);
-            // 设置请求的温度参数为默认值
-            req.setTemperature(DEFAULT_TEMPERATURE);
+            // 设置请求使用的模型名称和温度参数
+            req.setModel(model.getName());
+            req.setTemperature(model.getTemperature());
 
             // 调用腾讯混元 API 发送请求并获取响应
-            ChatCompletionsResponse resp = client.ChatCompletions(req);
+            ChatCompletionsResponse resp = pooled.getClient(endpoint).ChatCompletions(req);
+            endpointSelector.recordSuccess(endpoint);
+            modelRouter.recordSuccess(model.getName(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+            // 记录本次调用消耗的 token 数，用于按用户统计用量
+            Usage usage = resp.getUsage();
+            long promptTokens = usage != null && usage.getPromptTokens() != null ? usage.getPromptTokens() : 0;
+            long completionTokens = usage != null && usage.getCompletionTokens() != null ? usage.getCompletionTokens() : 0;
 
             // 检查响应中是否有有效的选择结果
             if (resp.getChoices() != null && resp.getChoices().length > 0) {
                 // 若有有效结果，返回第一个选择的消息内容
-                return resp.getChoices()[0].getMessage().getContent();
+                return new ChatResult(resp.getChoices()[0].getMessage().getContent(), model.getName(),
+                        promptTokens, completionTokens);
             }
 
             // 若没有有效结果，返回默认提示信息
-            return "No response from the model";
+            return new ChatResult(NO_RESPONSE, model.getName(), promptTokens, completionTokens);
         } catch (TencentCloudSDKException e) {
+            // 网络错误计入接入点的连续失败次数，达到阈值后切换到其他接入点
+            endpointSelector.recordFailure(endpoint, e.getErrorCode());
+            // 账号限流只说明该账号配额用尽，暂停该账号，重试时换用其他账号，不影响模型路由；
+            // 其他暂时性错误才说明模型状态异常，内容安全拦截等错误不影响路由
+            if (!clientPool.recordFailure(pooled, e.getErrorCode())
+                    && hunyuanRetryPolicy.isRetryable(e.getErrorCode())) {
+                modelRouter.recordFailure(model.getName());
+                failedModels.add(model.getName());
+            }
             // 记录调用腾讯混元 API 失败的日志，并抛出自定义异常
-            logger.error("Tencent Hunyuan API call failed. ErrorCode: {}, RequestId: {}",
-                    e.getErrorCode(), e.getRequestId(), e);
-            throw new HunYuanException("Failed to call Tencent Hunyuan API:" + e);
+            logger.error("Tencent Hunyuan API call failed. Account: {}, Endpoint: {}, ErrorCode: {}, RequestId: {}",
+                    pooled.getName(), endpoint.getName(), e.getErrorCode(), e.getRequestId(), e);
+            throw new HunYuanException("Failed to call Tencent Hunyuan API:" + e, e.getErrorCode());
+        } finally {
+            clientPool.release(pooled);
         }
     }
 
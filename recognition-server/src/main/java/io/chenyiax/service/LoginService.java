@@ -9,19 +9,19 @@ import io.chenyiax.mapper.UserMapper;
 import io.chenyiax.utils.JwtUtils;
 import io.chenyiax.utils.WeChatApiClient;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 
 /**
  * LoginService 类是一个服务层组件，负责处理微信用户的登录业务逻辑。
  * 它使用 Spring 的 @Service 注解将其注册为一个服务 bean，
- * 并通过 @RequiredArgsConstructor 注解自动生成包含 final 字段的构造函数，
- * 使用 @Transactional 注解保证业务操作的事务性。
+ * 并通过 @RequiredArgsConstructor 注解自动生成包含 final 字段的构造函数。
+ * 登录过程包含微信接口调用，不使用事务，避免在等待微信响应期间占用数据库连接；
+ * 每一步都是单条语句，openid 的唯一索引保证并发登录时不会重复创建用户。
  */
 @Service
 @RequiredArgsConstructor
-@Transactional
 public class LoginService {
     private final WeChatApiClient weChatApiClient;
     private final UserMapper userMapper;
@@ -49,10 +49,14 @@ public class LoginService {
 
         Integer userId = userMapper.getUserIdByOpenid(user);
         if (userId == null) {
-            userMapper.insertUser(user);
-            // 确保获取到插入后的用户ID
-            userId = userMapper.getUserIdByOpenid(user);
-            if (userId == null) {
+            try {
+                userMapper.insertUser(user);
+                userId = user.getId();
+            } catch (DuplicateKeyException e) {
+                // 同一用户的并发登录已经创建了该用户
+                userId = userMapper.getUserIdByOpenid(user);
+            }
+            if (userId == null || userId == 0) {
                 throw new UserCreationException("User creation failed");
             }
         }
@@ -0,0 +1,173 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.HunyuanConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * ModelRouter 在配置的候选视觉模型之间进行路由。
+ * 它为每个模型维护延迟和错误率的指数加权移动平均，每次请求选择得分最低
+ * （延迟 × 成本权重 × 错误惩罚）的健康模型；模型连续失败或错误率过高时
+ * 会被暂时摘除，冷却结束后重新参与路由，从而在单个模型故障时自动切换。
+ * 为了发现新加入或已经变快的模型，每次选择时以 exploreRatio 的小概率改为选择
+ * 最久没有调用样本的其他健康模型，从未调用过的模型最先被探索；模型的第一个样本直接取代初始延迟估计。
+ */
+@Component
+@RequiredArgsConstructor
+public class ModelRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelRouter.class);
+
+    private final HunyuanConfig hunyuanConfig;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 各候选模型的运行统计，按配置顺序保存。
+     */
+    private final Map<String, ModelStats> stats = new LinkedHashMap<>();
+
+    private Counter explorations;
+
+    @PostConstruct
+    public void init() {
+        this.explorations = meterRegistry.counter("hunyuan.model.explorations");
+        for (HunyuanConfig.Model model : hunyuanConfig.getModels()) {
+            ModelStats modelStats = new ModelStats(model, hunyuanConfig.getRouting().getInitialLatency());
+            stats.put(model.getName(), modelStats);
+            Gauge.builder("hunyuan.model.latency", modelStats, s -> s.latency)
+                    .tag("model", model.getName())
+                    .register(meterRegistry);
+            Gauge.builder("hunyuan.model.error.rate", modelStats, s -> s.errorRate)
+                    .tag("model", model.getName())
+                    .register(meterRegistry);
+        }
+        if (stats.isEmpty()) {
+            throw new IllegalStateException("No Hunyuan model configured");
+        }
+    }
+
+    /**
+     * 选择本次请求使用的模型。
+     * 优先在未被摘除且不在排除列表中的模型中选择得分最低者，偶尔探索最久没有样本的其他模型；
+     * 若所有模型都不可用，则选择最早结束冷却的模型，保证请求总能发出。
+     *
+     * @param excluded 本次请求中已经失败、希望避开的模型名称。
+     * @return 选中的模型配置。
+     */
+    public HunyuanConfig.Model select(Collection<String> excluded) {
+        long now = System.currentTimeMillis();
+        synchronized (stats) {
+            List<ModelStats> healthy = stats.values().stream()
+                    .filter(s -> !excluded.contains(s.model.getName()) && s.sidelinedUntil <= now)
+                    .toList();
+            if (!healthy.isEmpty()) {
+                ModelStats best = healthy.stream().min(Comparator.comparingDouble(this::score)).orElseThrow();
+                if (healthy.size() > 1
+                        && ThreadLocalRandom.current().nextDouble() < hunyuanConfig.getRouting().getExploreRatio()) {
+                    ModelStats explored = healthy.stream()
+                            .filter(s -> s != best)
+                            .min(Comparator.comparingLong(s -> s.lastSampleAt))
+                            .orElseThrow();
+                    explorations.increment();
+                    return explored.model;
+                }
+                return best.model;
+            }
+            return stats.values().stream()
+                    .filter(s -> !excluded.contains(s.model.getName()))
+                    .min(Comparator.comparingLong(s -> s.sidelinedUntil))
+                    .or(() -> stats.values().stream().min(Comparator.comparingLong(s -> s.sidelinedUntil)))
+                    .map(s -> s.model)
+                    .orElseThrow();
+        }
+    }
+
+    /**
+     * 记录一次成功调用。
+     *
+     * @param model 模型名称。
+     * @param latencyMs 调用耗时（毫秒）。
+     */
+    public void recordSuccess(String model, long latencyMs) {
+        double alpha = hunyuanConfig.getRouting().getEwmaAlpha();
+        synchronized (stats) {
+            ModelStats s = stats.get(model);
+            if (s == null) {
+                return;
+            }
+            // 第一个样本直接取代初始延迟估计，否则一个更快的新模型要很多次调用才能被选中
+            s.latency = s.lastSampleAt == 0 ? latencyMs : alpha * latencyMs + (1 - alpha) * s.latency;
+            s.errorRate = (1 - alpha) * s.errorRate;
+            s.consecutiveFailures = 0;
+            s.lastSampleAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * 记录一次因模型侧暂时性错误导致的失败，必要时暂时摘除该模型。
+     *
+     * @param model 模型名称。
+     */
+    public void recordFailure(String model) {
+        HunyuanConfig.Routing routing = hunyuanConfig.getRouting();
+        double alpha = routing.getEwmaAlpha();
+        synchronized (stats) {
+            ModelStats s = stats.get(model);
+            if (s == null) {
+                return;
+            }
+            s.errorRate = alpha + (1 - alpha) * s.errorRate;
+            s.consecutiveFailures++;
+            s.lastSampleAt = System.currentTimeMillis();
+            if (s.consecutiveFailures >= routing.getFailureThreshold()
+                    || s.errorRate >= routing.getErrorRateThreshold()) {
+                s.sidelinedUntil = System.currentTimeMillis() + routing.getCooldown();
+                s.consecutiveFailures = 0;
+                // 冷却结束后以中等错误率重新参与路由，避免立即再次被摘除
+                s.errorRate = routing.getErrorRateThreshold() / 2;
+                logger.warn("Model {} sidelined for {} ms", model, routing.getCooldown());
+            }
+        }
+    }
+
+    /**
+     * 计算模型的路由得分，得分越低越优先。
+     */
+    private double score(ModelStats s) {
+        return s.latency * s.model.getCostWeight() * (1 + hunyuanConfig.getRouting().getErrorPenalty() * s.errorRate);
+    }
+
+    /**
+     * 单个模型的运行统计。
+     */
+    private static class ModelStats {
+        private final HunyuanConfig.Model model;
+        private volatile double latency;
+        private volatile double errorRate;
+        private int consecutiveFailures;
+        private long sidelinedUntil;
+
+        /**
+         * 最近一次调用结束的时刻，从未调用过时为 0。
+         */
+        private long lastSampleAt;
+
+        private ModelStats(HunyuanConfig.Model model, long initialLatency) {
+            this.model = model;
+            this.latency = initialLatency;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.ProgressConfig;
+import io.chenyiax.entity.DimensionScore;
+import io.chenyiax.entity.EvaluationDimension;
+import io.chenyiax.entity.ProgressRollup;
+import io.chenyiax.entity.ProgressStats;
+import io.chenyiax.entity.StructuredEvaluation;
+import io.chenyiax.mapper.ProgressMapper;
+import io.chenyiax.utils.DeltaCounter;
+import io.chenyiax.utils.DeltaFlusher;
+import io.chenyiax.utils.EvaluationJsonParser;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ProgressService 维护按学生和日期增量汇总的评测分数，供看板查询进度趋势。
+ * <p>
+ * 每次结构化评测得到分数后，总分和各维度分数分别累加到 (对象, 日期, 维度, 分数段) 对应的内存计数器；
+ * 后台定时任务把自上次写入以来的增量批量累加到 progress_rollups 表。看板按对象和日期范围读取汇总行，
+ * 行数只与天数有关，不随评测历史增长。自由格式和分维度评测没有分数，不计入统计。
+ * 汇总表按 scope 区分统计对象，目前只有学生；班级统计需要先有班级成员关系，才能校验请求中的班级。
+ */
+@Service
+@RequiredArgsConstructor
+public class ProgressService {
+
+    public static final String STUDENT = "student";
+
+    /**
+     * 总分对应的维度名称。
+     */
+    public static final String OVERALL = "overall";
+
+    private static final int BUCKETS = 10;
+
+    private static final int COUNT = 0;
+    private static final int SCORE_SUM = 1;
+
+    private final ProgressConfig progressConfig;
+    private final ProgressMapper progressMapper;
+    private final Clock clock;
+
+    private final Map<Key, DeltaCounter> counters = new ConcurrentHashMap<>();
+
+    private final DeltaFlusher<Key, ProgressRollup> flusher = new DeltaFlusher<>("progress rollup",
+            (key, delta) -> new ProgressRollup(key.scope(), key.scopeId(), key.day(), key.dimension(), key.bucket(),
+                    delta[COUNT], delta[SCORE_SUM]));
+
+    /**
+     * 将一次结构化评测的分数计入学生当天的统计，只更新内存中的计数器。
+     *
+     * @param userId 学生的用户 ID。
+     * @param evaluation 结构化评测结果。
+     */
+    public void accept(Integer userId, StructuredEvaluation evaluation) {
+        if (!progressConfig.isEnabled() || userId == null) {
+            return;
+        }
+        add(STUDENT, String.valueOf(userId), LocalDate.now(clock), evaluation);
+    }
+
+    /**
+     * 查询统计对象最近若干天的进度，每天每个维度一条，按日期和维度排序。
+     * 结果来自汇总表，最近一个刷新间隔内的评测可能尚未计入。
+     *
+     * @param scope 统计对象类型。
+     * @param scopeId 统计对象 ID。
+     * @param days 天数，超过配置上限时按上限处理。
+     * @return 进度统计。
+     */
+    public List<ProgressStats> query(String scope, String scopeId, int days) {
+        int range = Math.max(1, Math.min(days, progressConfig.getMaxDays()));
+        LocalDate to = LocalDate.now(clock);
+        LocalDate from = to.minusDays(range - 1);
+
+        Map<String, ProgressStats> stats = new LinkedHashMap<>();
+        Map<String, Long> sums = new LinkedHashMap<>();
+        for (ProgressRollup row : progressMapper.listRange(scope, scopeId, from, to)) {
+            String id = row.getDay() + "/" + row.getDimension();
+            ProgressStats day = stats.computeIfAbsent(id,
+                    k -> new ProgressStats(row.getDay(), row.getDimension(), 0, 0, new long[BUCKETS]));
+            day.setCount(day.getCount() + row.getCount());
+            day.getHistogram()[row.getBucket()] += row.getCount();
+            sums.merge(id, row.getScoreSum(), Long::sum);
+        }
+        for (Map.Entry<String, ProgressStats> entry : stats.entrySet()) {
+            ProgressStats day = entry.getValue();
+            day.setMean(day.getCount() == 0 ? 0 : (double) sums.get(entry.getKey()) / day.getCount());
+        }
+        List<String> order = dimensionOrder();
+        return stats.values().stream()
+                .sorted(Comparator.comparing(ProgressStats::getDay)
+                        .thenComparing(s -> order.indexOf(s.getDimension())))
+                .toList();
+    }
+
+    /**
+     * 定时把各计数器的增量批量写入汇总表。只由调度线程和停机时调用。
+     */
+    @Scheduled(fixedDelayString = "${recognition.progress.flush-interval:5000}")
+    public synchronized void flush() {
+        flusher.flush(counters, progressConfig.getBatchSize(), progressMapper::upsertBatch);
+        // 往日的计数器全部写入后不会再有新的分数
+        LocalDate today = LocalDate.now(clock);
+        counters.entrySet().removeIf(e -> e.getKey().day().isBefore(today) && e.getValue().isFlushed());
+    }
+
+    /**
+     * 停机前写入尚未持久化的汇总。
+     */
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    private void add(String scope, String scopeId, LocalDate day, StructuredEvaluation evaluation) {
+        add(new Key(scope, scopeId, day, OVERALL, bucket(evaluation.getOverall())), evaluation.getOverall());
+        for (DimensionScore score : evaluation.getScores()) {
+            String dimension = EvaluationJsonParser.key(score.getDimension());
+            add(new Key(scope, scopeId, day, dimension, bucket(score.getScore())), score.getScore());
+        }
+    }
+
+    private void add(Key key, int score) {
+        DeltaCounter counter = counters.computeIfAbsent(key, k -> new DeltaCounter(2));
+        counter.add(COUNT, 1);
+        counter.add(SCORE_SUM, score);
+    }
+
+    /**
+     * @return 分数所在的分数段，100 分计入最高的一段。
+     */
+    private static int bucket(int score) {
+        return Math.min(BUCKETS - 1, Math.max(0, score / 10));
+    }
+
+    private static List<String> dimensionOrder() {
+        List<String> order = new ArrayList<>();
+        order.add(OVERALL);
+        for (EvaluationDimension dimension : EvaluationDimension.values()) {
+            order.add(EvaluationJsonParser.key(dimension));
+        }
+        return order;
+    }
+
+    private record Key(String scope, String scopeId, LocalDate day, String dimension, int bucket) {
+    }
+}
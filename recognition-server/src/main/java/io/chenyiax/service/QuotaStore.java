@@ -0,0 +1,26 @@
+package io.chenyiax.service;
+
+/**
+ * QuotaStore 是集群共享的令牌桶存储，所有节点从同一个桶中取令牌，使整体调用速率不超过配额。
+ */
+public interface QuotaStore {
+
+    /**
+     * 从令牌桶中原子地取出最多 requested 个令牌。
+     *
+     * @param key 令牌桶的键。
+     * @param permitsPerSecond 每秒补充的令牌数。
+     * @param capacity 桶容量。
+     * @param requested 希望取出的令牌数。
+     * @return 取令牌的结果。
+     * @throws RuntimeException 存储不可用时抛出。
+     */
+    Grant take(String key, double permitsPerSecond, long capacity, int requested);
+
+    /**
+     * @param granted 实际取出的令牌数。
+     * @param waitMillis 没有取到令牌时，距下一个令牌可用的毫秒数。
+     */
+    record Grant(int granted, long waitMillis) {
+    }
+}
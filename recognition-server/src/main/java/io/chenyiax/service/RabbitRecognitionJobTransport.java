@@ -0,0 +1,43 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.RecognitionQueueConfig;
+import io.chenyiax.entity.RecognitionJob;
+import io.chenyiax.entity.RecognitionJobResult;
+import io.chenyiax.exception.HunYuanException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+
+/**
+ * RabbitRecognitionJobTransport 使用 RabbitMQ 的 direct reply-to 实现请求-响应，
+ * 等待时间由 spring.rabbitmq.template.reply-timeout 控制，存活时间写入消息的 expiration 属性，
+ * 排队超过存活时间的任务由 RabbitMQ 直接丢弃。
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "recognition.queue", name = "enabled", havingValue = "true")
+public class RabbitRecognitionJobTransport implements RecognitionJobTransport {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final RecognitionQueueConfig recognitionQueueConfig;
+
+    @Override
+    public RecognitionJobResult sendAndReceive(RecognitionJob job, Long ttlMillis) {
+        try {
+            return rabbitTemplate.convertSendAndReceiveAsType("", recognitionQueueConfig.getName(), job,
+                    message -> {
+                        if (ttlMillis != null) {
+                            message.getMessageProperties().setExpiration(String.valueOf(ttlMillis));
+                        }
+                        return message;
+                    },
+                    new ParameterizedTypeReference<RecognitionJobResult>() {
+                    });
+        } catch (AmqpException e) {
+            throw new HunYuanException("Failed to publish recognition job: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package io.chenyiax.service;
+
+import io.chenyiax.entity.RecognitionJob;
+import io.chenyiax.entity.RecognitionJobResult;
+
+/**
+ * RecognitionJobTransport 负责把识别任务交给 worker 并等待回复，生产环境由 RabbitMQ 实现。
+ */
+public interface RecognitionJobTransport {
+
+    /**
+     * 发布识别任务并等待 worker 的回复。
+     *
+     * @param job 识别任务。
+     * @param ttlMillis 消息在队列中的存活时间（毫秒），为 null 表示不过期；过期的任务不会交给 worker。
+     * @return worker 的回复，等待超时或任务过期被丢弃时返回 null。
+     * @throws io.chenyiax.exception.HunYuanException 若消息发送失败。
+     */
+    RecognitionJobResult sendAndReceive(RecognitionJob job, Long ttlMillis);
+}
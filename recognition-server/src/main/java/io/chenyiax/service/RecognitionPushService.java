@@ -0,0 +1,132 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.DeadlineConfig;
+import io.chenyiax.entity.ImgRequest;
+import io.chenyiax.entity.RecognitionEvent;
+import io.chenyiax.entity.SocketRecognitionRequest;
+import io.chenyiax.entity.WeChatUserDetails;
+import io.chenyiax.exception.BusinessException;
+import io.chenyiax.utils.Deadline;
+import io.chenyiax.utils.DeadlineContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * RecognitionPushService 负责处理通过 WebSocket 提交的识别请求。
+ * 识别在独立线程池中执行，不占用 STOMP 入站通道的线程，
+ * 进度和结果通过用户目的地 /user/queue/recognition 推送给提交请求的客户端。
+ * STOMP 消息不经过 DeadlineFilter，每个请求在收到时按 socketTimeout 设置截止时间；
+ * WebSocket 会话断开时取消该会话所有未完成请求的截止时间，尚未开始或仍在等待的模型调用随之放弃。
+ */
+@Service
+public class RecognitionPushService {
+
+    /**
+     * 客户端订阅的用户目的地。
+     */
+    public static final String DESTINATION = "/queue/recognition";
+
+    private static final Logger logger = LoggerFactory.getLogger(RecognitionPushService.class);
+
+    @Autowired
+    RecognitionService recognitionService;
+
+    @Autowired
+    SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    @Qualifier("recognitionExecutor")
+    ThreadPoolTaskExecutor recognitionExecutor;
+
+    @Autowired
+    ShutdownDrainer shutdownDrainer;
+
+    @Autowired
+    DeadlineConfig deadlineConfig;
+
+    /**
+     * 各 WebSocket 会话未完成请求的截止时间，会话断开时全部取消。
+     */
+    private final Map<String, Set<Deadline>> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * 接收识别请求并异步处理，依次推送 ACCEPTED、PROCESSING 以及 DONE 或 FAILED 事件。
+     *
+     * @param user 已通过 STOMP CONNECT 认证的用户。
+     * @param sessionId 提交请求的 WebSocket 会话。
+     * @param request 客户端提交的识别请求。
+     */
+    public void submit(WeChatUserDetails user, String sessionId, SocketRecognitionRequest request) {
+        String requestId = request.getRequestId();
+        // 停机排空期间不再接收新任务，客户端重连后会被分配到其他实例
+        if (shutdownDrainer.isDraining()) {
+            push(user, RecognitionEvent.failed(requestId, "Server is restarting, please retry"));
+            return;
+        }
+        // 在线程池中排队的时间也计入截止时间
+        Deadline deadline = Deadline.after(deadlineConfig.getSocketTimeout());
+        sessions.computeIfAbsent(sessionId, id -> ConcurrentHashMap.newKeySet()).add(deadline);
+        push(user, RecognitionEvent.of(requestId, RecognitionEvent.Status.ACCEPTED));
+        try {
+            recognitionExecutor.execute(() -> process(user, sessionId, deadline, request));
+        } catch (TaskRejectedException e) {
+            unregister(sessionId, deadline);
+            push(user, RecognitionEvent.failed(requestId, "Server busy, please retry later"));
+        }
+    }
+
+    /**
+     * WebSocket 会话断开后结果不再有人接收，取消该会话所有未完成请求的截止时间。
+     */
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Set<Deadline> deadlines = sessions.remove(event.getSessionId());
+        if (deadlines != null) {
+            deadlines.forEach(Deadline::cancel);
+        }
+    }
+
+    private void process(WeChatUserDetails user, String sessionId, Deadline deadline, SocketRecognitionRequest request) {
+        String requestId = request.getRequestId();
+        DeadlineContext.set(deadline);
+        try {
+            DeadlineContext.check();
+            push(user, RecognitionEvent.of(requestId, RecognitionEvent.Status.PROCESSING));
+            ImgRequest imgRequest = new ImgRequest();
+            imgRequest.setImg(request.getImg());
+            String result = recognitionService.recognition(imgRequest, user.getUser().getId());
+            push(user, RecognitionEvent.done(requestId, result));
+        } catch (BusinessException e) {
+            push(user, RecognitionEvent.failed(requestId, e.getMessage()));
+        } catch (RuntimeException e) {
+            logger.error("WebSocket recognition {} failed", requestId, e);
+            push(user, RecognitionEvent.failed(requestId, e.getMessage()));
+        } finally {
+            DeadlineContext.clear();
+            unregister(sessionId, deadline);
+        }
+    }
+
+    private void unregister(String sessionId, Deadline deadline) {
+        sessions.computeIfPresent(sessionId, (id, deadlines) -> {
+            deadlines.remove(deadline);
+            return deadlines.isEmpty() ? null : deadlines;
+        });
+    }
+
+    private void push(WeChatUserDetails user, RecognitionEvent event) {
+        messagingTemplate.convertAndSendToUser(user.getUsername(), DESTINATION, event);
+    }
+}
@@ -0,0 +1,43 @@
+package io.chenyiax.service;
+
+import io.chenyiax.entity.RecognitionJob;
+import io.chenyiax.entity.RecognitionJobResult;
+import io.chenyiax.exception.BusinessException;
+import io.chenyiax.exception.HunYuanException;
+import io.chenyiax.utils.DeadlineContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * RecognitionQueueClient 负责把识别任务发布到任务队列并等待 worker 的回复。
+ * 带截止时间的任务以剩余时间作为消息过期时间，排队超过截止时间的任务不会交给 worker。
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "recognition.queue", name = "enabled", havingValue = "true")
+public class RecognitionQueueClient {
+
+    private final RecognitionJobTransport recognitionJobTransport;
+
+    /**
+     * 发布识别任务并等待 worker 返回识别结果。
+     *
+     * @param job 识别任务。
+     * @return 识别结果文本。
+     * @throws HunYuanException 当消息发送失败或等待回复超时时抛出。
+     * @throws BusinessException 当 worker 处理任务失败时，携带 worker 返回的错误码抛出。
+     */
+    public String submit(RecognitionJob job) {
+        Long ttl = job.getDeadline() == null ? null : Math.max(1, job.getDeadline() - System.currentTimeMillis());
+        RecognitionJobResult reply = recognitionJobTransport.sendAndReceive(job, ttl);
+        if (reply == null) {
+            DeadlineContext.check();
+            throw new HunYuanException("Recognition job timed out waiting for a worker");
+        }
+        if (reply.getCode() != 200) {
+            throw new BusinessException(reply.getCode(), reply.getMessage());
+        }
+        return reply.getResult();
+    }
+}
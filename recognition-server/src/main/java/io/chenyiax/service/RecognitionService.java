@@ -1,22 +1,145 @@
 package io.chenyiax.service;
 
-import io.chenyiax.configuration.TencentCloudConfig;
+import io.chenyiax.configuration.EvaluationConfig;
+import io.chenyiax.entity.ChatResult;
+import io.chenyiax.entity.CursorPage;
+import io.chenyiax.entity.Evaluation;
 import io.chenyiax.entity.ImgRequest;
+import io.chenyiax.entity.RecognitionJob;
 
+import io.chenyiax.mapper.EvaluationMapper;
+import io.chenyiax.utils.Deadline;
+import io.chenyiax.utils.DeadlineContext;
+import io.chenyiax.utils.HashUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Service
 public class RecognitionService {
+    /**
+     * 当前评测提示词的版本号，修改提示词时需要同步更新，便于区分历史记录。
+     */
+    public static final String PROMPT_VERSION = "v1";
+
+    private static final String PROMPT = """
+            你是一位小学书法老师。请根据提供的书法作品，从以下几个方面进行分析：
+            1. 笔法分析：评价笔画的力度、流畅度和技法运用
+            2. 结构分析：评价字形结构、比例和空间安排
+            3. 章法分析：评价整体布局、行气连贯性和节奏感
+            4. 改进建议：针对不足之处提出具体改进建议""";
+
     @Autowired
     HunyuanService hunyuanService;
 
-    public String recognition(ImgRequest request) {
-        return hunyuanService.chat("""
-                你是一位小学书法老师。请根据提供的书法作品，从以下几个方面进行分析：
-                1. 笔法分析：评价笔画的力度、流畅度和技法运用
-                2. 结构分析：评价字形结构、比例和空间安排
-                3. 章法分析：评价整体布局、行气连贯性和节奏感
-                4. 改进建议：针对不足之处提出具体改进建议""", request.getImg());
+    @Autowired
+    ImagePreprocessor imagePreprocessor;
+
+    @Autowired
+    EvaluationWriter evaluationWriter;
+
+    @Autowired
+    EvaluationMapper evaluationMapper;
+
+    @Autowired
+    EvaluationConfig evaluationConfig;
+
+    @Autowired
+    EvaluationCache evaluationCache;
+
+    @Autowired
+    TokenUsageService tokenUsageService;
+
+    /**
+     * 启用识别任务队列时注入，用于把任务交给 worker 处理；未启用时为 null，任务在当前进程内处理。
+     */
+    @Autowired(required = false)
+    RecognitionQueueClient recognitionQueueClient;
+
+    public String recognition(ImgRequest request, Integer userId) {
+        // 当天额度用完的用户在预处理图片和调用模型之前就被拒绝，只读取内存中的计数器
+        tokenUsageService.checkQuota(userId);
+        RecognitionJob job = new RecognitionJob();
+        job.setUserId(userId);
+        // 先在本地预处理图片，不可用的照片在进入队列或调用模型之前就被拒绝
+        job.setImg(imagePreprocessor.preprocess(request.getImg()));
+        Deadline deadline = DeadlineContext.current();
+        if (deadline != null) {
+            job.setDeadline(deadline.toEpochMilli());
+        }
+        if (recognitionQueueClient != null) {
+            return recognitionQueueClient.submit(job);
+        }
+        return evaluate(job);
+    }
+
+    /**
+     * 调用混元模型完成一次识别，并异步记录评测历史。
+     * 相同图片在同一提示词版本下的评测结果会被缓存，命中时不再调用模型，也不计入 token 用量。
+     * API 节点在进程内处理模式下直接调用，队列模式下由 worker 调用。
+     *
+     * @param job 识别任务。
+     * @return 识别结果文本。
+     */
+    public String evaluate(RecognitionJob job) {
+        long start = System.nanoTime();
+        String imageHash = HashUtils.sha256(job.getImg());
+        String cacheKey = EvaluationCache.key(PROMPT_VERSION, imageHash);
+        ChatResult chatResult = evaluationCache.get(cacheKey);
+        if (chatResult == null) {
+            chatResult = hunyuanService.chatForResult(PROMPT, job.getImg());
+            tokenUsageService.record(job.getUserId(), chatResult);
+            if (!HunyuanService.NO_RESPONSE.equals(chatResult.getContent())) {
+                evaluationCache.put(cacheKey, chatResult);
+            }
+        }
+        String result = chatResult.getContent();
+        long latencyMs = (System.nanoTime() - start) / 1_000_000;
+
+        record(job.getUserId(), imageHash, chatResult.getModel(), PROMPT_VERSION, result, latencyMs);
+        return result;
+    }
+
+    /**
+     * 将一次评测结果提交给异步写入器记录到评测历史，不会阻塞调用方。
+     *
+     * @param userId 用户 ID。
+     * @param imageHash 图片摘要。
+     * @param model 处理该请求的模型。
+     * @param promptVersion 提示词版本。
+     * @param result 评测结果文本。
+     * @param latencyMs 评测耗时（毫秒）。
+     */
+    public void record(Integer userId, String imageHash, String model, String promptVersion, String result, long latencyMs) {
+        Evaluation evaluation = new Evaluation();
+        evaluation.setUserId(userId);
+        evaluation.setImageHash(imageHash);
+        evaluation.setModel(model);
+        evaluation.setPromptVersion(promptVersion);
+        evaluation.setResult(result);
+        evaluation.setLatencyMs(latencyMs);
+        evaluation.setCreatedAt(LocalDateTime.now());
+        evaluationWriter.submit(evaluation);
+    }
+
+    /**
+     * 按 id 倒序分页查询用户的评测历史，使用上一页最后一条记录的 id 作为游标。
+     *
+     * @param userId 用户 ID。
+     * @param cursor 上一页返回的游标，查询第一页时为 null。
+     * @param size 每页条数，超过配置上限时按上限处理。
+     * @return 当前页的评测记录以及下一页的游标。
+     */
+    public CursorPage<Evaluation> history(Integer userId, Long cursor, int size) {
+        int limit = Math.max(1, Math.min(size, evaluationConfig.getMaxPageSize()));
+        // 多查一条用于判断是否还有下一页
+        List<Evaluation> rows = evaluationMapper.listByUser(userId, cursor, limit + 1);
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<Evaluation> page = rows.subList(0, limit);
+        return new CursorPage<>(page, page.get(limit - 1).getId());
     }
 }
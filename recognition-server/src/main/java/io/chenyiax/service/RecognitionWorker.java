@@ -0,0 +1,54 @@
+package io.chenyiax.service;
+
+import io.chenyiax.entity.RecognitionJob;
+import io.chenyiax.entity.RecognitionJobResult;
+import io.chenyiax.exception.BusinessException;
+import io.chenyiax.utils.Deadline;
+import io.chenyiax.utils.DeadlineContext;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * RecognitionWorker 仅在 worker 角色（worker profile）下启用，从识别任务队列中消费任务，
+ * 调用混元模型完成识别后把结果回复给发布任务的 API 节点。
+ * worker 与 API 节点使用同一个制品，可以根据模型调用压力独立扩缩容。
+ */
+@Component
+@Profile("worker")
+@RequiredArgsConstructor
+public class RecognitionWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecognitionWorker.class);
+
+    private final RecognitionService recognitionService;
+
+    /**
+     * 处理一条识别任务。业务异常会转换为失败结果回复给 API 节点，而不是让消息重新入队反复重试。
+     * 任务携带的截止时间在 worker 上继续生效。
+     *
+     * @param job 识别任务。
+     * @return 识别结果。
+     */
+    @RabbitListener(queues = "${recognition.queue.name}")
+    public RecognitionJobResult handle(RecognitionJob job) {
+        if (job.getDeadline() != null) {
+            DeadlineContext.set(Deadline.atEpochMilli(job.getDeadline()));
+        }
+        try {
+            DeadlineContext.check();
+            return RecognitionJobResult.success(recognitionService.evaluate(job));
+        } catch (BusinessException e) {
+            logger.warn("Recognition job for user {} failed: {}", job.getUserId(), e.getMessage());
+            return RecognitionJobResult.failure(e.getCode(), e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Recognition job for user {} failed unexpectedly", job.getUserId(), e);
+            return RecognitionJobResult.failure(500, e.getMessage());
+        } finally {
+            DeadlineContext.clear();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package io.chenyiax.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * RedisQuotaStore 使用 Lua 脚本在 Redis 中实现原子的令牌桶，脚本见 redis/token-bucket.lua。
+ */
+@Component
+@RequiredArgsConstructor
+public class RedisQuotaStore implements QuotaStore {
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> TOKEN_BUCKET =
+            RedisScript.of(new ClassPathResource("redis/token-bucket.lua"), List.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Override
+    public Grant take(String key, double permitsPerSecond, long capacity, int requested) {
+        List<?> result = redisTemplate.execute(TOKEN_BUCKET, List.of(key),
+                String.valueOf(permitsPerSecond), String.valueOf(capacity), String.valueOf(requested));
+        if (result == null || result.size() < 2) {
+            throw new IllegalStateException("Unexpected token bucket result: " + result);
+        }
+        return new Grant(((Number) result.get(0)).intValue(), ((Number) result.get(1)).longValue());
+    }
+}
@@ -0,0 +1,175 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.SectionConfig;
+import io.chenyiax.entity.ChatResult;
+import io.chenyiax.entity.EvaluationDimension;
+import io.chenyiax.entity.EvaluationSection;
+import io.chenyiax.entity.ImgRequest;
+import io.chenyiax.entity.SectionedEvaluation;
+import io.chenyiax.exception.BusinessException;
+import io.chenyiax.exception.DeadlineExceededException;
+import io.chenyiax.utils.Deadline;
+import io.chenyiax.utils.DeadlineContext;
+import io.chenyiax.utils.HashUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * SectionedRecognitionService 将笔法、结构、章法和改进建议四个维度拆分为独立的混元调用并行执行。
+ * 每个维度的输出长度受限，整体耗时接近最慢的单个维度，而不是整篇评语的生成时间；
+ * 单个维度失败或超时不影响其他维度，返回部分结果。
+ * <p>
+ * 各维度的调用在维度截止时间下执行：到期后调用方不再等待、不再重试，仍在排队的维度不会开始。
+ * 已经发出的 SDK 调用无法中断，会在后台运行到返回为止，期间继续占用混元并发许可。
+ */
+@Service
+public class SectionedRecognitionService {
+
+    /**
+     * 分维度评测的提示词版本号。
+     */
+    public static final String PROMPT_VERSION = "sections-v1";
+
+    private static final Logger logger = LoggerFactory.getLogger(SectionedRecognitionService.class);
+
+    @Autowired
+    HunyuanService hunyuanService;
+
+    @Autowired
+    RecognitionService recognitionService;
+
+    @Autowired
+    ImagePreprocessor imagePreprocessor;
+
+    @Autowired
+    SectionConfig sectionConfig;
+
+    @Autowired
+    TokenUsageService tokenUsageService;
+
+    @Autowired
+    @Qualifier("recognitionExecutor")
+    ThreadPoolTaskExecutor recognitionExecutor;
+
+    /**
+     * 并行评测四个维度并合并结果。
+     *
+     * @param request 识别请求。
+     * @param userId 用户 ID。
+     * @return 分维度评测结果。
+     */
+    public SectionedEvaluation recognition(ImgRequest request, Integer userId) {
+        long start = System.nanoTime();
+        // 所有维度共享同一个截止时间，不晚于请求本身的截止时间；请求的截止时间更早时直接使用它，
+        // 维度因此超时时请求也已超时，请求被取消时各维度随之放弃
+        long timeout = sectionConfig.getTimeout();
+        Deadline requestDeadline = DeadlineContext.current();
+        Deadline deadline = requestDeadline != null && requestDeadline.remainingMillis() <= timeout
+                ? requestDeadline : Deadline.after(timeout);
+
+        tokenUsageService.checkQuota(userId);
+        // 所有维度共用同一张预处理后的图片
+        String img = imagePreprocessor.preprocess(request.getImg());
+        int maxChars = sectionConfig.getMaxChars();
+
+        Map<EvaluationDimension, Future<ChatResult>> futures = new EnumMap<>(EvaluationDimension.class);
+        for (EvaluationDimension dimension : EvaluationDimension.values()) {
+            try {
+                futures.put(dimension, recognitionExecutor.submit(DeadlineContext.wrap(deadline,
+                        () -> hunyuanService.chatForResult(dimension.prompt(maxChars), img))));
+            } catch (TaskRejectedException e) {
+                futures.put(dimension, null);
+            }
+        }
+
+        List<EvaluationSection> sections = new ArrayList<>();
+        List<String> models = new ArrayList<>();
+        for (Map.Entry<EvaluationDimension, Future<ChatResult>> entry : futures.entrySet()) {
+            EvaluationSection section = await(entry.getKey(), entry.getValue(), deadline, models, userId);
+            sections.add(section);
+        }
+
+        boolean complete = sections.stream().allMatch(s -> s.getStatus() == EvaluationSection.Status.DONE);
+        if (sections.stream().noneMatch(s -> s.getStatus() == EvaluationSection.Status.DONE)) {
+            // 请求本身已经超时时返回超时错误，而不是笼统的评测失败
+            DeadlineContext.check();
+            throw new BusinessException(1001, "All evaluation sections failed");
+        }
+
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        recognitionService.record(userId, HashUtils.sha256(img), String.join(",", models.stream().distinct().toList()),
+                PROMPT_VERSION, merge(sections), latencyMs);
+        return new SectionedEvaluation(sections, complete);
+    }
+
+    /**
+     * 在截止时间前等待单个维度的结果。超时时取消尚未开始的任务；已经开始的任务在同一截止时间下自行放弃。
+     * 成功的维度计入用户的 token 用量。
+     */
+    private EvaluationSection await(EvaluationDimension dimension, Future<ChatResult> future,
+                                    Deadline deadline, List<String> models, Integer userId) {
+        if (future == null) {
+            return new EvaluationSection(dimension, dimension.getTitle(), EvaluationSection.Status.FAILED,
+                    "Server busy, please retry later");
+        }
+        try {
+            ChatResult result = future.get(Math.max(0, deadline.remainingMillis()), TimeUnit.MILLISECONDS);
+            models.add(result.getModel());
+            tokenUsageService.record(userId, result);
+            return new EvaluationSection(dimension, dimension.getTitle(), EvaluationSection.Status.DONE,
+                    truncate(result.getContent()));
+        } catch (TimeoutException e) {
+            // 中断工作线程无法停止 SDK 调用，这里只取消还在排队的任务
+            future.cancel(false);
+            return new EvaluationSection(dimension, dimension.getTitle(), EvaluationSection.Status.TIMEOUT, null);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DeadlineExceededException) {
+                return new EvaluationSection(dimension, dimension.getTitle(), EvaluationSection.Status.TIMEOUT, null);
+            }
+            logger.warn("Evaluation section {} failed: {}", dimension, e.getCause().getMessage());
+            return new EvaluationSection(dimension, dimension.getTitle(), EvaluationSection.Status.FAILED,
+                    e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            return new EvaluationSection(dimension, dimension.getTitle(), EvaluationSection.Status.FAILED,
+                    "Interrupted");
+        }
+    }
+
+    /**
+     * 模型不一定严格遵守字数要求，超出上限的部分在服务端截断。
+     */
+    private String truncate(String content) {
+        int maxChars = sectionConfig.getMaxChars();
+        if (content == null || content.codePointCount(0, content.length()) <= maxChars) {
+            return content;
+        }
+        return content.substring(0, content.offsetByCodePoints(0, maxChars)) + "…";
+    }
+
+    /**
+     * 将成功的维度合并为一段文本，用于写入评测历史。
+     */
+    private String merge(List<EvaluationSection> sections) {
+        return sections.stream()
+                .filter(s -> s.getStatus() == EvaluationSection.Status.DONE)
+                .map(s -> s.getTitle() + "：" + s.getContent())
+                .collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,184 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.ShutdownConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.listener.AbstractMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ShutdownDrainer 在停机时排空进行中的识别任务，避免部署时中断已经付费的混元调用。
+ * 作为最先停止的 SmartLifecycle，在 Tomcat 优雅停机之前依次：
+ * <ol>
+ *     <li>就绪探针已由 Spring Boot 在关闭上下文时切换为 REFUSING_TRAFFIC，先继续正常处理请求，等待负载均衡摘除本实例；</li>
+ *     <li>停止接收新的识别任务：HTTP 请求（CRITICAL 除外）以 503 拒绝，WebSocket 识别请求被拒绝，worker 停止从队列消费；</li>
+ *     <li>在时间上限内等待进行中的请求、识别线程池任务和混元调用结束；</li>
+ *     <li>等待评测历史写入队列清空。</li>
+ * </ol>
+ * 之后由 Tomcat 优雅停机处理剩余的 HTTP 请求，识别线程池在销毁时等待剩余任务完成。
+ */
+@Component
+public class ShutdownDrainer implements SmartLifecycle {
+
+    /**
+     * 停止阶段。SmartLifecycle 按阶段从高到低停止，RabbitConfig 把消息监听容器放在更低的阶段，
+     * Web 服务器优雅停机的阶段更低。
+     */
+    public static final int PHASE = Integer.MAX_VALUE;
+
+    private static final Logger logger = LoggerFactory.getLogger(ShutdownDrainer.class);
+
+    @Autowired
+    ShutdownConfig shutdownConfig;
+
+    @Autowired
+    HunyuanService hunyuanService;
+
+    @Autowired
+    AdmissionController admissionController;
+
+    @Autowired
+    EvaluationWriter evaluationWriter;
+
+    @Autowired
+    ApplicationAvailability applicationAvailability;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("recognitionExecutor")
+    ThreadPoolTaskExecutor recognitionExecutor;
+
+    @Autowired
+    ObjectProvider<RabbitListenerEndpointRegistry> rabbitListenerEndpointRegistry;
+
+    private volatile boolean running;
+    private volatile boolean draining;
+
+    @Override
+    public void start() {
+        meterRegistry.gauge("shutdown.draining", this, drainer -> drainer.draining ? 1 : 0);
+        meterRegistry.gauge("shutdown.drain.inflight", this, drainer -> drainer.inFlight());
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        long start = System.nanoTime();
+        logger.info("Shutdown started, readiness is {}, serving for another {} ms before draining",
+                applicationAvailability.getReadinessState(), shutdownConfig.getPropagationDelay());
+        sleep(shutdownConfig.getPropagationDelay());
+
+        draining = true;
+        admissionController.startDraining();
+        stopQueueConsumers();
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownConfig.getDrainTimeout());
+        boolean drained = awaitDrained(deadline);
+        boolean flushed = awaitFlushed(deadline);
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        meterRegistry.timer("shutdown.drain.duration").record(elapsed, TimeUnit.MILLISECONDS);
+        if (drained && flushed) {
+            logger.info("Drain completed in {} ms", elapsed);
+        } else {
+            logger.warn("Drain timed out after {} ms with {} task(s) in flight and {} evaluation(s) pending",
+                    elapsed, inFlight(), evaluationWriter.pending());
+        }
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 最先停止，在 Web 服务器优雅停机和消息监听容器停止之前完成排空。
+     * 消息监听容器注册表默认也在 Integer.MAX_VALUE 阶段，同一阶段内的停止顺序没有保证，
+     * 因此 RabbitConfig 把监听容器（注册表的阶段随之变化）移到 PHASE - 1。
+     */
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * @return 是否正在排空，排空期间不再接收新的识别任务。
+     */
+    public boolean isDraining() {
+        return draining;
+    }
+
+    /**
+     * 停止从识别任务队列消费，未确认的预取消息会重新入队由其他 worker 处理，
+     * 正在处理的任务在排空时间内完成。
+     */
+    private void stopQueueConsumers() {
+        RabbitListenerEndpointRegistry registry = rabbitListenerEndpointRegistry.getIfAvailable();
+        if (registry == null || registry.getListenerContainers().isEmpty()) {
+            return;
+        }
+        registry.getListenerContainers().forEach(container -> {
+            if (container instanceof AbstractMessageListenerContainer listenerContainer) {
+                listenerContainer.setShutdownTimeout(shutdownConfig.getDrainTimeout());
+            }
+        });
+        logger.info("Stopping recognition queue consumers");
+        registry.stop();
+    }
+
+    private boolean awaitDrained(long deadline) {
+        long nextLog = 0;
+        while (inFlight() > 0) {
+            long now = System.nanoTime();
+            if (now - deadline >= 0) {
+                return false;
+            }
+            if (now - nextLog >= 0) {
+                logger.info("Draining: {} request(s), {} recognition task(s), {} Hunyuan call(s) in flight",
+                        admissionController.inFlight(), recognitionTasks(), hunyuanService.inFlight());
+                nextLog = now + TimeUnit.MILLISECONDS.toNanos(shutdownConfig.getProgressInterval());
+            }
+            sleep(100);
+        }
+        return true;
+    }
+
+    private boolean awaitFlushed(long deadline) {
+        while (evaluationWriter.pending() > 0) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            sleep(100);
+        }
+        return true;
+    }
+
+    private int inFlight() {
+        return admissionController.inFlight() + recognitionTasks() + hunyuanService.inFlight();
+    }
+
+    private int recognitionTasks() {
+        return recognitionExecutor.getActiveCount() + recognitionExecutor.getQueueSize();
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
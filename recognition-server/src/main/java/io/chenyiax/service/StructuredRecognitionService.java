@@ -0,0 +1,161 @@
+package io.chenyiax.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.chenyiax.configuration.StructuredConfig;
+import io.chenyiax.entity.ChatResult;
+import io.chenyiax.entity.EvaluationDimension;
+import io.chenyiax.entity.ImgRequest;
+import io.chenyiax.entity.StructuredEvaluation;
+import io.chenyiax.exception.JsonException;
+import io.chenyiax.utils.EvaluationJsonParser;
+import io.chenyiax.utils.HashUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StructuredRecognitionService 要求模型只输出一个紧凑的 JSON 对象（各维度分数和简短评语），
+ * 在服务端校验并解析为 StructuredEvaluation。输出长度受 StructuredConfig 中的预算限制，
+ * 生成耗时比自由格式的长篇评语更短也更稳定；校验后的 JSON 用于缓存和写入评测历史。
+ */
+@Service
+public class StructuredRecognitionService {
+
+    /**
+     * 结构化评测的提示词版本号。
+     */
+    public static final String PROMPT_VERSION = "structured-v1";
+
+    private static final Logger logger = LoggerFactory.getLogger(StructuredRecognitionService.class);
+
+    @Autowired
+    HunyuanService hunyuanService;
+
+    @Autowired
+    RecognitionService recognitionService;
+
+    @Autowired
+    ImagePreprocessor imagePreprocessor;
+
+    @Autowired
+    EvaluationCache evaluationCache;
+
+    @Autowired
+    TokenUsageService tokenUsageService;
+
+    @Autowired
+    ProgressService progressService;
+
+    @Autowired
+    StructuredConfig structuredConfig;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    private Counter invalid;
+    private Counter overBudget;
+    private DistributionSummary outputTokens;
+
+    @PostConstruct
+    public void init() {
+        this.invalid = Counter.builder("recognition.structured.invalid").register(meterRegistry);
+        this.overBudget = Counter.builder("recognition.structured.over.budget").register(meterRegistry);
+        this.outputTokens = DistributionSummary.builder("recognition.structured.output.tokens")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 对图片进行一次结构化评测。相同图片的校验结果会被缓存，命中时不再调用模型。
+     * 调用模型得到的评测分数计入学生的进度统计；缓存命中是重复提交同一张照片，不重复计入。
+     *
+     * @param request 识别请求。
+     * @param userId 用户 ID。
+     * @return 结构化评测结果。
+     * @throws JsonException 若模型输出不符合要求的格式。
+     */
+    public StructuredEvaluation recognition(ImgRequest request, Integer userId) {
+        long start = System.nanoTime();
+        tokenUsageService.checkQuota(userId);
+        String img = imagePreprocessor.preprocess(request.getImg());
+        String imageHash = HashUtils.sha256(img);
+        String cacheKey = EvaluationCache.key(PROMPT_VERSION, imageHash);
+        int maxChars = commentMaxChars();
+
+        ChatResult cached = evaluationCache.get(cacheKey);
+        StructuredEvaluation evaluation;
+        String model;
+        if (cached != null) {
+            evaluation = EvaluationJsonParser.parse(cached.getContent(), objectMapper, maxChars);
+            model = cached.getModel();
+        } else {
+            ChatResult result = hunyuanService.chatForResult(prompt(maxChars), img);
+            tokenUsageService.record(userId, result);
+            outputTokens.record(result.getCompletionTokens());
+            if (result.getCompletionTokens() > structuredConfig.getMaxOutputTokens()) {
+                overBudget.increment();
+            }
+            try {
+                evaluation = EvaluationJsonParser.parse(result.getContent(), objectMapper, maxChars);
+            } catch (JsonException e) {
+                invalid.increment();
+                logger.warn("Invalid structured evaluation from model {}: {}", result.getModel(), e.getMessage());
+                throw new JsonException("模型返回的评测结果格式不正确，请重试");
+            }
+            model = result.getModel();
+        }
+        evaluation.setModel(model);
+
+        // 缓存和评测历史都保存校验后的紧凑 JSON
+        String json = EvaluationJsonParser.format(evaluation, objectMapper);
+        if (cached == null) {
+            evaluationCache.put(cacheKey, new ChatResult(json, model));
+        }
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        recognitionService.record(userId, imageHash, model, PROMPT_VERSION, json, latencyMs);
+        if (cached == null) {
+            progressService.accept(userId, evaluation);
+        }
+        return evaluation;
+    }
+
+    /**
+     * @return 按输出预算计算的每条评语最大字数，三个评分维度各一条评语，另加一条改进建议。
+     */
+    private int commentMaxChars() {
+        return structuredConfig.commentMaxChars(EvaluationDimension.values().length);
+    }
+
+    /**
+     * 生成结构化评测的提示词，列出各维度的评价要求和 JSON 格式。
+     */
+    private String prompt(int maxChars) {
+        StringBuilder prompt = new StringBuilder("你是一位小学书法老师。请评价提供的书法作品：\n");
+        StringBuilder format = new StringBuilder("{");
+        for (EvaluationDimension dimension : EvaluationDimension.values()) {
+            String key = EvaluationJsonParser.key(dimension);
+            prompt.append("- ").append(key).append("（").append(dimension.getTitle()).append("）：")
+                    .append(dimension.getRequirement()).append("\n");
+            if (dimension == EvaluationDimension.SUGGESTION) {
+                format.append("\"").append(key).append("\":\"建议\"");
+            } else {
+                format.append("\"").append(key).append("\":{\"score\":0到100的整数,\"comment\":\"评语\"},");
+            }
+        }
+        format.append("}");
+        return prompt.append("只输出一个 JSON 对象，不要输出其他文字或代码块标记，格式为：")
+                .append(format)
+                .append("\n每条评语和建议不超过").append(maxChars).append("字。")
+                .toString();
+    }
+}
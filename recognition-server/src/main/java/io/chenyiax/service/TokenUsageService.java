@@ -0,0 +1,187 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.UsageConfig;
+import io.chenyiax.entity.ChatResult;
+import io.chenyiax.entity.TokenUsage;
+import io.chenyiax.exception.QuotaExceededException;
+import io.chenyiax.mapper.TokenUsageMapper;
+import io.chenyiax.utils.DeltaCounter;
+import io.chenyiax.utils.DeltaFlusher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TokenUsageService 按用户和日期统计混元 token 用量，并在调用模型前检查每日额度。
+ * <p>
+ * 请求线程只对内存中的计数器（DeltaCounter）累加，不加锁也不访问数据库；后台定时任务把各计数器
+ * 自上次写入以来的增量批量累加到 token_usage 表，再读回这些用户当天的总用量，
+ * 扣除本节点已写入的部分后作为"其他节点用量"保存在内存中。额度检查只读取内存，
+ * 因此不会增加识别接口的延迟；代价是其他节点的用量最多滞后一个刷新间隔，额度是软限制。
+ */
+@Service
+@RequiredArgsConstructor
+public class TokenUsageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenUsageService.class);
+
+    private static final int PROMPT = 0;
+    private static final int COMPLETION = 1;
+    private static final int REQUESTS = 2;
+
+    private final UsageConfig usageConfig;
+    private final TokenUsageMapper tokenUsageMapper;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+
+    /**
+     * 各用户各日期的用量计数器。
+     */
+    private final Map<Key, Usage> usages = new ConcurrentHashMap<>();
+
+    private final DeltaFlusher<Key, TokenUsage> flusher = new DeltaFlusher<>("token usage",
+            (key, delta) -> new TokenUsage(key.userId(), key.date(), delta[PROMPT], delta[COMPLETION], delta[REQUESTS]));
+
+    private Counter promptTokens;
+    private Counter completionTokens;
+    private Counter rejected;
+
+    @PostConstruct
+    public void init() {
+        this.promptTokens = Counter.builder("hunyuan.tokens").tag("type", "prompt").register(meterRegistry);
+        this.completionTokens = Counter.builder("hunyuan.tokens").tag("type", "completion").register(meterRegistry);
+        this.rejected = Counter.builder("recognition.quota.rejected").register(meterRegistry);
+    }
+
+    /**
+     * 检查用户当天的用量是否已达到额度，只读取内存中的计数器。
+     * 首次出现的用户会创建计数器，下一次刷新时读回其在其他节点上的用量。
+     *
+     * @param userId 用户 ID。
+     * @throws QuotaExceededException 若当天用量已达到额度。
+     */
+    public void checkQuota(Integer userId) {
+        if (!usageConfig.isEnabled() || userId == null) {
+            return;
+        }
+        long quota = usageConfig.quotaOf(userId);
+        if (quota <= 0) {
+            return;
+        }
+        Usage usage = usages.computeIfAbsent(new Key(userId, today()), key -> new Usage());
+        if (usage.total() >= quota) {
+            rejected.increment();
+            throw new QuotaExceededException();
+        }
+    }
+
+    /**
+     * 累加一次模型调用消耗的 token 数。
+     *
+     * @param userId 用户 ID。
+     * @param result 模型调用结果。
+     */
+    public void record(Integer userId, ChatResult result) {
+        if (userId == null) {
+            return;
+        }
+        Usage usage = usages.computeIfAbsent(new Key(userId, today()), key -> new Usage());
+        usage.add(PROMPT, result.getPromptTokens());
+        usage.add(COMPLETION, result.getCompletionTokens());
+        usage.add(REQUESTS, 1);
+        promptTokens.increment(result.getPromptTokens());
+        completionTokens.increment(result.getCompletionTokens());
+    }
+
+    /**
+     * 定时把用量增量写入数据库，并读回当天各用户在其他节点上的用量。
+     * 只由调度线程和停机时调用，计数器的已写入部分不会被并发修改。
+     */
+    @Scheduled(fixedDelayString = "${recognition.usage.flush-interval:10000}")
+    public synchronized void flush() {
+        LocalDate today = today();
+        List<Map.Entry<Key, Usage>> entries = new ArrayList<>(usages.entrySet());
+        flusher.flush(usages, usageConfig.getBatchSize(), tokenUsageMapper::upsertBatch);
+        refreshOthers(today, entries);
+        // 往日的计数器全部写入后不再需要
+        usages.entrySet().removeIf(e -> e.getKey().date().isBefore(today) && e.getValue().isFlushed());
+    }
+
+    /**
+     * 停机前写入尚未持久化的用量。
+     */
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    /**
+     * 读回当天各用户的总用量，扣除本节点已写入的部分，得到其他节点的用量。
+     */
+    private void refreshOthers(LocalDate today, List<Map.Entry<Key, Usage>> entries) {
+        Map<Integer, Usage> todays = new HashMap<>();
+        for (Map.Entry<Key, Usage> entry : entries) {
+            if (entry.getKey().date().equals(today)) {
+                todays.put(entry.getKey().userId(), entry.getValue());
+            }
+        }
+        if (todays.isEmpty() || !usageConfig.isEnabled()) {
+            return;
+        }
+        List<Integer> userIds = new ArrayList<>(todays.keySet());
+        int batchSize = usageConfig.getBatchSize();
+        for (int from = 0; from < userIds.size(); from += batchSize) {
+            try {
+                for (TokenUsage row : tokenUsageMapper.listByDate(today,
+                        userIds.subList(from, Math.min(from + batchSize, userIds.size())))) {
+                    Usage usage = todays.get(row.getUserId());
+                    long total = row.getPromptTokens() + row.getCompletionTokens();
+                    usage.others = Math.max(0, total - usage.flushed(PROMPT) - usage.flushed(COMPLETION));
+                }
+            } catch (Exception e) {
+                // 读取失败时沿用上一次的值
+                logger.warn("Failed to load token usage: {}", e.getMessage());
+            }
+        }
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(clock);
+    }
+
+    private record Key(int userId, LocalDate date) {
+    }
+
+    /**
+     * 单个用户单日的用量：提示词 token、生成 token 和请求数，以及其他节点的用量。
+     */
+    private static final class Usage extends DeltaCounter {
+
+        /**
+         * 其他节点当天的用量，由刷新线程定期更新。
+         */
+        private volatile long others;
+
+        private Usage() {
+            super(3);
+        }
+
+        private long total() {
+            return others + sum(PROMPT) + sum(COMPLETION);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package io.chenyiax.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.chenyiax.configuration.HunyuanConfig;
+import io.chenyiax.configuration.WarmupConfig;
+import io.chenyiax.entity.CursorPage;
+import io.chenyiax.entity.DimensionScore;
+import io.chenyiax.entity.Evaluation;
+import io.chenyiax.entity.EvaluationDimension;
+import io.chenyiax.entity.ImgRequest;
+import io.chenyiax.entity.RestBean;
+import io.chenyiax.entity.StructuredEvaluation;
+import io.chenyiax.entity.User;
+import io.chenyiax.entity.WeChatUserDetails;
+import io.chenyiax.mapper.EvaluationMapper;
+import io.chenyiax.mapper.TokenUsageMapper;
+import io.chenyiax.utils.JwtUtils;
+import io.chenyiax.utils.WeChatApiClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WarmupRunner 在实例接收流量之前预热上游连接和热点代码路径。
+ * <p>
+ * Spring Boot 在所有 ApplicationRunner 执行完毕后才发布 ReadinessState.ACCEPTING_TRAFFIC，
+ * 因此预热期间就绪探针保持未就绪，负载均衡不会把请求发到本实例。预热包括：
+ * 用合成数据重复签发和解析 JWT、序列化 RestBean 响应，使其完成 JIT 编译；
+ * 填满数据库连接池并执行几次 MyBatis 查询；连接 Redis；探测混元接入点并创建 SDK 客户端；
+ * 建立到微信接口的连接。每个步骤失败只记录日志，不影响启动；总耗时超过上限时跳过剩余步骤。
+ * 各步骤和总耗时记录在 application.warmup 指标中。
+ */
+@Component
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmupRunner.class);
+
+    @Autowired
+    private WarmupConfig warmupConfig;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EvaluationMapper evaluationMapper;
+
+    @Autowired
+    private TokenUsageMapper tokenUsageMapper;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private HunyuanConfig hunyuanConfig;
+
+    @Autowired
+    private HunyuanEndpointSelector endpointSelector;
+
+    @Autowired
+    private HunyuanClientPool clientPool;
+
+    @Autowired
+    private WeChatApiClient weChatApiClient;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!warmupConfig.isEnabled()) {
+            return;
+        }
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(warmupConfig.getTimeout());
+
+        step("jwt", deadline, this::warmUpJwt);
+        step("json", deadline, this::warmUpJson);
+        step("database", deadline, this::warmUpDatabase);
+        if (hunyuanConfig.getRateLimit().isEnabled()) {
+            step("redis", deadline, this::warmUpRedis);
+        }
+        step("hunyuan", deadline, this::warmUpHunyuan);
+        if (warmupConfig.isWechat()) {
+            step("wechat", deadline, weChatApiClient::warmUp);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        Timer.builder("application.warmup").tag("step", "total").register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        logger.info("Warm-up finished in {} ms", TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    /**
+     * 执行一个预热步骤并记录耗时，已超过总时间上限时跳过。
+     */
+    private void step(String name, long deadline, Runnable action) {
+        if (System.nanoTime() - deadline >= 0) {
+            logger.warn("Warm-up step {} skipped, time budget of {} ms exhausted", name, warmupConfig.getTimeout());
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } catch (Exception e) {
+            logger.warn("Warm-up step {} failed: {}", name, e.getMessage());
+        }
+        long elapsed = System.nanoTime() - start;
+        Timer.builder("application.warmup").tag("step", name).register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        logger.debug("Warm-up step {} took {} ms", name, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    private void warmUpJwt() {
+        User user = new User();
+        user.setId(0);
+        user.setOpenid("warmup");
+        user.setAuth(List.of("user"));
+        WeChatUserDetails details = new WeChatUserDetails(user);
+        for (int i = 0; i < warmupConfig.getIterations(); i++) {
+            jwtUtils.parseToken(jwtUtils.createToken(details));
+        }
+    }
+
+    private void warmUpJson() {
+        List<DimensionScore> scores = new ArrayList<>();
+        for (EvaluationDimension dimension : EvaluationDimension.values()) {
+            scores.add(new DimensionScore(dimension, dimension.getTitle(), 80, dimension.getRequirement()));
+        }
+        StructuredEvaluation structured = new StructuredEvaluation(scores, 80, "warmup", "warmup");
+
+        Evaluation evaluation = new Evaluation();
+        evaluation.setId(1L);
+        evaluation.setUserId(0);
+        evaluation.setResult(EvaluationDimension.BRUSHWORK.getRequirement().repeat(20));
+        evaluation.setCreatedAt(LocalDateTime.now());
+        CursorPage<Evaluation> page = new CursorPage<>(List.of(evaluation), 1L);
+
+        try {
+            String request = objectMapper.writeValueAsString(new ImgRequest());
+            for (int i = 0; i < warmupConfig.getIterations(); i++) {
+                objectMapper.writeValueAsString(RestBean.success(structured));
+                objectMapper.writeValueAsString(RestBean.success(page));
+                objectMapper.readValue(request, ImgRequest.class);
+                RestBean.failure(401, "warmup").asJsonString();
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 借出连接池的全部最小空闲连接，确保连接已建立，然后执行几次查询预热 MyBatis。
+     */
+    private void warmUpDatabase() {
+        int connections = dataSource instanceof HikariDataSource hikari ? hikari.getMinimumIdle() : 1;
+        List<Connection> borrowed = new ArrayList<>();
+        try {
+            for (int i = 0; i < connections; i++) {
+                borrowed.add(dataSource.getConnection());
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        } finally {
+            for (Connection connection : borrowed) {
+                try {
+                    connection.close();
+                } catch (Exception ignored) {
+                    // 归还连接失败不影响预热
+                }
+            }
+        }
+
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < warmupConfig.getQueries(); i++) {
+            evaluationMapper.listByUser(0, null, 1);
+            tokenUsageMapper.listByDate(today, List.of(0));
+        }
+    }
+
+    private void warmUpRedis() {
+        redisTemplate.execute((RedisCallback<String>) RedisConnection::ping);
+    }
+
+    private void warmUpHunyuan() {
+        endpointSelector.warmUp();
+        clientPool.warmUp(endpointSelector.select());
+    }
+}
@@ -0,0 +1,391 @@
+package io.chenyiax.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.CRC32;
+
+/**
+ * AppendOnlyStore 是基于内存映射文件的追加写键值存储，进程重启后数据仍然保留。
+ * <p>
+ * 每条记录依次为：魔数、键长度、值长度（各 4 字节）、键、值、CRC32（4 字节）。
+ * 写入只追加到文件末尾，同一个键的新记录覆盖旧记录；内存中只保存键到记录位置的索引，
+ * 打开时顺序扫描文件重建索引，遇到校验失败的记录（如写入中途进程退出）即认为到达末尾。
+ * 文件写满时在 compactor 上进行压缩：按写入时间从新到旧保留有效记录，直到占用达到容量的 compactRatio，
+ * 写入新文件后原子替换旧文件，较旧的记录被淘汰。
+ * <p>
+ * 方法通过对象锁串行执行，但压缩时复制记录和刷盘都不持有锁：已写入的记录不会再被修改，复制期间读取照常进行，
+ * 写入在剩余空间内照常追加，空间不足的写入被丢弃。只有切换映射时短暂持有锁，
+ * 此时补上复制期间追加的少量记录，并立即释放旧文件的映射，不必等待 GC；补写部分的刷盘和文件替换在释放锁之后进行。
+ */
+public class AppendOnlyStore implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppendOnlyStore.class);
+
+    private static final int MAGIC = 0x43414348;
+    private static final int HEADER_SIZE = 12;
+    private static final int TRAILER_SIZE = 4;
+
+    private final Path path;
+    private final long capacity;
+    private final double compactRatio;
+    private final Executor compactor;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    /**
+     * 键到记录起始位置的索引。
+     */
+    private final Map<String, Integer> index = new HashMap<>();
+
+    /**
+     * 下一条记录的写入位置。
+     */
+    private int position;
+
+    /**
+     * 有效记录（每个键最新的一条）占用的字节数。
+     */
+    private long liveBytes;
+
+    /**
+     * 是否有压缩已提交但尚未完成。
+     */
+    private boolean compacting;
+
+    private boolean closed;
+
+    /**
+     * 打开或创建存储文件，并重建索引。
+     *
+     * @param path 存储文件路径。
+     * @param capacity 文件容量（字节），不超过 2GB。
+     * @param compactRatio 压缩后保留的有效数据占容量的比例。
+     * @param compactor 执行压缩的线程，不应是处理请求的线程。
+     * @throws IOException 若文件无法打开或映射。
+     */
+    public AppendOnlyStore(Path path, long capacity, double compactRatio, Executor compactor) throws IOException {
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Capacity must not exceed 2GB");
+        }
+        this.path = path;
+        this.capacity = capacity;
+        this.compactRatio = compactRatio;
+        this.compactor = compactor;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        rebuildIndex();
+    }
+
+    /**
+     * @param key 键。
+     * @return 键对应的值，不存在或存储已关闭时返回 null。
+     */
+    public synchronized byte[] get(String key) {
+        Integer offset = index.get(key);
+        if (offset == null || closed) {
+            return null;
+        }
+        int keyLength = buffer.getInt(offset + 4);
+        int valueLength = buffer.getInt(offset + 8);
+        byte[] value = new byte[valueLength];
+        buffer.get(offset + HEADER_SIZE + keyLength, value);
+        return value;
+    }
+
+    /**
+     * 追加写入一条记录。空间不足时提交一次压缩，本次写入被丢弃。
+     *
+     * @param key 键。
+     * @param value 值。
+     * @return 写入成功返回 true；单条记录超过可用空间、空间不足或存储已关闭时返回 false。
+     */
+    public boolean put(String key, byte[] value) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int size = HEADER_SIZE + keyBytes.length + value.length + TRAILER_SIZE;
+        if (size > capacity * (1 - compactRatio)) {
+            return false;
+        }
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            if (position + size <= capacity) {
+                append(key, keyBytes, value, size);
+                return true;
+            }
+            if (compacting) {
+                return false;
+            }
+            compacting = true;
+        }
+
+        try {
+            compactor.execute(this::compact);
+        } catch (RejectedExecutionException e) {
+            finishCompaction();
+        }
+        return false;
+    }
+
+    /**
+     * @return 存储的键数量。
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * @return 文件中已使用的字节数（包括被覆盖的旧记录）。
+     */
+    public synchronized long usedBytes() {
+        return position;
+    }
+
+    /**
+     * @return 有效记录（每个键最新的一条）占用的字节数。
+     */
+    public synchronized long liveBytes() {
+        return liveBytes;
+    }
+
+    /**
+     * 等待进行中的压缩完成，将映射内容刷写到磁盘并关闭文件。
+     *
+     * @throws InterruptedIOException 若等待压缩时线程被中断。
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        while (compacting) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for compaction");
+            }
+        }
+        closed = true;
+        buffer.force();
+        channel.close();
+        unmap(buffer);
+    }
+
+    private void append(String key, byte[] keyBytes, byte[] value, int size) {
+        Integer previous = index.get(key);
+        if (previous != null) {
+            liveBytes -= recordSize(buffer, previous);
+        }
+        write(buffer, position, keyBytes, value);
+        index.put(key, position);
+        liveBytes += size;
+        position += size;
+        // 写入下一条记录的魔数位置清零，避免重建索引时误读旧数据
+        if (position + 4 <= capacity) {
+            buffer.putInt(position, 0);
+        }
+    }
+
+    /**
+     * 顺序扫描文件重建索引，遇到无效记录时停止。
+     */
+    private void rebuildIndex() {
+        int offset = 0;
+        while (offset + HEADER_SIZE + TRAILER_SIZE <= capacity && buffer.getInt(offset) == MAGIC) {
+            int keyLength = buffer.getInt(offset + 4);
+            int valueLength = buffer.getInt(offset + 8);
+            if (keyLength < 0 || valueLength < 0
+                    || (long) offset + HEADER_SIZE + keyLength + valueLength + TRAILER_SIZE > capacity) {
+                break;
+            }
+            int size = HEADER_SIZE + keyLength + valueLength + TRAILER_SIZE;
+            if (checksum(buffer, offset, size - TRAILER_SIZE) != buffer.getInt(offset + size - TRAILER_SIZE)) {
+                break;
+            }
+
+            byte[] keyBytes = new byte[keyLength];
+            buffer.get(offset + HEADER_SIZE, keyBytes);
+            Integer previous = index.put(new String(keyBytes, StandardCharsets.UTF_8), offset);
+            if (previous != null) {
+                liveBytes -= recordSize(buffer, previous);
+            }
+            liveBytes += size;
+            offset += size;
+        }
+        position = offset;
+    }
+
+    /**
+     * 压缩：按写入时间从新到旧保留有效记录，写入临时文件后替换当前文件。
+     * 失败时保留当前文件，下次空间不足时重试。压缩完成前 compacting 保持为 true，
+     * close 和下一次压缩会等到文件替换完成。
+     */
+    private void compact() {
+        Path temp = path.resolveSibling(path.getFileName() + ".compact");
+        FileChannel tempChannel = null;
+        try {
+            // 在锁内选出要保留的记录，按原来的写入顺序排列，保持新记录在后
+            MappedByteBuffer source;
+            int snapshotPosition;
+            List<Map.Entry<String, Integer>> kept = new ArrayList<>();
+            synchronized (this) {
+                source = buffer;
+                snapshotPosition = position;
+                List<Map.Entry<String, Integer>> entries = new ArrayList<>(index.entrySet());
+                entries.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+                long budget = (long) (capacity * compactRatio);
+                long keptBytes = 0;
+                for (Map.Entry<String, Integer> entry : entries) {
+                    int size = recordSize(source, entry.getValue());
+                    if (keptBytes + size > budget) {
+                        break;
+                    }
+                    kept.add(Map.entry(entry.getKey(), entry.getValue()));
+                    keptBytes += size;
+                }
+                kept.sort(Map.Entry.comparingByValue());
+            }
+
+            // 复制记录不持有锁：这些记录已经写入，不会再被修改
+            Files.deleteIfExists(temp);
+            tempChannel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer target = tempChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            Map<String, Integer> copied = new HashMap<>();
+            int newPosition = 0;
+            for (Map.Entry<String, Integer> entry : kept) {
+                int size = recordSize(source, entry.getValue());
+                target.put(newPosition, source, entry.getValue(), size);
+                copied.put(entry.getKey(), newPosition);
+                newPosition += size;
+            }
+            // 复制的部分占新文件的绝大部分，在锁外刷盘
+            target.force(0, newPosition);
+            int copiedEnd = newPosition;
+
+            synchronized (this) {
+                // 复制期间追加的记录（包括覆盖已复制键的新记录）补写到新文件末尾，
+                // 位置仍在快照之前的记录就是已经复制的那一条
+                Map<String, Integer> newIndex = new HashMap<>();
+                List<Map.Entry<String, Integer>> appended = new ArrayList<>();
+                for (Map.Entry<String, Integer> entry : index.entrySet()) {
+                    if (entry.getValue() >= snapshotPosition) {
+                        appended.add(Map.entry(entry.getKey(), entry.getValue()));
+                    } else if (copied.containsKey(entry.getKey())) {
+                        newIndex.put(entry.getKey(), copied.get(entry.getKey()));
+                    }
+                }
+                appended.sort(Map.Entry.comparingByValue());
+                for (Map.Entry<String, Integer> entry : appended) {
+                    int size = recordSize(buffer, entry.getValue());
+                    if (newPosition + size > capacity) {
+                        break;
+                    }
+                    target.put(newPosition, buffer, entry.getValue(), size);
+                    newIndex.put(entry.getKey(), newPosition);
+                    newPosition += size;
+                }
+                if (newPosition + 4 <= capacity) {
+                    target.putInt(newPosition, 0);
+                }
+
+                // 新文件的映射直接作为当前映射，之后的重命名不影响已打开的通道
+                channel.close();
+                unmap(buffer);
+                channel = tempChannel;
+                buffer = target;
+                tempChannel = null;
+
+                index.clear();
+                index.putAll(newIndex);
+                position = newPosition;
+                liveBytes = 0;
+                for (int offset : newIndex.values()) {
+                    liveBytes += recordSize(buffer, offset);
+                }
+            }
+
+            // 只需刷写补写的记录；替换前进程退出时原文件保持完整，临时文件在下次压缩时删除
+            target.force(copiedEnd, (int) Math.min(capacity, newPosition + 4L) - copiedEnd);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to compact {}", path, e);
+            if (tempChannel != null) {
+                try {
+                    tempChannel.close();
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // 临时文件在下次压缩时删除
+                }
+            }
+        } finally {
+            finishCompaction();
+        }
+    }
+
+    private synchronized void finishCompaction() {
+        compacting = false;
+        notifyAll();
+    }
+
+    private static int recordSize(ByteBuffer source, int offset) {
+        return HEADER_SIZE + source.getInt(offset + 4) + source.getInt(offset + 8) + TRAILER_SIZE;
+    }
+
+    private static void write(ByteBuffer target, int offset, byte[] key, byte[] value) {
+        target.putInt(offset, MAGIC);
+        target.putInt(offset + 4, key.length);
+        target.putInt(offset + 8, value.length);
+        target.put(offset + HEADER_SIZE, key);
+        target.put(offset + HEADER_SIZE + key.length, value);
+        int size = HEADER_SIZE + key.length + value.length + TRAILER_SIZE;
+        target.putInt(offset + size - TRAILER_SIZE, checksum(target, offset, size - TRAILER_SIZE));
+    }
+
+    private static int checksum(ByteBuffer source, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(source.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * 立即释放映射，不等待 GC 回收 MappedByteBuffer。调用方需保证之后不再访问该映射。
+     */
+    private static void unmap(MappedByteBuffer mapping) {
+        try {
+            // sun.misc.Unsafe 位于 jdk.unsupported 模块，无需 --add-opens 即可访问
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            invokeCleaner.invoke(field.get(null), mapping);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.debug("Failed to unmap buffer, leaving it to the GC", e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package io.chenyiax.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline 表示一次请求的截止时间，基于 System.nanoTime 计算剩余时间，不受系统时钟调整影响。
+ * 跨进程传递时使用 toEpochMilli / atEpochMilli 转换为墙上时间。
+ * 客户端断开时可以调用 cancel 让截止时间立即到期，正在等待的下游调用随之放弃。
+ */
+public final class Deadline {
+
+    private final long nanos;
+
+    private volatile boolean cancelled;
+
+    private Deadline(long nanos) {
+        this.nanos = nanos;
+    }
+
+    /**
+     * @param millis 距离现在的毫秒数。
+     * @return 在指定时间之后到期的截止时间。
+     */
+    public static Deadline after(long millis) {
+        return new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    /**
+     * @param epochMilli 墙上时间表示的截止时间。
+     * @return 对应的截止时间。
+     */
+    public static Deadline atEpochMilli(long epochMilli) {
+        return after(epochMilli - System.currentTimeMillis());
+    }
+
+    /**
+     * @return 墙上时间表示的截止时间，用于在进程之间传递。
+     */
+    public long toEpochMilli() {
+        return System.currentTimeMillis() + remainingMillis();
+    }
+
+    /**
+     * @return 剩余毫秒数，已过期时为 0 或负数。不足 1 毫秒时向上取整，
+     * 使按该值等待的调用方醒来时截止时间确实已过，与 isExpired 一致。
+     */
+    public long remainingMillis() {
+        if (cancelled) {
+            return 0;
+        }
+        long remaining = nanos - System.nanoTime();
+        return remaining <= 0 ? TimeUnit.NANOSECONDS.toMillis(remaining)
+                : TimeUnit.NANOSECONDS.toMillis(remaining + TimeUnit.MILLISECONDS.toNanos(1) - 1);
+    }
+
+    /**
+     * @return 是否已经过期或被取消。
+     */
+    public boolean isExpired() {
+        return cancelled || nanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * 让截止时间立即到期，用于客户端已经断开、结果不再有人接收的请求。
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline(" + remainingMillis() + "ms)";
+    }
+}
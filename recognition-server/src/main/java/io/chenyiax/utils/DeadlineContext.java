@@ -0,0 +1,106 @@
+package io.chenyiax.utils;
+
+import io.chenyiax.exception.DeadlineExceededException;
+
+import java.util.concurrent.Callable;
+
+/**
+ * DeadlineContext 在当前线程上保存请求的截止时间，供混元调用、微信接口调用和数据库查询限制等待时间。
+ * 请求由 DeadlineFilter 设置截止时间；提交到识别线程池的任务通过 wrap 继承提交线程的截止时间。
+ * 没有截止时间的线程（如后台写入线程）不受限制。
+ */
+public final class DeadlineContext {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private DeadlineContext() {
+    }
+
+    /**
+     * @return 当前线程的截止时间，没有时返回 null。
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    public static void set(Deadline deadline) {
+        CURRENT.set(deadline);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 检查截止时间是否已过。
+     *
+     * @throws DeadlineExceededException 若已超过截止时间。
+     */
+    public static void check() {
+        Deadline deadline = CURRENT.get();
+        if (deadline != null && deadline.isExpired()) {
+            throw new DeadlineExceededException();
+        }
+    }
+
+    /**
+     * 将等待时间上限收紧到截止时间之内。
+     *
+     * @param limitMillis 原有的等待时间上限（毫秒）。
+     * @return limitMillis 与剩余时间中较小的一个。
+     * @throws DeadlineExceededException 若已超过截止时间。
+     */
+    public static long remainingMillis(long limitMillis) {
+        Deadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return limitMillis;
+        }
+        long remaining = deadline.remainingMillis();
+        if (remaining <= 0) {
+            throw new DeadlineExceededException();
+        }
+        return Math.min(limitMillis, remaining);
+    }
+
+    /**
+     * 包装任务，使其在执行线程上继承提交线程的截止时间。
+     *
+     * @param task 任务。
+     * @return 包装后的任务。
+     */
+    public static Runnable wrap(Runnable task) {
+        Deadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return task;
+        }
+        return () -> {
+            Deadline previous = CURRENT.get();
+            CURRENT.set(deadline);
+            try {
+                task.run();
+            } finally {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * 包装任务，使其在执行线程上使用指定的截止时间，用于给一部分工作设置比整个请求更短的时间上限。
+     *
+     * @param deadline 截止时间。
+     * @param task 任务。
+     * @param <T> 任务结果类型。
+     * @return 包装后的任务。
+     */
+    public static <T> Callable<T> wrap(Deadline deadline, Callable<T> task) {
+        return () -> {
+            Deadline previous = CURRENT.get();
+            CURRENT.set(deadline);
+            try {
+                return task.call();
+            } finally {
+                CURRENT.set(previous);
+            }
+        };
+    }
+}
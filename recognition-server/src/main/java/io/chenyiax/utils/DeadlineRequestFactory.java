@@ -0,0 +1,34 @@
+package io.chenyiax.utils;
+
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+/**
+ * DeadlineRequestFactory 在建立每个连接时把连接超时和读取超时收紧到当前请求的剩余时间之内，
+ * 已经超过截止时间的请求不再发出。
+ */
+public class DeadlineRequestFactory extends SimpleClientHttpRequestFactory {
+
+    private final int connectTimeout;
+    private final int readTimeout;
+
+    /**
+     * @param connectTimeout 连接超时上限（毫秒）。
+     * @param readTimeout 读取超时上限（毫秒）。
+     */
+    public DeadlineRequestFactory(int connectTimeout, int readTimeout) {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        setConnectTimeout(connectTimeout);
+        setReadTimeout(readTimeout);
+    }
+
+    @Override
+    protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+        super.prepareConnection(connection, httpMethod);
+        connection.setConnectTimeout((int) DeadlineContext.remainingMillis(connectTimeout));
+        connection.setReadTimeout((int) DeadlineContext.remainingMillis(readTimeout));
+    }
+}
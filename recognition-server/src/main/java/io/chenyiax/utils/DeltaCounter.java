@@ -0,0 +1,78 @@
+package io.chenyiax.utils;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DeltaCounter 是一行汇总数据的若干个累加值，以及这些值已写入数据库的部分。
+ * <p>
+ * 请求线程只对 LongAdder 累加，不加锁也不访问数据库；LongAdder 在高并发累加时按线程分散到不同的单元，
+ * 避免争用同一个变量。已写入的部分只由 DeltaFlusher 在刷新线程上读写。
+ */
+public class DeltaCounter {
+
+    private final LongAdder[] values;
+    private final long[] flushed;
+
+    /**
+     * @param fields 累加值的个数。
+     */
+    public DeltaCounter(int fields) {
+        this.values = new LongAdder[fields];
+        for (int i = 0; i < fields; i++) {
+            values[i] = new LongAdder();
+        }
+        this.flushed = new long[fields];
+    }
+
+    public void add(int field, long amount) {
+        values[field].add(amount);
+    }
+
+    /**
+     * @return 累计值，包括尚未写入数据库的部分。
+     */
+    public long sum(int field) {
+        return values[field].sum();
+    }
+
+    /**
+     * @return 已写入数据库的累计值，只应在刷新线程上读取。
+     */
+    public long flushed(int field) {
+        return flushed[field];
+    }
+
+    /**
+     * @return 所有累加值是否都已写入数据库。
+     */
+    public boolean isFlushed() {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].sum() != flushed[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long[] snapshot() {
+        long[] snapshot = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            snapshot[i] = values[i].sum();
+        }
+        return snapshot;
+    }
+
+    long[] delta(long[] snapshot) {
+        long[] delta = new long[snapshot.length];
+        boolean changed = false;
+        for (int i = 0; i < snapshot.length; i++) {
+            delta[i] = snapshot[i] - flushed[i];
+            changed |= delta[i] != 0;
+        }
+        return changed ? delta : null;
+    }
+
+    void markFlushed(long[] snapshot) {
+        System.arraycopy(snapshot, 0, flushed, 0, snapshot.length);
+    }
+}
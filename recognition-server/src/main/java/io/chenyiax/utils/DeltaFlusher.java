@@ -0,0 +1,71 @@
+package io.chenyiax.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * DeltaFlusher 把一组 DeltaCounter 自上次写入以来的增量按批累加到数据库。
+ * <p>
+ * 先对每个计数器取一次快照，快照与已写入部分的差即为增量；某一批写入失败时，
+ * 这批计数器的已写入部分保持不变，增量留到下次刷新时重试，其余批次不受影响。
+ * 调用方需保证同一组计数器不会被并发刷新。
+ *
+ * @param <K> 计数器的键。
+ * @param <R> 写入数据库的行。
+ */
+public class DeltaFlusher<K, R> {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeltaFlusher.class);
+
+    private final String name;
+    private final BiFunction<K, long[], R> rowMapper;
+
+    /**
+     * @param name 写入内容的名称，用于日志。
+     * @param rowMapper 由键和各累加值的增量构造数据库行。
+     */
+    public DeltaFlusher(String name, BiFunction<K, long[], R> rowMapper) {
+        this.name = name;
+        this.rowMapper = rowMapper;
+    }
+
+    /**
+     * @param counters 要写入的计数器。
+     * @param batchSize 单次写入的最大行数。
+     * @param writer 把一批增量累加写入数据库。
+     */
+    public void flush(Map<K, ? extends DeltaCounter> counters, int batchSize, Consumer<List<R>> writer) {
+        List<R> rows = new ArrayList<>();
+        List<DeltaCounter> pending = new ArrayList<>();
+        List<long[]> snapshots = new ArrayList<>();
+        for (Map.Entry<K, ? extends DeltaCounter> entry : counters.entrySet()) {
+            DeltaCounter counter = entry.getValue();
+            long[] snapshot = counter.snapshot();
+            long[] delta = counter.delta(snapshot);
+            if (delta != null) {
+                rows.add(rowMapper.apply(entry.getKey(), delta));
+                pending.add(counter);
+                snapshots.add(snapshot);
+            }
+        }
+
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            int to = Math.min(from + batchSize, rows.size());
+            try {
+                writer.accept(rows.subList(from, to));
+            } catch (Exception e) {
+                logger.error("Failed to persist {} {} row(s), retrying on the next flush", to - from, name, e);
+                continue;
+            }
+            for (int i = from; i < to; i++) {
+                pending.get(i).markFlushed(snapshots.get(i));
+            }
+        }
+    }
+}
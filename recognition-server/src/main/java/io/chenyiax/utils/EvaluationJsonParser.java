@@ -0,0 +1,118 @@
+package io.chenyiax.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.chenyiax.entity.DimensionScore;
+import io.chenyiax.entity.EvaluationDimension;
+import io.chenyiax.entity.StructuredEvaluation;
+import io.chenyiax.exception.JsonException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * EvaluationJsonParser 校验并解析模型返回的结构化评测 JSON。
+ * <p>
+ * 期望的格式为 {"brushwork":{"score":85,"comment":"..."},"structure":{...},"composition":{...},"suggestion":"..."}，
+ * 键名为 EvaluationDimension 名称的小写形式，改进建议只有文本没有分数。
+ * 模型偶尔会在 JSON 前后加上说明文字或代码块标记，解析时只取第一个 '{' 到最后一个 '}' 之间的内容。
+ */
+public final class EvaluationJsonParser {
+
+    private EvaluationJsonParser() {
+    }
+
+    /**
+     * @param dimension 评测维度。
+     * @return 该维度在 JSON 中的键名。
+     */
+    public static String key(EvaluationDimension dimension) {
+        return dimension.name().toLowerCase();
+    }
+
+    /**
+     * 解析并校验模型输出，超出字数上限的评语会被截断。
+     *
+     * @param content 模型输出文本。
+     * @param mapper Jackson ObjectMapper。
+     * @param maxChars 每条评语的最大字数。
+     * @return 结构化评测结果，model 字段由调用方填写。
+     * @throws JsonException 若输出不是合法的 JSON，或缺少字段、分数超出范围。
+     */
+    public static StructuredEvaluation parse(String content, ObjectMapper mapper, int maxChars) {
+        JsonNode root = readObject(content, mapper);
+
+        List<DimensionScore> scores = new ArrayList<>();
+        String suggestion = null;
+        for (EvaluationDimension dimension : EvaluationDimension.values()) {
+            JsonNode node = root.get(key(dimension));
+            if (dimension == EvaluationDimension.SUGGESTION) {
+                suggestion = truncate(text(node, dimension), maxChars);
+                continue;
+            }
+            if (node == null || !node.isObject()) {
+                throw new JsonException("Missing evaluation dimension: " + key(dimension));
+            }
+            JsonNode score = node.get("score");
+            if (score == null || !score.canConvertToInt() || score.asInt() < 0 || score.asInt() > 100) {
+                throw new JsonException("Invalid score for dimension: " + key(dimension));
+            }
+            scores.add(new DimensionScore(dimension, dimension.getTitle(), score.asInt(),
+                    truncate(text(node.get("comment"), dimension), maxChars)));
+        }
+
+        int overall = (int) Math.round(scores.stream().mapToInt(DimensionScore::getScore).average().orElse(0));
+        return new StructuredEvaluation(scores, overall, suggestion, null);
+    }
+
+    /**
+     * 将结构化评测结果序列化为紧凑的 JSON，格式与模型输出相同，用于缓存和写入评测历史。
+     *
+     * @param evaluation 结构化评测结果。
+     * @param mapper Jackson ObjectMapper。
+     * @return JSON 字符串。
+     */
+    public static String format(StructuredEvaluation evaluation, ObjectMapper mapper) {
+        ObjectNode root = mapper.createObjectNode();
+        for (DimensionScore score : evaluation.getScores()) {
+            root.putObject(key(score.getDimension()))
+                    .put("score", score.getScore())
+                    .put("comment", score.getComment());
+        }
+        root.put(key(EvaluationDimension.SUGGESTION), evaluation.getSuggestion());
+        try {
+            return mapper.writeValueAsString(root);
+        } catch (JsonProcessingException e) {
+            throw new JsonException(e.getMessage());
+        }
+    }
+
+    private static JsonNode readObject(String content, ObjectMapper mapper) {
+        int start = content == null ? -1 : content.indexOf('{');
+        int end = content == null ? -1 : content.lastIndexOf('}');
+        if (start < 0 || end < start) {
+            throw new JsonException("Model output is not a JSON object");
+        }
+        try {
+            return mapper.readTree(content.substring(start, end + 1));
+        } catch (JsonProcessingException e) {
+            throw new JsonException("Model output is not valid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private static String text(JsonNode node, EvaluationDimension dimension) {
+        if (node == null || !node.isTextual() || node.asText().isBlank()) {
+            throw new JsonException("Missing comment for dimension: " + key(dimension));
+        }
+        return node.asText().strip();
+    }
+
+    private static String truncate(String text, int maxChars) {
+        if (text.codePointCount(0, text.length()) <= maxChars) {
+            return text;
+        }
+        return text.substring(0, text.offsetByCodePoints(0, maxChars)) + "…";
+    }
+}
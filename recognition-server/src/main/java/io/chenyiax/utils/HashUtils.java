@@ -0,0 +1,31 @@
+package io.chenyiax.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * HashUtils 是一个用于计算摘要的工具类。
+ */
+public final class HashUtils {
+
+    private HashUtils() {
+    }
+
+    /**
+     * 计算字符串的 SHA-256 摘要，并以小写十六进制字符串形式返回。
+     *
+     * @param value 待计算摘要的字符串。
+     * @return 64 位十六进制摘要字符串。
+     */
+    public static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // 所有 JVM 都必须支持 SHA-256，这里不会发生
+            throw new IllegalStateException(e);
+        }
+    }
+}
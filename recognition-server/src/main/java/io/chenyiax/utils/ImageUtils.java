@@ -0,0 +1,233 @@
+package io.chenyiax.utils;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Iterator;
+
+/**
+ * ImageUtils 是处理客户端上传图片的工具类。
+ * 图片以 Base64 字符串（可带 data URL 前缀）的形式传入，
+ * 解码时使用 ImageReader 的源图下采样，避免为了质量检测而完整解码大尺寸照片。
+ */
+public final class ImageUtils {
+
+    private ImageUtils() {
+    }
+
+    /**
+     * 判断图片数据是否为 URL，URL 图片由模型直接下载，不在本地处理。
+     *
+     * @param img 图片数据。
+     * @return 是 URL 时返回 true。
+     */
+    public static boolean isUrl(String img) {
+        return img.startsWith("http");
+    }
+
+    /**
+     * 解码 Base64 图片数据，兼容 data URL 前缀。
+     *
+     * @param img Base64 图片数据。
+     * @return 图片字节。
+     * @throws IllegalArgumentException 若不是合法的 Base64 数据。
+     */
+    public static byte[] decodeBase64(String img) {
+        int comma = img.startsWith("data:") ? img.indexOf(',') : -1;
+        return Base64.getMimeDecoder().decode(comma >= 0 ? img.substring(comma + 1) : img);
+    }
+
+    /**
+     * 以整数步长的源图下采样读取图片，不再缩放：较长边超过 maxSide 时，结果的较长边介于 maxSide 与其两倍之间。
+     * 质量检测的阈值就是在这一分辨率上标定的。
+     *
+     * @param data 图片字节。
+     * @param maxSide 期望的最长边像素数。
+     * @return 下采样后的图片。
+     * @throws IOException 若图片格式无法识别或读取失败。
+     */
+    public static BufferedImage readSubsampled(byte[] data, int maxSide) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            ImageReader reader = reader(input);
+            try {
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, longest / maxSide);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 读取图片尺寸，只解析文件头，不解码像素。
+     *
+     * @param data 图片字节。
+     * @return 图片的宽和高。
+     * @throws IOException 若图片格式无法识别或读取失败。
+     */
+    public static Dimension dimensions(byte[] data) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            ImageReader reader = reader(input);
+            try {
+                return new Dimension(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 只读取图片的指定区域，并通过下采样使较长边不超过 maxSide。
+     *
+     * @param data 图片字节。
+     * @param region 原图坐标系中的读取区域。
+     * @param maxSide 结果图片的最长边像素数上限。
+     * @return 区域图片。
+     * @throws IOException 若图片格式无法识别或读取失败。
+     */
+    public static BufferedImage readRegion(byte[] data, Rectangle region, int maxSide) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            ImageReader reader = reader(input);
+            try {
+                int longest = Math.max(region.width, region.height);
+                int step = Math.max(1, (longest + maxSide - 1) / maxSide);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceRegion(region);
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 将图片编码为 JPEG 并转换为 Base64 字符串（不带 data URL 前缀）。
+     *
+     * @param image 图片。
+     * @param quality JPEG 压缩质量，取值范围 (0, 1]。
+     * @return Base64 编码的 JPEG 数据。
+     * @throws IOException 若编码失败。
+     */
+    public static String encodeJpegBase64(BufferedImage image, float quality) throws IOException {
+        // JPEG 不支持透明通道，先绘制到 RGB 图片上
+        BufferedImage rgb = image;
+        if (image.getType() != BufferedImage.TYPE_INT_RGB && image.getType() != BufferedImage.TYPE_3BYTE_BGR) {
+            rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = rgb.createGraphics();
+            graphics.drawImage(image, 0, 0, Color.WHITE, null);
+            graphics.dispose();
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(rgb, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return Base64.getEncoder().encodeToString(output.toByteArray());
+    }
+
+    /**
+     * 读取 JPEG 文件 EXIF 中的方向标记（0x0112）。
+     * ImageIO 解码时忽略该标记，重新编码后方向信息会丢失，因此带旋转标记的照片不应被裁剪重编码。
+     *
+     * @param data 图片字节。
+     * @return 方向值 1~8，非 JPEG 或没有该标记时返回 1。
+     */
+    public static int exifOrientation(byte[] data) {
+        if (data.length < 4 || (data[0] & 0xff) != 0xFF || (data[1] & 0xff) != 0xD8) {
+            return 1;
+        }
+        int offset = 2;
+        while (offset + 4 <= data.length && (data[offset] & 0xff) == 0xFF) {
+            int marker = data[offset + 1] & 0xff;
+            int length = ((data[offset + 2] & 0xff) << 8) | (data[offset + 3] & 0xff);
+            // SOS 之后是图像数据，不会再出现 APP1
+            if (marker == 0xDA) {
+                break;
+            }
+            if (marker == 0xE1 && offset + 10 <= data.length && data[offset + 4] == 'E' && data[offset + 5] == 'x'
+                    && data[offset + 6] == 'i' && data[offset + 7] == 'f') {
+                return tiffOrientation(data, offset + 10, Math.min(data.length, offset + 2 + length));
+            }
+            offset += 2 + length;
+        }
+        return 1;
+    }
+
+    /**
+     * 在 TIFF 结构的第一个 IFD 中查找方向标记。
+     */
+    private static int tiffOrientation(byte[] data, int start, int end) {
+        if (start + 8 > end) {
+            return 1;
+        }
+        boolean littleEndian = data[start] == 'I';
+        // 偏移量按无符号数读取并用 long 计算，畸形文件中的超大偏移量不会溢出成负数
+        long offset = readInt(data, start + 4, littleEndian) & 0xFFFFFFFFL;
+        if (offset < 8 || start + offset + 2 > end) {
+            return 1;
+        }
+        int ifd = (int) (start + offset);
+        int entries = readShort(data, ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > end) {
+                break;
+            }
+            if (readShort(data, entry, littleEndian) == 0x0112) {
+                int orientation = readShort(data, entry + 8, littleEndian);
+                return orientation >= 1 && orientation <= 8 ? orientation : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static int readShort(byte[] data, int offset, boolean littleEndian) {
+        int b0 = data[offset] & 0xff;
+        int b1 = data[offset + 1] & 0xff;
+        return littleEndian ? (b1 << 8) | b0 : (b0 << 8) | b1;
+    }
+
+    private static int readInt(byte[] data, int offset, boolean littleEndian) {
+        int high = readShort(data, offset + (littleEndian ? 2 : 0), littleEndian);
+        int low = readShort(data, offset + (littleEndian ? 0 : 2), littleEndian);
+        return (high << 16) | low;
+    }
+
+    private static ImageReader reader(ImageInputStream input) throws IOException {
+        if (input == null) {
+            throw new IOException("Unreadable image");
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext()) {
+            throw new IOException("Unsupported image format");
+        }
+        ImageReader reader = readers.next();
+        reader.setInput(input, true, true);
+        return reader;
+    }
+}
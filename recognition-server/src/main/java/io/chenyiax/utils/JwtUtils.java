@@ -6,11 +6,11 @@ import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.Claim;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import io.chenyiax.configuration.JwtConfig;
+import io.chenyiax.entity.User;
+import io.chenyiax.entity.WeChatUserDetails;
 import io.chenyiax.exception.JwtException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.time.Clock;
@@ -41,10 +41,10 @@ public class JwtUtils {
     /**
      * 根据用户信息创建一个 JWT 令牌。
      *
-     * @param user 包含用户信息的 UserDetails 对象，用于填充 JWT 中的声明信息。
+     * @param user 包含用户信息的 WeChatUserDetails 对象，用于填充 JWT 中的声明信息。
      * @return 生成的 JWT 令牌字符串。
      */
-    public String createToken(UserDetails user) {
+    public String createToken(WeChatUserDetails user) {
         // 使用 HMAC256 算法并结合配置中的密钥创建一个加密算法实例
         Algorithm algorithm = Algorithm.HMAC256(jwtConfig.getKey());
         // 获取当前时间
@@ -54,6 +54,8 @@ public class JwtUtils {
 
         // 构建 JWT 令牌，设置声明信息并签名
         return JWT.create()
+                // 设置用户 ID 声明，供评测历史等按用户存储的数据使用
+                .withClaim("id", user.getUser().getId())
                 // 设置用户姓名声明
                 .withClaim("name", user.getUsername())
                 // 设置用户权限声明，将用户的权限集合转换为字符串列表
@@ -72,10 +74,10 @@ public class JwtUtils {
      * 解析 JWT 令牌并返回用户信息。
      *
      * @param token 待解析的 JWT 令牌字符串。
-     * @return 包含用户信息的 UserDetails 对象。
-     * @throws JwtException 如果令牌验证失败或已过期，抛出该异常。
+     * @return 包含用户信息的 WeChatUserDetails 对象。
+     * @throws JwtException 如果令牌验证失败、已过期或缺少用户 ID，抛出该异常。
      */
-    public UserDetails parseToken(String token) throws JwtException {
+    public WeChatUserDetails parseToken(String token) throws JwtException {
         try {
             // 使用 HMAC256 算法并结合配置中的密钥创建一个加密算法实例
             Algorithm algorithm = Algorithm.HMAC256(jwtConfig.getKey());
@@ -91,13 +93,20 @@ public class JwtUtils {
                 throw new JwtException("Token expired");
             }
 
-            // 根据声明信息构建 UserDetails 对象
-            return User.withUsername(claims.get("name").asString())
-                    // 密码置空，因为 JWT 验证不依赖密码
-                    .password("")
-                    // 设置用户权限
-                    .authorities(claims.get("authorities").asArray(String.class))
-                    .build();
+            // 旧版本签发的令牌不包含用户 ID，要求客户端重新登录
+            Claim id = claims.get("id");
+            if (id == null || id.isNull()) {
+                throw new JwtException("Token missing user id");
+            }
+
+            // 根据声明信息构建用户对象，权限声明中带有 "ROLE_" 前缀，需要去掉后再还原
+            User user = new User();
+            user.setId(id.asInt());
+            user.setOpenid(claims.get("name").asString());
+            user.setAuth(claims.get("authorities").asList(String.class).stream()
+                    .map(authority -> authority.startsWith("ROLE_") ? authority.substring(5) : authority)
+                    .collect(Collectors.toList()));
+            return new WeChatUserDetails(user);
         } catch (JWTVerificationException e) {
             // 若令牌验证失败，抛出 JwtException 异常并附带错误信息
             throw new JwtException("Invalid token" + e);
@@ -0,0 +1,70 @@
+package io.chenyiax.utils;
+
+import java.util.Arrays;
+
+/**
+ * LatencyTracker 用于记录最近一段时间内的调用耗时，并计算耗时分位数。
+ * 内部使用固定容量的环形缓冲区，只保留最近的样本；分位数结果会被缓存，
+ * 每写入一定数量的新样本后才重新排序计算，避免每次查询都进行排序。
+ * 该类是线程安全的。
+ */
+public class LatencyTracker {
+
+    /**
+     * 写入多少个新样本后重新计算分位数。
+     */
+    private static final int RECOMPUTE_EVERY = 32;
+
+    private final long[] samples;
+    private int count;
+    private int next;
+    private int sinceSorted = RECOMPUTE_EVERY;
+    private long[] sorted = new long[0];
+
+    /**
+     * @param capacity 保留的最近样本数量。
+     */
+    public LatencyTracker(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    /**
+     * 记录一次调用耗时。
+     *
+     * @param millis 调用耗时（毫秒）。
+     */
+    public synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+        sinceSorted++;
+    }
+
+    /**
+     * @return 当前保留的样本数量。
+     */
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * 计算耗时分位数。
+     *
+     * @param quantile 分位数，取值范围 [0, 1]，例如 0.95 表示 p95。
+     * @return 对应分位的耗时（毫秒），没有样本时返回 -1。
+     */
+    public synchronized long percentile(double quantile) {
+        if (count == 0) {
+            return -1;
+        }
+        if (sinceSorted >= RECOMPUTE_EVERY) {
+            sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            sinceSorted = 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
@@ -0,0 +1,85 @@
+package io.chenyiax.utils;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SamplingTurboFilter 对指定日志器的高频日志按固定比例采样输出。
+ * 重试、队列丢弃等事件在故障期间会随每个请求重复出现，全部输出只会挤占日志队列而不增加信息量，
+ * 因此每 sampleEvery 条只保留 1 条；高于 maxLevel 的日志（默认 ERROR）不受影响，始终输出。
+ * <p>
+ * 在 logback-spring.xml 中按日志器分别配置：
+ * <pre>{@code
+ * <turboFilter class="io.chenyiax.utils.SamplingTurboFilter">
+ *     <loggerName>io.chenyiax.service.HunyuanRetryPolicy</loggerName>
+ *     <sampleEvery>10</sampleEvery>
+ * </turboFilter>
+ * }</pre>
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    /**
+     * 需要采样的日志器名称，同时匹配以 "名称." 开头的子日志器。
+     */
+    private String loggerName;
+
+    /**
+     * 每多少条日志输出 1 条。
+     */
+    private int sampleEvery = 10;
+
+    /**
+     * 参与采样的最高级别，高于该级别的日志始终输出。
+     */
+    private Level maxLevel = Level.WARN;
+
+    private final AtomicLong counter = new AtomicLong();
+
+    @Override
+    public void start() {
+        if (loggerName == null || loggerName.isEmpty()) {
+            addError("No loggerName set for SamplingTurboFilter " + getName());
+            return;
+        }
+        if (sampleEvery < 1) {
+            addError("sampleEvery must be positive, was " + sampleEvery);
+            return;
+        }
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // isDebugEnabled() 等级别判断也会经过 TurboFilter，此时 format 为 null，不计入采样
+        if (!isStarted() || format == null || !matches(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        // 超过采样级别或本身就不会输出的日志不参与计数，避免扭曲采样比例
+        if (level.toInt() > maxLevel.toInt() || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        return counter.getAndIncrement() % sampleEvery == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private boolean matches(String name) {
+        return name.startsWith(loggerName)
+                && (name.length() == loggerName.length() || name.charAt(loggerName.length()) == '.');
+    }
+
+    public void setLoggerName(String loggerName) {
+        this.loggerName = loggerName;
+    }
+
+    public void setSampleEvery(int sampleEvery) {
+        this.sampleEvery = sampleEvery;
+    }
+
+    public void setMaxLevel(String maxLevel) {
+        this.maxLevel = Level.toLevel(maxLevel, Level.WARN);
+    }
+}
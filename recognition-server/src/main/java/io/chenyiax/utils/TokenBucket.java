@@ -0,0 +1,68 @@
+package io.chenyiax.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * TokenBucket 是进程内的令牌桶，按固定速率补充令牌，桶容量决定允许的突发量。
+ */
+public class TokenBucket {
+
+    private final double ratePerNano;
+    private final double capacity;
+    private final LongSupplier nanoClock;
+
+    private double tokens;
+    private long refilledAt;
+
+    /**
+     * @param permitsPerSecond 每秒补充的令牌数。
+     * @param capacity 桶容量。
+     */
+    public TokenBucket(double permitsPerSecond, double capacity) {
+        this(permitsPerSecond, capacity, System::nanoTime);
+    }
+
+    /**
+     * @param permitsPerSecond 每秒补充的令牌数。
+     * @param capacity 桶容量。
+     * @param nanoClock 纳秒时钟，测试时可替换。
+     */
+    public TokenBucket(double permitsPerSecond, double capacity, LongSupplier nanoClock) {
+        this.ratePerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = capacity;
+        this.nanoClock = nanoClock;
+        this.tokens = capacity;
+        this.refilledAt = nanoClock.getAsLong();
+    }
+
+    /**
+     * 取出最多 requested 个令牌。
+     *
+     * @param requested 希望取出的令牌数。
+     * @return 实际取出的令牌数，可能少于 requested。
+     */
+    public synchronized int take(int requested) {
+        refill();
+        int granted = (int) Math.min(requested, Math.floor(tokens));
+        tokens -= granted;
+        return granted;
+    }
+
+    /**
+     * @return 距离下一个令牌可用的毫秒数，当前已有令牌时返回 0。
+     */
+    public synchronized long millisUntilAvailable() {
+        refill();
+        if (tokens >= 1) {
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / ratePerNano / TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * ratePerNano);
+        refilledAt = now;
+    }
+}
@@ -2,10 +2,12 @@ package io.chenyiax.utils;
 
 import io.chenyiax.configuration.WeChatConfig;
 import io.chenyiax.entity.WeChatSessionResponse;
+import io.chenyiax.exception.DeadlineExceededException;
 import io.chenyiax.exception.WeChatApiException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 
@@ -35,6 +37,7 @@ public class WeChatApiClient {
      * @param code 微信客户端返回的临时登录凭证，用于向微信服务器验证用户身份。
      * @return 返回一个包含微信会话信息的对象，包含 openid、session_key 等字段。
      * @throws WeChatApiException 如果在请求过程中出现 HTTP 错误、微信接口返回错误信息或返回结果为空。
+     * @throws DeadlineExceededException 如果请求已经超过截止时间，或在截止时间内没有得到响应。
      */
     public WeChatSessionResponse getSessionByCode(String code) {
         // 构建调用微信 `jscode2session` 接口的 URL
@@ -54,12 +57,24 @@ public class WeChatApiClient {
             }
             // 若请求成功，返回微信会话信息
             return response;
+        } catch (ResourceAccessException e) {
+            // 超时由 DeadlineRequestFactory 收紧到剩余时间之内，此时截止时间已到
+            DeadlineContext.check();
+            throw e;
         } catch (HttpClientErrorException e) {
             // 若发生 HTTP 请求错误，抛出包含错误信息的微信接口异常
             throw new WeChatApiException("HTTP request fail: " + e.getMessage());
         }
     }
 
+    /**
+     * 预热：不带参数请求一次 `jscode2session` 接口，微信返回参数错误，但连接和 TLS 会话会保留在连接缓存中，
+     * 响应的反序列化路径也会被执行一次。
+     */
+    public void warmUp() {
+        restTemplate.getForObject("https://api.weixin.qq.com/sns/jscode2session", WeChatSessionResponse.class);
+    }
+
     /**
      * 构建调用微信 `jscode2session` 接口的 URL。
      * 该方法根据微信配置信息和传入的临时登录凭证 code 生成完整的请求 URL。
@@ -0,0 +1,11 @@
+create table if not exists wechat_users
+(
+    id          int auto_increment primary key,
+    openid      varchar(64)  not null,
+    session_key varchar(128) null,
+    nickname    varchar(64)  null,
+    avatar_url  varchar(512) null,
+    -- 逗号分隔的角色列表，由 StringListTypeHandler 转换
+    auth        varchar(255) not null default 'USER'
+) engine = InnoDB
+  default charset = utf8mb4;
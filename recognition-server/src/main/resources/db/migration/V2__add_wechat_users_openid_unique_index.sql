@@ -0,0 +1,14 @@
+-- 登录时按 openid 查询用户，唯一索引保证查询走索引且同一微信用户不会被重复创建
+-- 已有的 wechat_users 表可能没有该索引，MySQL 不支持 create index if not exists，按需动态执行
+-- 若已有重复的 openid，需要先人工合并后再执行本迁移
+set @index_exists := (select count(*)
+                      from information_schema.statistics
+                      where table_schema = database()
+                        and table_name = 'wechat_users'
+                        and index_name = 'uk_wechat_users_openid');
+set @ddl := if(@index_exists = 0,
+               'alter table wechat_users add unique index uk_wechat_users_openid (openid)',
+               'select 1');
+prepare statement from @ddl;
+execute statement;
+deallocate prepare statement;
@@ -0,0 +1,14 @@
+create table if not exists evaluations
+(
+    id             bigint auto_increment primary key,
+    user_id        int          not null,
+    image_hash     char(64)     not null,
+    model          varchar(64)  not null,
+    prompt_version varchar(32)  not null,
+    result         text         not null,
+    latency_ms     bigint       not null,
+    created_at     datetime(3)  not null,
+    -- 历史查询按 user_id 过滤并按 id 倒序做 keyset 分页
+    key idx_evaluations_user_id (user_id, id)
+) engine = InnoDB
+  default charset = utf8mb4;
@@ -0,0 +1,11 @@
+create table if not exists token_usage
+(
+    user_id           int     not null,
+    usage_date        date    not null,
+    prompt_tokens     bigint  not null default 0,
+    completion_tokens bigint  not null default 0,
+    requests          bigint  not null default 0,
+    -- 各节点按 (user_id, usage_date) 累加写入
+    primary key (user_id, usage_date)
+) engine = InnoDB
+  default charset = utf8mb4;
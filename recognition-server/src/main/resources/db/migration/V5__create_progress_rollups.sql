@@ -0,0 +1,13 @@
+create table if not exists progress_rollups
+(
+    scope      varchar(8)  not null,
+    scope_id   varchar(64) not null,
+    day        date        not null,
+    dimension  varchar(16) not null,
+    bucket     tinyint     not null,
+    count      bigint      not null default 0,
+    score_sum  bigint      not null default 0,
+    -- 各节点按主键累加写入；看板按 (scope, scope_id) 和日期范围读取，不扫描评测历史
+    primary key (scope, scope_id, day, dimension, bucket)
+) engine = InnoDB
+  default charset = utf8mb4;
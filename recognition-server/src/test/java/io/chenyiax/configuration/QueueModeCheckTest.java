@@ -0,0 +1,38 @@
+package io.chenyiax.configuration;
+
+import io.chenyiax.service.RecognitionQueueClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 测试构建时确定的队列模式与运行时的 recognition.queue.enabled 不一致时拒绝启动。
+ */
+public class QueueModeCheckTest {
+
+    private final RecognitionQueueConfig config = new RecognitionQueueConfig();
+    private final StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+
+    @Test
+    public void matchingModesStart() {
+        assertDoesNotThrow(() -> new QueueModeCheck(config, beanFactory).check());
+
+        config.setEnabled(true);
+        beanFactory.addBean("recognitionQueueClient", new RecognitionQueueClient(null));
+        assertDoesNotThrow(() -> new QueueModeCheck(config, beanFactory).check());
+    }
+
+    @Test
+    public void queueEnabledAtRuntimeButNotBuiltFails() {
+        config.setEnabled(true);
+        assertThrows(IllegalStateException.class, () -> new QueueModeCheck(config, beanFactory).check());
+    }
+
+    @Test
+    public void queueBuiltButDisabledAtRuntimeFails() {
+        beanFactory.addBean("recognitionQueueClient", new RecognitionQueueClient(null));
+        assertThrows(IllegalStateException.class, () -> new QueueModeCheck(config, beanFactory).check());
+    }
+}
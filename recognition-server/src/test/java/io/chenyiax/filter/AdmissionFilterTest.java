@@ -0,0 +1,110 @@
+package io.chenyiax.filter;
+
+import io.chenyiax.configuration.AdmissionConfig;
+import io.chenyiax.configuration.AdmissionConfig.Priority;
+import io.chenyiax.service.AdmissionController;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdmissionFilterTest {
+
+    private final AdmissionConfig config = new AdmissionConfig();
+    private final AtomicInteger inFlightDuringChain = new AtomicInteger(-1);
+    private AdmissionController controller;
+    private AdmissionFilter filter;
+    private MockAsyncContext asyncContext;
+
+    @BeforeEach
+    public void setUp() {
+        config.setMaxInFlight(2);
+        config.setRetryAfter(7);
+        config.getRoutes().put("/api/auth/**", Priority.CRITICAL);
+        config.getRoutes().put("/api/app/history", Priority.LOW);
+        controller = new AdmissionController(config, new SimpleMeterRegistry(), Clock.systemDefaultZone());
+        controller.init();
+        filter = new AdmissionFilter(config, controller);
+    }
+
+    @Test
+    public void admittedRequestHoldsASlotUntilItCompletes() throws Exception {
+        MockHttpServletResponse response = perform("/api/app/recognition", false);
+        assertEquals(200, response.getStatus());
+        assertEquals(1, inFlightDuringChain.get());
+        assertEquals(0, controller.inFlight());
+    }
+
+    @Test
+    public void rejectedRequestGets503WithRetryAfter() throws Exception {
+        // LOW 只能占用一半的槽位
+        controller.tryAcquire(Priority.HIGH);
+
+        MockHttpServletResponse response = perform("/api/app/history", false);
+        assertEquals(503, response.getStatus());
+        assertEquals("7", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("503"));
+        assertEquals(-1, inFlightDuringChain.get());
+    }
+
+    @Test
+    public void drainingRejectsEverythingButCriticalRoutes() throws Exception {
+        controller.startDraining();
+
+        MockHttpServletResponse response = perform("/api/app/recognition", false);
+        assertEquals(503, response.getStatus());
+        assertEquals("7", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("服务正在重启"));
+        assertEquals(-1, inFlightDuringChain.get());
+
+        assertEquals(200, perform("/api/auth/login", false).getStatus());
+    }
+
+    @Test
+    public void criticalRoutesBypassAdmission() throws Exception {
+        controller.tryAcquire(Priority.HIGH);
+        controller.tryAcquire(Priority.HIGH);
+
+        assertEquals(200, perform("/api/auth/login", false).getStatus());
+        assertEquals(2, inFlightDuringChain.get());
+    }
+
+    @Test
+    public void asyncRequestReleasesItsSlotWhenTheResponseCompletes() throws Exception {
+        perform("/api/app/recognition/batch", true);
+        assertEquals(1, controller.inFlight());
+
+        asyncContext.complete();
+        assertEquals(0, controller.inFlight());
+    }
+
+    private MockHttpServletResponse perform(String path, boolean async) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                inFlightDuringChain.set(controller.inFlight());
+                if (async) {
+                    AsyncContext context = req.startAsync();
+                    asyncContext = (MockAsyncContext) context;
+                }
+            }
+        }));
+        return response;
+    }
+}
@@ -0,0 +1,72 @@
+package io.chenyiax.filter;
+
+import io.chenyiax.configuration.DeadlineConfig;
+import io.chenyiax.utils.Deadline;
+import io.chenyiax.utils.DeadlineContext;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DeadlineFilterTest {
+
+    private final DeadlineConfig config = new DeadlineConfig();
+    private final DeadlineFilter filter = new DeadlineFilter(config);
+
+    @Test
+    public void usesTheEndpointTimeout() throws Exception {
+        config.getEndpoints().put("/api/app/history", 5000L);
+
+        assertRemaining(deadline("/api/app/history", null), 4900, 5000);
+        assertRemaining(deadline("/api/app/recognition", null), 59900, 60000);
+    }
+
+    @Test
+    public void clientHeaderCanOnlyShortenTheTimeout() throws Exception {
+        assertRemaining(deadline("/api/app/recognition", "3000"), 2900, 3000);
+        assertRemaining(deadline("/api/app/recognition", "600000"), 59900, 60000);
+        assertRemaining(deadline("/api/app/recognition", "abc"), 59900, 60000);
+        assertRemaining(deadline("/api/app/recognition", "-1"), 59900, 60000);
+    }
+
+    @Test
+    public void deadlineIsClearedAfterTheRequest() throws Exception {
+        deadline("/api/app/recognition", null);
+        assertNull(DeadlineContext.current());
+    }
+
+    @Test
+    public void disabledFilterSetsNoDeadline() throws Exception {
+        config.setEnabled(false);
+        assertNull(deadline("/api/app/recognition", "1000"));
+    }
+
+    private Deadline deadline(String path, String header) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        if (header != null) {
+            request.addHeader(config.getHeader(), header);
+        }
+        AtomicReference<Deadline> seen = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(),
+                new MockFilterChain(new HttpServlet() {
+                    @Override
+                    protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                        seen.set(DeadlineContext.current());
+                    }
+                }));
+        return seen.get();
+    }
+
+    private static void assertRemaining(Deadline deadline, long min, long max) {
+        long remaining = deadline.remainingMillis();
+        assertTrue(remaining > min && remaining <= max, "remaining " + remaining);
+    }
+}
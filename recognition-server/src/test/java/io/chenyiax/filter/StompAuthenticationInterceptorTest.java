@@ -0,0 +1,92 @@
+package io.chenyiax.filter;
+
+import io.chenyiax.configuration.JwtConfig;
+import io.chenyiax.entity.User;
+import io.chenyiax.entity.WeChatUserDetails;
+import io.chenyiax.exception.JwtException;
+import io.chenyiax.utils.JwtUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.security.Principal;
+import java.time.Clock;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 测试 STOMP 帧的身份验证和目的地限制。
+ */
+public class StompAuthenticationInterceptorTest {
+
+    private final JwtUtils jwtUtils = new JwtUtils(jwtConfig(), Clock.systemUTC());
+    private final StompAuthenticationInterceptor interceptor = new StompAuthenticationInterceptor(jwtUtils);
+    private final WeChatUserDetails user = user();
+
+    @Test
+    public void connectBindsTheTokenUser() {
+        Message<byte[]> connect = frame(StompCommand.CONNECT, null, null);
+        StompHeaderAccessor.getAccessor(connect, StompHeaderAccessor.class)
+                .setNativeHeader("Authorization", "Bearer " + jwtUtils.createToken(user));
+
+        Message<?> result = interceptor.preSend(connect, null);
+        Principal principal = MessageHeaderAccessor.getAccessor(result, StompHeaderAccessor.class).getUser();
+        assertNotNull(principal);
+        assertEquals(7, ((WeChatUserDetails) ((UsernamePasswordAuthenticationToken) principal).getPrincipal())
+                .getUser().getId());
+        assertThrows(JwtException.class, () -> interceptor.preSend(frame(StompCommand.CONNECT, null, null), null));
+    }
+
+    @Test
+    public void subscribeIsLimitedToUserDestinations() {
+        Principal principal = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+
+        assertDoesNotThrow(() -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/user/queue/recognition", principal), null));
+        assertThrows(JwtException.class,
+                () -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/queue/recognition-userabc123", principal), null));
+        assertThrows(JwtException.class,
+                () -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/user/../queue/recognition-userabc123", principal), null));
+        assertThrows(JwtException.class,
+                () -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/user/queue/recognition", null), null));
+    }
+
+    @Test
+    public void sendIsLimitedToApplicationDestinations() {
+        Principal principal = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+
+        assertDoesNotThrow(() -> interceptor.preSend(frame(StompCommand.SEND, "/app/recognition", principal), null));
+        assertThrows(JwtException.class,
+                () -> interceptor.preSend(frame(StompCommand.SEND, "/queue/recognition-userabc123", principal), null));
+    }
+
+    private static Message<byte[]> frame(StompCommand command, String destination, Principal user) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setDestination(destination);
+        accessor.setUser(user);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static JwtConfig jwtConfig() {
+        JwtConfig config = new JwtConfig();
+        config.setKey("test-key");
+        config.setValidity(3600);
+        return config;
+    }
+
+    private static WeChatUserDetails user() {
+        User user = new User();
+        user.setId(7);
+        user.setOpenid("openid");
+        user.setAuth(List.of("user"));
+        return new WeChatUserDetails(user);
+    }
+}
@@ -0,0 +1,80 @@
+package io.chenyiax.handler;
+
+import io.chenyiax.exception.DeadlineExceededException;
+import io.chenyiax.utils.Deadline;
+import io.chenyiax.utils.DeadlineContext;
+import org.apache.ibatis.plugin.Invocation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class QueryDeadlineInterceptorTest {
+
+    private final QueryDeadlineInterceptor interceptor = new QueryDeadlineInterceptor();
+    private final AtomicInteger queryTimeout = new AtomicInteger();
+    private final AtomicBoolean prepared = new AtomicBoolean();
+
+    @AfterEach
+    public void tearDown() {
+        DeadlineContext.clear();
+    }
+
+    @Test
+    public void withoutDeadlineTheTimeoutIsUnchanged() throws Throwable {
+        queryTimeout.set(30);
+        interceptor.intercept(invocation());
+        assertEquals(30, queryTimeout.get());
+    }
+
+    @Test
+    public void timeoutIsRoundedUpToTheRemainingSeconds() throws Throwable {
+        DeadlineContext.set(Deadline.after(2500));
+        interceptor.intercept(invocation());
+        assertEquals(3, queryTimeout.get());
+    }
+
+    @Test
+    public void shorterConfiguredTimeoutIsKept() throws Throwable {
+        queryTimeout.set(1);
+        DeadlineContext.set(Deadline.after(10000));
+        interceptor.intercept(invocation());
+        assertEquals(1, queryTimeout.get());
+    }
+
+    @Test
+    public void expiredRequestsDoNotQuery() {
+        Deadline deadline = Deadline.after(10000);
+        deadline.cancel();
+        DeadlineContext.set(deadline);
+        assertThrows(DeadlineExceededException.class, () -> interceptor.intercept(invocation()));
+        assertFalse(prepared.get());
+    }
+
+    private Invocation invocation() throws NoSuchMethodException {
+        Statement statement = (Statement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{Statement.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getQueryTimeout" -> queryTimeout.get();
+                    case "setQueryTimeout" -> {
+                        queryTimeout.set((Integer) args[0]);
+                        yield null;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        return new Invocation(new Preparer(statement, prepared), Preparer.class.getMethod("prepare"), new Object[0]);
+    }
+
+    public record Preparer(Statement statement, AtomicBoolean prepared) {
+        public Statement prepare() {
+            prepared.set(true);
+            return statement;
+        }
+    }
+}
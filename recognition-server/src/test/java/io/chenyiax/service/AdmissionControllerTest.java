@@ -0,0 +1,183 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.AdmissionConfig;
+import io.chenyiax.configuration.AdmissionConfig.Priority;
+import io.chenyiax.utils.Deadline;
+import io.chenyiax.utils.DeadlineContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 测试 AdmissionController 的优先级槽位比例、排队等待和过载判定。
+ * 过载判定的时间由可调的时钟控制，排队等待仍是真实的等待。
+ */
+public class AdmissionControllerTest {
+
+    private final AdmissionConfig config = new AdmissionConfig();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ManualClock clock = new ManualClock();
+    private AdmissionController controller;
+
+    @BeforeEach
+    public void setUp() {
+        config.setMaxInFlight(10);
+        config.setTargetDelay(10);
+        config.setInterval(500);
+        controller = new AdmissionController(config, meterRegistry, clock);
+        controller.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        DeadlineContext.clear();
+    }
+
+    @Test
+    public void eachPriorityOnlyUsesItsShareOfTheSlots() {
+        assertEquals(5, acquireAll(Priority.LOW));
+        assertEquals(3, acquireAll(Priority.NORMAL));
+        assertEquals(2, acquireAll(Priority.HIGH));
+        assertEquals(10, controller.inFlight());
+        assertEquals(1, rejected(Priority.LOW));
+        assertEquals(1, rejected(Priority.NORMAL));
+        assertEquals(1, rejected(Priority.HIGH));
+    }
+
+    @Test
+    public void queuedRequestIsAdmittedWhenASlotIsReleased() throws Exception {
+        config.setTargetDelay(200);
+        acquireAll(Priority.HIGH);
+
+        // HIGH 最多排队 5 倍排队时间目标
+        CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(() -> controller.tryAcquire(Priority.HIGH));
+        Thread.sleep(50);
+        assertFalse(waiting.isDone());
+        controller.release();
+        assertTrue(waiting.get(1, TimeUnit.SECONDS));
+        assertEquals(10, controller.inFlight());
+    }
+
+    @Test
+    public void sustainedQueueDelayMeansOverload() {
+        acquireAll(Priority.NORMAL);
+
+        // 第一次排队超时只记下开始时刻，持续一个 interval 后才判定过载
+        assertFalse(controller.tryAcquire(Priority.NORMAL));
+        assertFalse(overloaded());
+        clock.advance(499);
+        assertFalse(controller.tryAcquire(Priority.NORMAL));
+        assertFalse(overloaded());
+        clock.advance(1);
+        assertFalse(controller.tryAcquire(Priority.NORMAL));
+        assertTrue(overloaded());
+
+        // 过载期间即使有空闲槽位也拒绝 LOW，NORMAL 不排队
+        releaseAll();
+        assertFalse(controller.tryAcquire(Priority.LOW));
+
+        // 一次不超过目标的排队时间即退出过载
+        assertTrue(controller.tryAcquire(Priority.NORMAL));
+        assertFalse(overloaded());
+        assertTrue(controller.tryAcquire(Priority.LOW));
+    }
+
+    @Test
+    public void shortQueueDelayResetsTheOverloadTimer() {
+        acquireAll(Priority.NORMAL);
+        assertFalse(controller.tryAcquire(Priority.NORMAL));
+
+        controller.release();
+        assertTrue(controller.tryAcquire(Priority.NORMAL));
+        clock.advance(1000);
+        assertFalse(controller.tryAcquire(Priority.NORMAL));
+        assertFalse(overloaded());
+    }
+
+    @Test
+    public void highPriorityDelayDoesNotTriggerOverload() {
+        acquireAll(Priority.HIGH);
+        assertFalse(controller.tryAcquire(Priority.HIGH));
+        clock.advance(1000);
+        assertFalse(controller.tryAcquire(Priority.HIGH));
+        assertFalse(overloaded());
+    }
+
+    @Test
+    public void expiredRequestDeadlineDoesNotThrow() {
+        config.setMaxInFlight(2);
+        Deadline deadline = Deadline.after(1);
+        deadline.cancel();
+        DeadlineContext.set(deadline);
+
+        // 有空闲槽位时照常接纳，由下游返回超时响应
+        assertTrue(controller.tryAcquire(Priority.HIGH));
+        assertTrue(controller.tryAcquire(Priority.HIGH));
+        // 没有槽位时不排队，直接拒绝
+        long start = System.nanoTime();
+        assertFalse(controller.tryAcquire(Priority.HIGH));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < config.getTargetDelay() * 5);
+        assertEquals(2, controller.inFlight());
+    }
+
+    private int acquireAll(Priority priority) {
+        int admitted = 0;
+        while (controller.tryAcquire(priority)) {
+            admitted++;
+        }
+        return admitted;
+    }
+
+    private void releaseAll() {
+        while (controller.inFlight() > 0) {
+            controller.release();
+        }
+    }
+
+    private boolean overloaded() {
+        return meterRegistry.get("http.admission.overloaded").gauge().value() == 1;
+    }
+
+    private double rejected(Priority priority) {
+        return meterRegistry.counter("http.admission.rejected", "priority", priority.name()).count();
+    }
+
+    private static class ManualClock extends Clock {
+        private volatile long millis = 1_000_000;
+
+        void advance(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package io.chenyiax.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.chenyiax.configuration.BatchRecognitionConfig;
+import io.chenyiax.configuration.HunyuanConfig;
+import io.chenyiax.configuration.TencentCloudConfig;
+import io.chenyiax.entity.BatchRecognitionRequest;
+import io.chenyiax.entity.ImgRequest;
+import io.chenyiax.entity.RecognitionEvent;
+import io.chenyiax.exception.ImageQualityException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * 通过 MockMvc 测试批量识别的并行分发、并行数上限和逐行写出的 NDJSON 结果。
+ */
+public class BatchRecognitionServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final StubRecognitionService recognitionService = new StubRecognitionService();
+    private ThreadPoolTaskExecutor executor;
+
+    @AfterEach
+    public void tearDown() {
+        recognitionService.release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    public void itemsRunInParallelAndEachGetsItsOwnLine() throws Exception {
+        MockMvc mvc = mvc(8, 0, 8);
+        // 所有图片都进入模型调用后才放行，串行处理时测试会超时
+        recognitionService.arrivals = new CountDownLatch(5);
+        recognitionService.release = new CountDownLatch(0);
+
+        List<RecognitionEvent> events = perform(mvc, "a", "b", "bad", "c", "broken");
+
+        assertEquals(List.of("0", "1", "2", "3", "4"), events.stream().map(RecognitionEvent::getRequestId).toList());
+        assertEquals("done a", events.get(0).getResult());
+        assertEquals(RecognitionEvent.Status.FAILED, events.get(2).getStatus());
+        assertEquals("照片太模糊", events.get(2).getMessage());
+        assertEquals(RecognitionEvent.Status.DONE, events.get(3).getStatus());
+        // 非业务异常的消息不写给客户端
+        assertEquals(BatchRecognitionService.ITEM_FAILED, events.get(4).getMessage());
+    }
+
+    @Test
+    public void itemsInFlightAreLimitedByTheCallPermits() throws Exception {
+        MockMvc mvc = mvc(8, 0, 2);
+        // 前两张图片互相等待，证明它们并行；之后始终只有两张图片在处理
+        recognitionService.arrivals = new CountDownLatch(2);
+
+        List<RecognitionEvent> events = perform(mvc, "a", "b", "c", "d", "e");
+
+        assertEquals(5, events.stream().filter(e -> e.getStatus() == RecognitionEvent.Status.DONE).count());
+        assertEquals(2, recognitionService.maxRunning.get());
+    }
+
+    @Test
+    public void rejectedItemsFailWithoutFailingTheBatch() throws Exception {
+        MockMvc mvc = mvc(1, 0, 8);
+        recognitionService.release = new CountDownLatch(1);
+
+        MvcResult result = start(mvc, "a", "b", "c");
+        recognitionService.release.countDown();
+        List<RecognitionEvent> events = finish(result);
+
+        assertEquals(RecognitionEvent.Status.DONE, events.get(0).getStatus());
+        assertEquals("Server busy, please retry later", events.get(1).getMessage());
+        assertEquals("Server busy, please retry later", events.get(2).getMessage());
+    }
+
+    private MockMvc mvc(int threads, int queueCapacity, int permits) {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.initialize();
+
+        BatchRecognitionService service = new BatchRecognitionService();
+        service.recognitionService = recognitionService;
+        service.batchRecognitionConfig = new BatchRecognitionConfig();
+        service.recognitionExecutor = executor;
+        service.callExecutor = new HunyuanCallExecutor(new HunyuanConfig(), new TencentCloudConfig()) {
+            @Override
+            public int maxConcurrency() {
+                return permits;
+            }
+        };
+        return MockMvcBuilders.standaloneSetup(new BatchController(service)).build();
+    }
+
+    private List<RecognitionEvent> perform(MockMvc mvc, String... imgs) throws Exception {
+        return finish(start(mvc, imgs));
+    }
+
+    private MvcResult start(MockMvc mvc, String... imgs) throws Exception {
+        BatchRecognitionRequest request = new BatchRecognitionRequest();
+        request.setImgs(List.of(imgs));
+        return mvc.perform(post("/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andReturn();
+    }
+
+    private List<RecognitionEvent> finish(MvcResult result) throws Exception {
+        result.getAsyncResult(5000);
+        assertTrue(result.getResponse().getContentType().startsWith("application/x-ndjson"));
+        List<RecognitionEvent> events = new ArrayList<>();
+        for (String line : result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n")) {
+            JsonNode node = objectMapper.readTree(line);
+            events.add(new RecognitionEvent(node.get("requestId").asText(),
+                    RecognitionEvent.Status.valueOf(node.get("status").asText()),
+                    node.get("result").asText(null), node.get("message").asText(null)));
+        }
+        // 各行按完成顺序写出，按下标排序后再断言
+        events.sort(Comparator.comparing(e -> Integer.parseInt(e.getRequestId())));
+        return events;
+    }
+
+    @RestController
+    private static class BatchController {
+        private final BatchRecognitionService service;
+
+        BatchController(BatchRecognitionService service) {
+            this.service = service;
+        }
+
+        @PostMapping("/batch")
+        public ResponseEntity<ResponseBodyEmitter> batch(@RequestBody BatchRecognitionRequest request) {
+            return ResponseEntity.ok().contentType(BatchRecognitionService.NDJSON).body(service.recognition(request, 1));
+        }
+    }
+
+    private static class StubRecognitionService extends RecognitionService {
+        private volatile CountDownLatch arrivals = new CountDownLatch(0);
+        private volatile CountDownLatch release = new CountDownLatch(0);
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+
+        @Override
+        public String recognition(ImgRequest request, Integer userId) {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            arrivals.countDown();
+            try {
+                if (!arrivals.await(2, TimeUnit.SECONDS) || !release.await(2, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("items were not processed in parallel");
+                }
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                running.decrementAndGet();
+            }
+            if ("bad".equals(request.getImg())) {
+                throw new ImageQualityException("照片太模糊");
+            }
+            if ("broken".equals(request.getImg())) {
+                throw new IllegalStateException("jdbc:mysql://db:3306 connection refused");
+            }
+            return "done " + request.getImg();
+        }
+    }
+}
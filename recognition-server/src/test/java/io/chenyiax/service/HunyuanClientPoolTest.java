@@ -0,0 +1,138 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.HunyuanConfig;
+import io.chenyiax.configuration.TencentCloudConfig;
+import io.chenyiax.exception.HunYuanException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 测试账号选择（剩余并发比例最高者优先）、每个账号的并发上限和限流账号的暂停。不创建 SDK 客户端。
+ */
+public class HunyuanClientPoolTest {
+
+    private final TencentCloudConfig config = new TencentCloudConfig();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void callsAreSpreadByRemainingHeadroom() {
+        HunyuanClientPool pool = pool(account("big", 10), account("small", 2));
+
+        List<HunyuanClientPool.PooledClient> acquired = new ArrayList<>();
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 12; i++) {
+            HunyuanClientPool.PooledClient client = pool.acquire(0);
+            acquired.add(client);
+            counts.merge(client.getName(), 1, Integer::sum);
+        }
+        // 各账号按并发配额的比例分担
+        assertEquals(Map.of("big", 10, "small", 2), counts);
+
+        // 释放后剩余比例最高的账号优先
+        acquired.stream().filter(c -> c.getName().equals("small")).forEach(pool::release);
+        assertEquals("small", pool.acquire(0).getName());
+    }
+
+    @Test
+    public void perAccountConcurrencyIsEnforced() throws Exception {
+        HunyuanClientPool pool = pool(account("a", 1));
+        HunyuanClientPool.PooledClient first = pool.acquire(0);
+
+        assertThrows(HunYuanException.class, () -> pool.acquire(50));
+
+        // 名额释放后等待中的调用继续
+        CompletableFuture<HunyuanClientPool.PooledClient> waiting =
+                CompletableFuture.supplyAsync(() -> pool.acquire(2000));
+        Thread.sleep(100);
+        assertFalse(waiting.isDone());
+        pool.release(first);
+        assertEquals("a", waiting.get(1, TimeUnit.SECONDS).getName());
+    }
+
+    @Test
+    public void throttledAccountIsSidelinedForAWhile() throws InterruptedException {
+        config.setSidelineDuration(100);
+        HunyuanClientPool pool = pool(account("a", 5), account("b", 5));
+        HunyuanClientPool.PooledClient a = pool.acquire(0);
+        pool.release(a);
+
+        assertFalse(pool.recordFailure(a, "InternalError"));
+        assertTrue(pool.recordFailure(a, "LimitExceeded.TooManyRequests"));
+        for (int i = 0; i < 5; i++) {
+            assertEquals("b", pool.acquire(0).getName());
+        }
+        assertEquals(1, meterRegistry.counter("hunyuan.account.throttled", "account", "a").count());
+
+        Thread.sleep(150);
+        assertEquals("a", pool.acquire(0).getName());
+    }
+
+    @Test
+    public void lastAccountIsNeverSetAside() {
+        HunyuanClientPool pool = pool(account("a", 5));
+        HunyuanClientPool.PooledClient a = pool.acquire(0);
+        pool.release(a);
+        assertTrue(pool.recordFailure(a, "RequestLimitExceeded"));
+
+        // 唯一的账号被限流后仍然可用，调用频率由重试策略的退避控制
+        assertEquals("a", pool.acquire(0).getName());
+    }
+
+    @Test
+    public void allAccountsThrottledUsesTheOneThatRecoversFirst() throws InterruptedException {
+        config.setSidelineDuration(10000);
+        HunyuanClientPool pool = pool(account("a", 5), account("b", 5));
+        HunyuanClientPool.PooledClient first = pool.acquire(0);
+        HunyuanClientPool.PooledClient second = pool.acquire(0);
+        pool.release(first);
+        pool.release(second);
+        pool.recordFailure(second, "RequestLimitExceeded");
+        Thread.sleep(5);
+        pool.recordFailure(first, "RequestLimitExceeded");
+
+        assertEquals(second.getName(), pool.acquire(0).getName());
+    }
+
+    @Test
+    public void legacySingleAccountIsUsedWithoutAPool() {
+        config.setSecretId("id");
+        config.setSecretKey("key");
+        HunyuanClientPool pool = pool();
+        assertEquals("default", pool.acquire(0).getName());
+    }
+
+    @Test
+    public void missingCredentialsFailAtStartup() {
+        TencentCloudConfig.Account account = account("a", 5);
+        account.setSecretKey("");
+        assertThrows(IllegalStateException.class, () -> pool(account));
+    }
+
+    private HunyuanClientPool pool(TencentCloudConfig.Account... accounts) {
+        config.setAccounts(List.of(accounts));
+        HunyuanClientPool pool = new HunyuanClientPool(config, new HunyuanConfig(), meterRegistry);
+        pool.init();
+        return pool;
+    }
+
+    private static TencentCloudConfig.Account account(String name, int maxConcurrency) {
+        TencentCloudConfig.Account account = new TencentCloudConfig.Account();
+        account.setName(name);
+        account.setSecretId("id-" + name);
+        account.setSecretKey("key-" + name);
+        account.setMaxConcurrency(maxConcurrency);
+        return account;
+    }
+}
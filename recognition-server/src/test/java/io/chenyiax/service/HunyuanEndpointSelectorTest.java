@@ -0,0 +1,103 @@
+package io.chenyiax.service;
+
+import com.sun.net.httpserver.HttpServer;
+import io.chenyiax.configuration.HunyuanConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 使用本地的桩 HTTP 服务作为接入点测试 HunyuanEndpointSelector 的延迟选择和故障切换。
+ */
+public class HunyuanEndpointSelectorTest {
+
+    private HttpServer slow;
+    private HttpServer fast;
+    private HunyuanConfig config;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        slow = stub(100);
+        fast = stub(0);
+        config = new HunyuanConfig();
+        // 由测试手动触发探测
+        config.getProbe().setEnabled(false);
+        config.getProbe().setFailureThreshold(2);
+        config.getProbe().setTimeout(1000);
+        config.setEndpoints(List.of(endpoint("slow", slow), endpoint("fast", fast)));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        slow.stop(0);
+        fast.stop(0);
+    }
+
+    @Test
+    public void switchesToFastestEndpoint() {
+        HunyuanEndpointSelector selector = newSelector();
+        assertEquals("slow", selector.select().getName());
+        selector.probeAll();
+        assertEquals("fast", selector.select().getName());
+    }
+
+    @Test
+    public void failsOverWhenEndpointGoesDown() {
+        HunyuanEndpointSelector selector = newSelector();
+        selector.probeAll();
+        fast.stop(0);
+        selector.probeAll();
+        assertEquals("fast", selector.select().getName());
+        selector.probeAll();
+        assertEquals("slow", selector.select().getName());
+    }
+
+    @Test
+    public void networkErrorsFromCallsTriggerFailover() {
+        HunyuanEndpointSelector selector = newSelector();
+        selector.probeAll();
+        HunyuanEndpointSelector.Endpoint endpoint = selector.select();
+        selector.recordFailure(endpoint, "AuthFailure");
+        selector.recordFailure(endpoint, "AuthFailure");
+        assertEquals("fast", selector.select().getName());
+        selector.recordFailure(endpoint, "ClientNetworkError");
+        selector.recordFailure(endpoint, "ClientNetworkError");
+        assertEquals("slow", selector.select().getName());
+    }
+
+    private HunyuanEndpointSelector newSelector() {
+        HunyuanEndpointSelector selector = new HunyuanEndpointSelector(config, new SimpleMeterRegistry());
+        selector.init();
+        return selector;
+    }
+
+    private static HttpServer stub(long delayMillis) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.start();
+        return server;
+    }
+
+    private static HunyuanConfig.Endpoint endpoint(String name, HttpServer server) {
+        HunyuanConfig.Endpoint endpoint = new HunyuanConfig.Endpoint();
+        endpoint.setName(name);
+        endpoint.setHost("127.0.0.1");
+        endpoint.setProbeUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/");
+        return endpoint;
+    }
+}
@@ -0,0 +1,163 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.HunyuanConfig;
+import io.chenyiax.configuration.TencentCloudConfig;
+import io.chenyiax.exception.DeadlineExceededException;
+import io.chenyiax.utils.Deadline;
+import io.chenyiax.utils.DeadlineContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 测试 HunyuanHedger 的对冲延迟、预算、胜出统计，以及并发许可的归还时机。
+ * 与 HunyuanService 一样，调用方在发出请求前先获得许可，许可由执行请求的线程归还。
+ */
+public class HunyuanHedgerTest {
+
+    private final HunyuanConfig config = new HunyuanConfig();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private HunyuanCallExecutor callExecutor;
+    private HunyuanHedger hedger;
+
+    @BeforeEach
+    public void setUp() {
+        config.setMaxConcurrency(4);
+        config.getHedge().setEnabled(true);
+        config.getHedge().setDefaultDelay(20);
+        config.getHedge().setBudgetRatio(1.0);
+        callExecutor = new HunyuanCallExecutor(config, new TencentCloudConfig());
+        callExecutor.init();
+        hedger = new HunyuanHedger(config, meterRegistry, callExecutor);
+        hedger.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        DeadlineContext.clear();
+        callExecutor.shutdown();
+    }
+
+    @Test
+    public void fasterHedgeWinsWhileTheLoserKeepsItsPermit() throws Exception {
+        assertEquals("hedge", call(this::slowCall, this::fastHedge));
+
+        assertEquals(1, count("hunyuan.hedge.issued"));
+        assertEquals(1, count("hunyuan.hedge.wins"));
+        // 对冲请求结束后归还许可，落后的首个请求仍在进行，继续占用许可
+        awaitInFlight(1);
+        release.countDown();
+        awaitInFlight(0);
+    }
+
+    @Test
+    public void fastPrimaryIsNotHedged() throws Exception {
+        assertEquals("primary", call(() -> "primary", this::fastHedge));
+
+        assertEquals(0, count("hunyuan.hedge.issued"));
+        awaitInFlight(0);
+    }
+
+    @Test
+    public void budgetLimitsHedgesToTheConfiguredRatio() throws Exception {
+        config.getHedge().setBudgetRatio(0.5);
+
+        // 第一个请求只积累了半份预算，不能对冲
+        assertEquals("primary", call(this::primaryAfter100ms, this::fastHedge));
+        assertEquals(0, count("hunyuan.hedge.issued"));
+        assertEquals("hedge", call(this::primaryAfter100ms, this::fastHedge));
+        assertEquals(1, count("hunyuan.hedge.issued"));
+        assertEquals(2, count("hunyuan.hedge.requests"));
+    }
+
+    @Test
+    public void hedgeThatCannotStartSpendsNoBudget() throws Exception {
+        config.getHedge().setBudgetRatio(0.6);
+
+        assertEquals("primary", call(this::primaryAfter100ms, this::fastHedge));
+        // 预算足够但拿不到许可或配额：不计入对冲次数，预算退回
+        assertEquals("primary", call(this::primaryAfter100ms, () -> null));
+        assertEquals(0, count("hunyuan.hedge.issued"));
+        assertEquals(1, count("hunyuan.hedge.skipped"));
+        // 若上一次消耗了预算，此时只剩 0.8，不能对冲
+        assertEquals("hedge", call(this::primaryAfter100ms, this::fastHedge));
+        assertEquals(1, count("hunyuan.hedge.issued"));
+    }
+
+    @Test
+    public void hedgeDelayFollowsRecentLatencyOnceThereAreEnoughSamples() throws Exception {
+        config.getHedge().setDefaultDelay(10000);
+        config.getHedge().setMinSamples(5);
+        config.getHedge().setMinDelay(1);
+        for (int i = 0; i < 5; i++) {
+            call(() -> "primary", this::fastHedge);
+        }
+
+        // 最近的调用都很快，p95 远小于默认延迟，慢请求很快就会被对冲
+        long start = System.nanoTime();
+        assertEquals("hedge", call(this::slowCall, this::fastHedge));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+    }
+
+    @Test
+    public void permitStaysHeldUntilAnAbandonedCallReturns() throws Exception {
+        assertTrue(callExecutor.acquire(0));
+        DeadlineContext.set(Deadline.after(50));
+
+        assertThrows(DeadlineExceededException.class, () -> hedger.callWithinDeadline(this::slowCall));
+        // 调用方已经返回，但 SDK 调用仍在进行，许可不能提前归还
+        assertEquals(1, callExecutor.inFlight());
+
+        release.countDown();
+        awaitInFlight(0);
+    }
+
+    /**
+     * 与 HunyuanService 相同的调用方式：先为首个请求获得许可，对冲请求在准备时尝试获得许可。
+     */
+    private String call(Callable<String> primary, Supplier<Callable<String>> hedge) throws InterruptedException {
+        assertTrue(callExecutor.acquire(1000));
+        return hedger.call(primary, hedge);
+    }
+
+    private Callable<String> fastHedge() {
+        if (!callExecutor.tryAcquire()) {
+            return null;
+        }
+        return () -> "hedge";
+    }
+
+    private String slowCall() throws InterruptedException {
+        release.await();
+        return "slow";
+    }
+
+    private String primaryAfter100ms() throws InterruptedException {
+        Thread.sleep(100);
+        return "primary";
+    }
+
+    private double count(String name) {
+        return meterRegistry.counter(name).count();
+    }
+
+    private void awaitInFlight(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (callExecutor.inFlight() != expected && System.nanoTime() - deadline < 0) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, callExecutor.inFlight());
+    }
+}
@@ -0,0 +1,87 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.HunyuanConfig;
+import io.chenyiax.utils.TokenBucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 使用进程内的 QuotaStore 替代 Redis 测试 HunyuanRateLimiter。
+ */
+public class HunyuanRateLimiterTest {
+
+    private HunyuanConfig config;
+    private InMemoryQuotaStore store;
+
+    @BeforeEach
+    public void setUp() {
+        config = new HunyuanConfig();
+        config.getRateLimit().setPermitsPerSecond(0.001);
+        config.getRateLimit().setBurst(10);
+        config.getRateLimit().setPrefetch(5);
+        config.getRateLimit().setPrefetchTtl(60000);
+        store = new InMemoryQuotaStore();
+    }
+
+    @Test
+    public void prefetchedPermitsAvoidRoundTrips() {
+        HunyuanRateLimiter limiter = new HunyuanRateLimiter(config, store, new SimpleMeterRegistry());
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.acquire(0));
+        }
+        assertEquals(2, store.calls.get());
+    }
+
+    @Test
+    public void nodesShareOneBucket() {
+        HunyuanRateLimiter first = new HunyuanRateLimiter(config, store, new SimpleMeterRegistry());
+        HunyuanRateLimiter second = new HunyuanRateLimiter(config, store, new SimpleMeterRegistry());
+        int granted = 0;
+        for (int i = 0; i < 10; i++) {
+            granted += first.acquire(0) ? 1 : 0;
+            granted += second.acquire(0) ? 1 : 0;
+        }
+        assertEquals(10, granted);
+    }
+
+    @Test
+    public void fallsBackToLocalLimitWhenStoreIsDown() {
+        config.getRateLimit().setFallbackPermitsPerSecond(1);
+        store.down = true;
+        HunyuanRateLimiter limiter = new HunyuanRateLimiter(config, store, new SimpleMeterRegistry());
+
+        assertTrue(limiter.acquire(0));
+        assertFalse(limiter.acquire(0));
+        // 失败后在 retryInterval 内不再访问存储
+        assertEquals(1, store.calls.get());
+    }
+
+    /**
+     * 与 redis/token-bucket.lua 语义一致的进程内实现。
+     */
+    private static class InMemoryQuotaStore implements QuotaStore {
+        private final Map<String, TokenBucket> buckets = new HashMap<>();
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile boolean down;
+
+        @Override
+        public synchronized Grant take(String key, double permitsPerSecond, long capacity, int requested) {
+            calls.incrementAndGet();
+            if (down) {
+                throw new IllegalStateException("store unavailable");
+            }
+            TokenBucket bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(permitsPerSecond, capacity));
+            int granted = bucket.take(requested);
+            return new Grant(granted, granted == 0 ? bucket.millisUntilAvailable() : 0);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.HunyuanConfig;
+import io.chenyiax.exception.HunYuanException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 测试 HunyuanRetryPolicy 的错误码分类、退避时间范围和重试次数。
+ */
+public class HunyuanRetryPolicyTest {
+
+    private HunyuanConfig config;
+    private HunyuanRetryPolicy policy;
+
+    @BeforeEach
+    public void setUp() {
+        config = new HunyuanConfig();
+        config.getRetry().setBaseDelay(1);
+        config.getRetry().setMaxDelay(5);
+        policy = new HunyuanRetryPolicy(config, new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void classifiesErrorCodesByPrefix() {
+        assertTrue(policy.isRetryable("RequestLimitExceeded.UserLimitExceeded"));
+        assertTrue(policy.isRetryable("FailedOperation.EngineServerError"));
+        assertTrue(policy.isRetryable("ClientNetworkError"));
+        assertFalse(policy.isRetryable("AuthFailure.SignatureExpire"));
+        assertFalse(policy.isRetryable("InvalidParameter"));
+        assertFalse(policy.isRetryable("FailedOperation.ContentSafety"));
+        assertFalse(policy.isRetryable(null));
+    }
+
+    @Test
+    public void nonRetryableCodesTakePrecedence() {
+        config.getRetry().setRetryableCodes(List.of("FailedOperation"));
+        config.getRetry().setNonRetryableCodes(List.of("FailedOperation.ContentSafety"));
+
+        assertTrue(policy.isRetryable("FailedOperation.EngineServerError"));
+        assertFalse(policy.isRetryable("FailedOperation.ContentSafety"));
+    }
+
+    @Test
+    public void delaysStayWithinDecorrelatedJitterBounds() {
+        HunyuanConfig.Retry retry = config.getRetry();
+        retry.setBaseDelay(200);
+        retry.setMaxDelay(3000);
+        for (long previous : new long[]{200, 500, 1500, 3000}) {
+            for (int i = 0; i < 1000; i++) {
+                long delay = policy.nextDelay(previous, retry);
+                assertTrue(delay >= 200, "delay below base: " + delay);
+                assertTrue(delay < Math.max(201, previous * 3), "delay above 3x previous: " + delay);
+                assertTrue(delay <= 3000, "delay above max: " + delay);
+            }
+        }
+    }
+
+    @Test
+    public void retriesTransientErrorsUpToMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        HunYuanException e = assertThrows(HunYuanException.class, () -> policy.execute(() -> {
+            throw new HunYuanException("attempt " + attempts.incrementAndGet(), "InternalError");
+        }));
+        assertEquals(3, attempts.get());
+        assertEquals("attempt 3", e.getMessage());
+
+        attempts.set(0);
+        assertEquals("ok", policy.execute(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new HunYuanException("busy", "RequestLimitExceeded");
+            }
+            return "ok";
+        }));
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    public void neverRetriesPermanentErrorsOrPastTheDeadline() {
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(HunYuanException.class, () -> policy.execute(() -> {
+            attempts.incrementAndGet();
+            throw new HunYuanException("denied", "AuthFailure.SecretIdNotFound");
+        }));
+        assertEquals(1, attempts.get());
+
+        attempts.set(0);
+        config.getRetry().setDeadline(0);
+        assertThrows(HunYuanException.class, () -> policy.execute(() -> {
+            attempts.incrementAndGet();
+            throw new HunYuanException("busy", "RequestLimitExceeded");
+        }));
+        assertEquals(1, attempts.get());
+    }
+}
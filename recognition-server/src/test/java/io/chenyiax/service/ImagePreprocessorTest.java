@@ -0,0 +1,223 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.ImageConfig;
+import io.chenyiax.exception.ImageQualityException;
+import io.chenyiax.utils.ImageUtils;
+import io.chenyiax.utils.Worksheets;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.spi.IIORegistry;
+import javax.imageio.spi.ImageReaderSpi;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 用合成练字照片测试质量检测阈值和按墨迹投影裁剪。
+ */
+public class ImagePreprocessorTest {
+
+    private final ImageConfig imageConfig = new ImageConfig();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ImagePreprocessor preprocessor = new ImagePreprocessor(imageConfig, meterRegistry);
+
+    @Test
+    public void sharpWorksheetPassesAndIsCroppedToTheInk() throws IOException {
+        // 2000 像素宽的照片会先按 3 倍下采样，再把墨迹区域换算回原图坐标
+        Rectangle ink = new Rectangle(600, 500, 800, 600);
+        String result = preprocessor.preprocess(png(Worksheets.sheet(2000, 1600, ink)));
+
+        BufferedImage cropped = decode(result);
+        // 墨迹区域加上每边 5% 的边距，笔画宽度另外撑出少量像素
+        assertEquals(ink.width * 1.1, cropped.getWidth(), 40);
+        assertEquals(ink.height * 1.1, cropped.getHeight(), 40);
+        assertEquals(1, meterRegistry.counter("recognition.image.cropped").count());
+    }
+
+    @Test
+    public void strayMarksDoNotWidenTheCrop() throws IOException {
+        BufferedImage sheet = Worksheets.sheet(1000, 800, new Rectangle(300, 200, 400, 400));
+        // 纸张角落的零星墨点被 trim 去掉
+        for (int y = 10; y < 13; y++) {
+            for (int x = 10; x < 13; x++) {
+                sheet.setRGB(x, y, 0x141414);
+            }
+        }
+
+        BufferedImage cropped = decode(preprocessor.preprocess(png(sheet)));
+        assertTrue(cropped.getWidth() < 500, "width " + cropped.getWidth());
+    }
+
+    @Test
+    public void inkFillingThePhotoIsNotCropped() {
+        String img = png(Worksheets.sheet(600, 600, new Rectangle(20, 20, 560, 560)));
+        assertSame(img, preprocessor.preprocess(img));
+    }
+
+    @Test
+    public void rotatedPhotosAreNotReencoded() {
+        byte[] jpeg = Worksheets.jpeg(Worksheets.sheet(1000, 800, new Rectangle(300, 200, 400, 400)));
+        String rotated = Worksheets.base64(Worksheets.withExif(jpeg, Worksheets.orientationTiff(8, 6)));
+        assertSame(rotated, preprocessor.preprocess(rotated));
+    }
+
+    @Test
+    public void malformedExifDoesNotFailTheRequest() {
+        byte[] jpeg = Worksheets.jpeg(Worksheets.sheet(1000, 800, new Rectangle(300, 200, 400, 400)));
+        String img = Worksheets.base64(Worksheets.withExif(jpeg, Worksheets.orientationTiff(0xFFFFFFF0, 6)));
+        // 畸形的 Exif 不能变成 500；方向无法确定时按正向处理，照片照常裁剪
+        assertTrue(preprocessor.preprocess(img).length() < img.length());
+    }
+
+    @Test
+    public void blankPaperIsRejected() {
+        ImageQualityException e = assertThrows(ImageQualityException.class,
+                () -> preprocessor.preprocess(png(Worksheets.sheet(800, 600, null))));
+        assertTrue(e.getMessage().startsWith("未检测到书写内容"));
+        assertEquals(1, meterRegistry.counter("recognition.image.rejected", "reason", "blank").count());
+    }
+
+    @Test
+    public void darkPhotoIsRejected() {
+        BufferedImage dark = Worksheets.darken(Worksheets.sheet(800, 600, new Rectangle(200, 150, 400, 300)), 0.2);
+        ImageQualityException e = assertThrows(ImageQualityException.class, () -> preprocessor.preprocess(png(dark)));
+        assertTrue(e.getMessage().startsWith("照片过暗"));
+    }
+
+    @Test
+    public void blurredPhotoIsRejected() {
+        BufferedImage sharp = Worksheets.sheet(800, 600, new Rectangle(200, 150, 400, 300));
+        String img = png(sharp);
+        imageConfig.getCrop().setEnabled(false);
+        assertSame(img, preprocessor.preprocess(img));
+
+        ImageQualityException e = assertThrows(ImageQualityException.class,
+                () -> preprocessor.preprocess(png(Worksheets.blur(sharp, 6))));
+        assertTrue(e.getMessage().startsWith("照片模糊"));
+    }
+
+    @Test
+    public void undecodableDataIsRejected() {
+        assertThrows(ImageQualityException.class, () -> preprocessor.preprocess("not base64!"));
+        assertThrows(ImageQualityException.class, () -> preprocessor.preprocess(
+                Worksheets.base64("not an image".getBytes())));
+    }
+
+    @Test
+    public void decoderCrashIsRejected() {
+        // 模拟解码器在损坏数据上抛出非受检异常
+        CrashingReaderSpi spi = new CrashingReaderSpi();
+        IIORegistry.getDefaultInstance().registerServiceProvider(spi, ImageReaderSpi.class);
+        try {
+            ImageQualityException e = assertThrows(ImageQualityException.class,
+                    () -> preprocessor.preprocess(Worksheets.base64(CrashingReaderSpi.MAGIC)));
+            assertTrue(e.getMessage().startsWith("无法识别的图片格式"));
+        } finally {
+            IIORegistry.getDefaultInstance().deregisterServiceProvider(spi, ImageReaderSpi.class);
+        }
+    }
+
+    @Test
+    public void urlsAreLeftToTheModel() {
+        assertEquals("https://example.com/a.jpg", preprocessor.preprocess("https://example.com/a.jpg"));
+    }
+
+    private static String png(BufferedImage image) {
+        return Worksheets.base64(Worksheets.png(image));
+    }
+
+    private static BufferedImage decode(String img) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(ImageUtils.decodeBase64(img)));
+    }
+
+    /**
+     * 识别以 MAGIC 开头的数据，读取像素时抛出非受检异常的解码器。
+     */
+    private static class CrashingReaderSpi extends ImageReaderSpi {
+        private static final byte[] MAGIC = "CRASHIMG".getBytes(StandardCharsets.US_ASCII);
+
+        CrashingReaderSpi() {
+            super("test", "1", new String[]{"crash"}, null, null, CrashingReaderSpi.class.getName(), STANDARD_INPUT_TYPE,
+                    null, false, null, null, null, null, false, null, null, null, null);
+        }
+
+        @Override
+        public boolean canDecodeInput(Object source) throws IOException {
+            ImageInputStream input = (ImageInputStream) source;
+            byte[] header = new byte[MAGIC.length];
+            input.mark();
+            try {
+                input.readFully(header);
+            } catch (EOFException e) {
+                return false;
+            } finally {
+                input.reset();
+            }
+            return Arrays.equals(header, MAGIC);
+        }
+
+        @Override
+        public ImageReader createReaderInstance(Object extension) {
+            return new ImageReader(this) {
+                @Override
+                public int getNumImages(boolean allowSearch) {
+                    return 1;
+                }
+
+                @Override
+                public int getWidth(int imageIndex) {
+                    return 100;
+                }
+
+                @Override
+                public int getHeight(int imageIndex) {
+                    return 100;
+                }
+
+                @Override
+                public Iterator<ImageTypeSpecifier> getImageTypes(int imageIndex) {
+                    return Collections.emptyIterator();
+                }
+
+                @Override
+                public IIOMetadata getStreamMetadata() {
+                    return null;
+                }
+
+                @Override
+                public IIOMetadata getImageMetadata(int imageIndex) {
+                    return null;
+                }
+
+                @Override
+                public BufferedImage read(int imageIndex, ImageReadParam param) {
+                    throw new ArrayIndexOutOfBoundsException("corrupt data");
+                }
+            };
+        }
+
+        @Override
+        public String getDescription(Locale locale) {
+            return "crashing test reader";
+        }
+    }
+}
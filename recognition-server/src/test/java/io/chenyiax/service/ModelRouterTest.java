@@ -0,0 +1,111 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.HunyuanConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 测试 ModelRouter 的得分选择、摘除与恢复，以及对未调用过模型的探索。
+ */
+public class ModelRouterTest {
+
+    private final HunyuanConfig config = new HunyuanConfig();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ModelRouter router;
+
+    @BeforeEach
+    public void setUp() {
+        config.setModels(List.of(model("a", 1.0), model("b", 1.0)));
+        config.getRouting().setExploreRatio(0);
+        config.getRouting().setFailureThreshold(3);
+        config.getRouting().setCooldown(100);
+        router = new ModelRouter(config, meterRegistry);
+        router.init();
+    }
+
+    @Test
+    public void fasterModelIsChosenAfterItsFirstSample() {
+        assertEquals("a", select());
+
+        // 第一个样本直接取代初始估计，一次快速调用就足以让路由切换
+        router.recordSuccess("b", 200);
+        assertEquals("b", select());
+
+        // 延迟按指数加权移动平均变化，b 持续变慢后 a 重新胜出
+        router.recordSuccess("a", 1000);
+        for (int i = 0; i < 10; i++) {
+            router.recordSuccess("b", 5000);
+        }
+        assertEquals("a", select());
+    }
+
+    @Test
+    public void costWeightMakesExpensiveModelsLessAttractive() {
+        config.setModels(List.of(model("a", 1.0), model("b", 10.0)));
+        router = new ModelRouter(config, meterRegistry);
+        router.init();
+
+        router.recordSuccess("a", 1000);
+        router.recordSuccess("b", 500);
+        assertEquals("a", select());
+    }
+
+    @Test
+    public void modelIsSidelinedAfterConsecutiveFailuresAndRecoversAfterCooldown() throws InterruptedException {
+        router.recordSuccess("a", 100);
+        router.recordSuccess("b", 10000);
+        for (int i = 0; i < 3; i++) {
+            router.recordFailure("a");
+        }
+        assertEquals("b", select());
+        // 只剩被摘除的模型时仍然返回它，保证请求总能发出
+        assertEquals("a", router.select(Set.of("b")).getName());
+
+        Thread.sleep(150);
+        assertEquals("a", select());
+    }
+
+    @Test
+    public void untriedModelIsExplored() {
+        router.recordSuccess("a", 100);
+        assertEquals("a", select());
+
+        config.getRouting().setExploreRatio(1.0);
+        assertEquals("b", select());
+        assertEquals(1, meterRegistry.counter("hunyuan.model.explorations").count());
+    }
+
+    @Test
+    public void explorationPicksTheModelWithTheOldestSample() throws InterruptedException {
+        config.setModels(List.of(model("a", 1.0), model("b", 1.0), model("c", 1.0)));
+        router = new ModelRouter(config, meterRegistry);
+        router.init();
+        router.recordSuccess("b", 5000);
+        Thread.sleep(5);
+        router.recordSuccess("c", 5000);
+        Thread.sleep(5);
+        router.recordSuccess("a", 100);
+
+        config.getRouting().setExploreRatio(1.0);
+        assertEquals("b", select());
+        // 被排除的模型不参与探索
+        assertEquals("c", router.select(Set.of("b")).getName());
+    }
+
+    private String select() {
+        return router.select(Set.of()).getName();
+    }
+
+    private static HunyuanConfig.Model model(String name, double costWeight) {
+        HunyuanConfig.Model model = new HunyuanConfig.Model();
+        model.setName(name);
+        model.setCostWeight(costWeight);
+        return model;
+    }
+}
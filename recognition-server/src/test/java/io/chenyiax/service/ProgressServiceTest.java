@@ -0,0 +1,80 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.ProgressConfig;
+import io.chenyiax.entity.DimensionScore;
+import io.chenyiax.entity.EvaluationDimension;
+import io.chenyiax.entity.ProgressRollup;
+import io.chenyiax.entity.ProgressStats;
+import io.chenyiax.entity.StructuredEvaluation;
+import io.chenyiax.mapper.ProgressMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 使用内存中的 ProgressMapper 替代数据库测试进度汇总的累加和查询，增量写入见 DeltaFlusherTest。
+ */
+public class ProgressServiceTest {
+
+    private final InMemoryProgressMapper mapper = new InMemoryProgressMapper();
+    private final ProgressService service = new ProgressService(new ProgressConfig(), mapper, Clock.systemDefaultZone());
+
+    @Test
+    public void foldsScoresIntoDailyStudentRollups() {
+        service.accept(1, evaluation(80, 70, 90));
+        service.flush();
+        service.accept(1, evaluation(100, 60, 95));
+        service.accept(2, evaluation(40, 40, 40));
+        service.flush();
+
+        List<ProgressStats> student = service.query(ProgressService.STUDENT, "1", 7);
+        assertEquals(List.of("overall", "brushwork", "structure", "composition"),
+                student.stream().map(ProgressStats::getDimension).toList());
+        assertEquals(2, student.get(0).getCount());
+        assertEquals(82.5, student.get(0).getMean());
+
+        // 两次刷新的增量累加到同一行，分数段直方图按维度统计
+        ProgressStats brushwork = student.get(1);
+        assertEquals(90.0, brushwork.getMean());
+        assertArrayEquals(new long[]{0, 0, 0, 0, 0, 0, 0, 0, 1, 1}, brushwork.getHistogram());
+        assertEquals(40.0, service.query(ProgressService.STUDENT, "2", 7).get(0).getMean());
+    }
+
+    private static StructuredEvaluation evaluation(int brushwork, int structure, int composition) {
+        List<DimensionScore> scores = List.of(
+                new DimensionScore(EvaluationDimension.BRUSHWORK, "", brushwork, ""),
+                new DimensionScore(EvaluationDimension.STRUCTURE, "", structure, ""),
+                new DimensionScore(EvaluationDimension.COMPOSITION, "", composition, ""));
+        int overall = Math.round((brushwork + structure + composition) / 3.0f);
+        return new StructuredEvaluation(scores, overall, "", "m");
+    }
+
+    private static class InMemoryProgressMapper implements ProgressMapper {
+        private final Map<List<Object>, ProgressRollup> rows = new HashMap<>();
+
+        @Override
+        public int upsertBatch(List<ProgressRollup> rollups) {
+            for (ProgressRollup r : rollups) {
+                rows.merge(List.of(r.getScope(), r.getScopeId(), r.getDay(), r.getDimension(), r.getBucket()), r,
+                        (a, b) -> new ProgressRollup(a.getScope(), a.getScopeId(), a.getDay(), a.getDimension(),
+                                a.getBucket(), a.getCount() + b.getCount(), a.getScoreSum() + b.getScoreSum()));
+            }
+            return rollups.size();
+        }
+
+        @Override
+        public List<ProgressRollup> listRange(String scope, String scopeId, LocalDate from, LocalDate to) {
+            return rows.values().stream()
+                    .filter(r -> r.getScope().equals(scope) && r.getScopeId().equals(scopeId))
+                    .filter(r -> !r.getDay().isBefore(from) && !r.getDay().isAfter(to))
+                    .toList();
+        }
+    }
+}
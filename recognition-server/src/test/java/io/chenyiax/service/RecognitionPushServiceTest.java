@@ -0,0 +1,141 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.DeadlineConfig;
+import io.chenyiax.entity.ImgRequest;
+import io.chenyiax.entity.RecognitionEvent;
+import io.chenyiax.entity.SocketRecognitionRequest;
+import io.chenyiax.entity.User;
+import io.chenyiax.entity.WeChatUserDetails;
+import io.chenyiax.utils.DeadlineContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 测试 WebSocket 识别请求的截止时间和会话断开后的取消。
+ */
+public class RecognitionPushServiceTest {
+
+    private final BlockingQueue<RecognitionEvent> events = new LinkedBlockingQueue<>();
+    private final DeadlineConfig deadlineConfig = new DeadlineConfig();
+    private final WeChatUserDetails user = new WeChatUserDetails(new User());
+    private ThreadPoolTaskExecutor executor;
+    private RecognitionPushService service;
+
+    @BeforeEach
+    public void setUp() {
+        user.getUser().setOpenid("openid");
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setTaskDecorator(DeadlineContext::wrap);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(2);
+        executor.initialize();
+
+        service = new RecognitionPushService();
+        service.recognitionService = new RecognitionService() {
+            @Override
+            public String recognition(ImgRequest request, Integer userId) {
+                // 与混元调用一样，在截止时间内等待，到期或被取消时放弃
+                while (!"fast".equals(request.getImg())) {
+                    DeadlineContext.check();
+                    sleep();
+                }
+                return "done";
+            }
+        };
+        service.messagingTemplate = new SimpMessagingTemplate((message, timeout) -> {
+            events.add((RecognitionEvent) message.getPayload());
+            return true;
+        });
+        service.recognitionExecutor = executor;
+        service.shutdownDrainer = new ShutdownDrainer();
+        service.deadlineConfig = deadlineConfig;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        disconnect("s2");
+        executor.shutdown();
+    }
+
+    @Test
+    public void completedRequestsArePushed() throws InterruptedException {
+        service.submit(user, "s1", request("1", "fast"));
+
+        assertEquals(List.of(RecognitionEvent.Status.ACCEPTED, RecognitionEvent.Status.PROCESSING,
+                RecognitionEvent.Status.DONE), List.of(next().getStatus(), next().getStatus(), next().getStatus()));
+    }
+
+    @Test
+    public void socketRequestsHaveADeadline() throws InterruptedException {
+        deadlineConfig.setSocketTimeout(100);
+        service.submit(user, "s1", request("1", "slow"));
+
+        next();
+        next();
+        RecognitionEvent failed = next();
+        assertEquals(RecognitionEvent.Status.FAILED, failed.getStatus());
+        assertEquals("请求处理超时，请稍后重试", failed.getMessage());
+    }
+
+    @Test
+    public void disconnectCancelsTheSessionsRequests() throws InterruptedException {
+        service.submit(user, "s1", request("1", "slow"));
+        service.submit(user, "s2", request("2", "slow"));
+        for (int i = 0; i < 4; i++) {
+            next();
+        }
+
+        long start = System.nanoTime();
+        disconnect("s1");
+
+        RecognitionEvent failed = next();
+        assertEquals("1", failed.getRequestId());
+        assertEquals(RecognitionEvent.Status.FAILED, failed.getStatus());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        // 其他会话的请求不受影响
+        assertNull(events.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    private void disconnect(String sessionId) {
+        service.onDisconnect(new SessionDisconnectEvent(this,
+                MessageBuilder.withPayload(new byte[0]).build(), sessionId, CloseStatus.GOING_AWAY));
+    }
+
+    private RecognitionEvent next() throws InterruptedException {
+        RecognitionEvent event = events.poll(2, TimeUnit.SECONDS);
+        assertNotNull(event, "no event pushed");
+        return event;
+    }
+
+    private static SocketRecognitionRequest request(String requestId, String img) {
+        SocketRecognitionRequest request = new SocketRecognitionRequest();
+        request.setRequestId(requestId);
+        request.setImg(img);
+        return request;
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package io.chenyiax.service;
+
+import io.chenyiax.entity.RecognitionJob;
+import io.chenyiax.entity.RecognitionJobResult;
+import io.chenyiax.exception.BusinessException;
+import io.chenyiax.exception.DeadlineExceededException;
+import io.chenyiax.exception.ImageQualityException;
+import io.chenyiax.utils.Deadline;
+import io.chenyiax.utils.DeadlineContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 使用进程内的任务队列替代 RabbitMQ，测试 API 节点与 worker 之间的请求-响应、错误回复和消息过期。
+ */
+public class RecognitionQueueTest {
+
+    private final StubRecognitionService recognitionService = new StubRecognitionService();
+    private final InMemoryJobTransport transport =
+            new InMemoryJobTransport(new RecognitionWorker(recognitionService), 500);
+    private final RecognitionQueueClient client = new RecognitionQueueClient(transport);
+
+    @AfterEach
+    public void tearDown() {
+        transport.stop();
+        DeadlineContext.clear();
+    }
+
+    @Test
+    public void workerRepliesWithResultAndInheritsDeadline() {
+        RecognitionJob job = job(Deadline.after(5000).toEpochMilli());
+
+        assertEquals("evaluated img", client.submit(job));
+        Deadline seen = recognitionService.deadline.get();
+        assertNotNull(seen);
+        assertTrue(seen.remainingMillis() > 3000);
+    }
+
+    @Test
+    public void workerFailuresKeepTheirBusinessCode() {
+        recognitionService.failure = new ImageQualityException("照片太模糊");
+
+        BusinessException e = assertThrows(BusinessException.class, () -> client.submit(job(null)));
+        assertEquals(new ImageQualityException("").getCode(), e.getCode());
+        assertEquals("照片太模糊", e.getMessage());
+    }
+
+    @Test
+    public void expiredJobsAreDroppedBeforeReachingTheWorker() throws InterruptedException {
+        transport.pause();
+        Deadline deadline = Deadline.after(50);
+        CompletableFuture<Throwable> failure = CompletableFuture.supplyAsync(() -> {
+            DeadlineContext.set(deadline);
+            try {
+                client.submit(job(deadline.toEpochMilli()));
+                return null;
+            } catch (RuntimeException e) {
+                return e;
+            } finally {
+                DeadlineContext.clear();
+            }
+        });
+        Thread.sleep(100);
+        transport.resume();
+
+        assertTrue(failure.join() instanceof DeadlineExceededException);
+        assertEquals(0, recognitionService.calls.get());
+        assertEquals(1, transport.expired.get());
+    }
+
+    private static RecognitionJob job(Long deadline) {
+        RecognitionJob job = new RecognitionJob();
+        job.setUserId(1);
+        job.setImg("img");
+        job.setDeadline(deadline);
+        return job;
+    }
+
+    private static class StubRecognitionService extends RecognitionService {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicReference<Deadline> deadline = new AtomicReference<>();
+        private volatile RuntimeException failure;
+
+        @Override
+        public String evaluate(RecognitionJob job) {
+            calls.incrementAndGet();
+            deadline.set(DeadlineContext.current());
+            if (failure != null) {
+                throw failure;
+            }
+            return "evaluated " + job.getImg();
+        }
+    }
+
+    /**
+     * 与 RabbitMQ 语义一致的进程内任务队列：单个消费线程按顺序把任务交给 worker，
+     * 消费时已过期的消息直接丢弃，发布方在 replyTimeout 内没有收到回复时得到 null。
+     */
+    private static class InMemoryJobTransport implements RecognitionJobTransport {
+        private final LinkedBlockingQueue<Envelope> queue = new LinkedBlockingQueue<>();
+        private final AtomicInteger expired = new AtomicInteger();
+        private final long replyTimeout;
+        private final Thread consumer;
+        private volatile CountDownLatch paused = new CountDownLatch(0);
+
+        InMemoryJobTransport(RecognitionWorker worker, long replyTimeout) {
+            this.replyTimeout = replyTimeout;
+            this.consumer = new Thread(() -> {
+                try {
+                    while (true) {
+                        Envelope envelope = queue.take();
+                        paused.await();
+                        if (envelope.expiresAt() != 0 && System.nanoTime() - envelope.expiresAt() >= 0) {
+                            expired.incrementAndGet();
+                            continue;
+                        }
+                        envelope.reply().complete(worker.handle(envelope.job()));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "in-memory-worker");
+            consumer.setDaemon(true);
+            consumer.start();
+        }
+
+        @Override
+        public RecognitionJobResult sendAndReceive(RecognitionJob job, Long ttlMillis) {
+            long expiresAt = ttlMillis == null ? 0 : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+            Envelope envelope = new Envelope(job, expiresAt, new CompletableFuture<>());
+            queue.add(envelope);
+            try {
+                return envelope.reply().get(replyTimeout, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                return null;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        void pause() {
+            paused = new CountDownLatch(1);
+        }
+
+        void resume() {
+            paused.countDown();
+        }
+
+        void stop() {
+            consumer.interrupt();
+        }
+
+        private record Envelope(RecognitionJob job, long expiresAt, CompletableFuture<RecognitionJobResult> reply) {
+        }
+    }
+}
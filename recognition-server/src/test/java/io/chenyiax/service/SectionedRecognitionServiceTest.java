@@ -0,0 +1,231 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.SectionConfig;
+import io.chenyiax.entity.ChatResult;
+import io.chenyiax.entity.EvaluationDimension;
+import io.chenyiax.entity.EvaluationSection;
+import io.chenyiax.entity.ImgRequest;
+import io.chenyiax.entity.SectionedEvaluation;
+import io.chenyiax.exception.BusinessException;
+import io.chenyiax.exception.DeadlineExceededException;
+import io.chenyiax.exception.HunYuanException;
+import io.chenyiax.utils.Deadline;
+import io.chenyiax.utils.DeadlineContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 测试分维度评测的部分结果、维度截止时间、请求超时时的错误，以及超时后不再开始排队中的维度。
+ */
+public class SectionedRecognitionServiceTest {
+
+    private final StubHunyuanService hunyuanService = new StubHunyuanService();
+    private final StubRecognitionService recognitionService = new StubRecognitionService();
+    private final SectionConfig sectionConfig = new SectionConfig();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ThreadPoolTaskExecutor executor;
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        DeadlineContext.clear();
+        executor.shutdown();
+    }
+
+    @Test
+    public void failedAndSlowSectionsDoNotHideTheOthers() {
+        SectionedRecognitionService service = service(4, 0);
+        sectionConfig.setTimeout(200);
+        CountDownLatch slowGaveUp = new CountDownLatch(1);
+        hunyuanService.behaviours.put(EvaluationDimension.STRUCTURE, () -> {
+            throw new HunYuanException("Hunyuan call failed");
+        });
+        hunyuanService.behaviours.put(EvaluationDimension.COMPOSITION, () -> {
+            // 与 HunyuanService 一样在等待期间检查截止时间，维度截止时间到期后自行放弃
+            try {
+                while (true) {
+                    DeadlineContext.check();
+                    Thread.sleep(5);
+                }
+            } finally {
+                slowGaveUp.countDown();
+            }
+        });
+
+        SectionedEvaluation evaluation = service.recognition(request(), null);
+
+        assertFalse(evaluation.isComplete());
+        assertEquals(List.of(EvaluationSection.Status.DONE, EvaluationSection.Status.FAILED,
+                        EvaluationSection.Status.TIMEOUT, EvaluationSection.Status.DONE),
+                evaluation.getSections().stream().map(EvaluationSection::getStatus).toList());
+        assertEquals("Hunyuan call failed", evaluation.getSections().get(1).getContent());
+        assertTrue(recognitionService.recorded.contains("笔法分析：BRUSHWORK"));
+        assertFalse(recognitionService.recorded.contains("结构分析"));
+        assertTrue(await(slowGaveUp));
+    }
+
+    @Test
+    public void sectionsAreBoundByTheRequestDeadline() {
+        SectionedRecognitionService service = service(4, 0);
+        sectionConfig.setTimeout(10000);
+        hunyuanService.behaviours.put(EvaluationDimension.SUGGESTION, () -> {
+            release.await();
+            return null;
+        });
+        DeadlineContext.set(Deadline.after(200));
+
+        long start = System.nanoTime();
+        SectionedEvaluation evaluation = service.recognition(request(), null);
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+        assertEquals(EvaluationSection.Status.TIMEOUT, evaluation.getSections().get(3).getStatus());
+        assertEquals(EvaluationSection.Status.DONE, evaluation.getSections().get(0).getStatus());
+    }
+
+    @Test
+    public void requestDeadlineIsReportedWhenEverySectionTimesOut() {
+        SectionedRecognitionService service = service(4, 0);
+        sectionConfig.setTimeout(10000);
+        for (EvaluationDimension dimension : EvaluationDimension.values()) {
+            hunyuanService.behaviours.put(dimension, () -> {
+                release.await();
+                return null;
+            });
+        }
+        DeadlineContext.set(Deadline.after(100));
+
+        assertThrows(DeadlineExceededException.class, () -> service.recognition(request(), null));
+    }
+
+    @Test
+    public void queuedSectionsDoNotStartAfterTheDeadline() throws InterruptedException {
+        // 只有一个工作线程：第一个维度阻塞在无法中断的调用上，其余维度在队列中等待
+        SectionedRecognitionService service = service(1, 4);
+        sectionConfig.setTimeout(100);
+        hunyuanService.behaviours.put(EvaluationDimension.BRUSHWORK, () -> {
+            release.await();
+            return null;
+        });
+
+        BusinessException e = assertThrows(BusinessException.class, () -> service.recognition(request(), null));
+        assertEquals(1001, e.getCode());
+
+        release.countDown();
+        Thread.sleep(100);
+        assertEquals(1, hunyuanService.calls.get());
+    }
+
+    @Test
+    public void rejectedSectionsFail() {
+        // 只有一个工作线程且没有队列，第一个维度占用线程期间提交的其余维度都被拒绝
+        SectionedRecognitionService service = service(1, 0);
+        hunyuanService.behaviours.put(EvaluationDimension.BRUSHWORK, () -> {
+            Thread.sleep(100);
+            return new ChatResult("BRUSHWORK", "hunyuan-vision");
+        });
+
+        SectionedEvaluation evaluation = service.recognition(request(), null);
+
+        assertEquals(EvaluationSection.Status.DONE, evaluation.getSections().get(0).getStatus());
+        assertEquals(EvaluationSection.Status.FAILED, evaluation.getSections().get(3).getStatus());
+        assertEquals("Server busy, please retry later", evaluation.getSections().get(3).getContent());
+    }
+
+    private SectionedRecognitionService service(int threads, int queueCapacity) {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setTaskDecorator(DeadlineContext::wrap);
+        executor.initialize();
+
+        SectionedRecognitionService service = new SectionedRecognitionService();
+        service.hunyuanService = hunyuanService;
+        service.recognitionService = recognitionService;
+        service.imagePreprocessor = new ImagePreprocessor(null, null) {
+            @Override
+            public String preprocess(String img) {
+                return img;
+            }
+        };
+        service.sectionConfig = sectionConfig;
+        service.tokenUsageService = new TokenUsageService(null, null, null, null) {
+            @Override
+            public void checkQuota(Integer userId) {
+            }
+
+            @Override
+            public void record(Integer userId, ChatResult result) {
+            }
+        };
+        service.recognitionExecutor = executor;
+        return service;
+    }
+
+    private static ImgRequest request() {
+        ImgRequest request = new ImgRequest();
+        request.setImg("img");
+        return request;
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private interface Behaviour {
+        ChatResult call() throws Exception;
+    }
+
+    private static class StubHunyuanService extends HunyuanService {
+        private final Map<EvaluationDimension, Behaviour> behaviours = new ConcurrentHashMap<>();
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public ChatResult chatForResult(String prompt, String imageData) {
+            calls.incrementAndGet();
+            for (EvaluationDimension dimension : EvaluationDimension.values()) {
+                if (prompt.contains(dimension.getTitle())) {
+                    Behaviour behaviour = behaviours.get(dimension);
+                    if (behaviour == null) {
+                        return new ChatResult(dimension.name(), "hunyuan-vision");
+                    }
+                    try {
+                        return behaviour.call();
+                    } catch (RuntimeException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }
+            throw new IllegalArgumentException(prompt);
+        }
+    }
+
+    private static class StubRecognitionService extends RecognitionService {
+        private volatile String recorded = "";
+
+        @Override
+        public void record(Integer userId, String imageHash, String model, String promptVersion, String result,
+                           long latencyMs) {
+            recorded = result;
+        }
+    }
+}
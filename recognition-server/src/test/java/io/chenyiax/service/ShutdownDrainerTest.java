@@ -0,0 +1,128 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.AdmissionConfig;
+import io.chenyiax.configuration.AdmissionConfig.Priority;
+import io.chenyiax.configuration.EvaluationConfig;
+import io.chenyiax.configuration.RabbitConfig;
+import io.chenyiax.configuration.ShutdownConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.availability.ApplicationAvailabilityBean;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Clock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 测试停机排空：开始排空后拒绝新请求，等待进行中的请求和混元调用结束，并且先于监听容器和 Web 服务器停止。
+ */
+public class ShutdownDrainerTest {
+
+    private final ShutdownConfig shutdownConfig = new ShutdownConfig();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger hunyuanCalls = new AtomicInteger();
+    private AdmissionController admissionController;
+    private ThreadPoolTaskExecutor executor;
+    private ShutdownDrainer drainer;
+
+    @BeforeEach
+    public void setUp() {
+        shutdownConfig.setPropagationDelay(0);
+        shutdownConfig.setDrainTimeout(2000);
+        admissionController = new AdmissionController(new AdmissionConfig(), meterRegistry, Clock.systemDefaultZone());
+        admissionController.init();
+        executor = new ThreadPoolTaskExecutor();
+        executor.initialize();
+
+        drainer = new ShutdownDrainer();
+        drainer.shutdownConfig = shutdownConfig;
+        drainer.hunyuanService = new HunyuanService() {
+            @Override
+            public int inFlight() {
+                return hunyuanCalls.get();
+            }
+        };
+        drainer.admissionController = admissionController;
+        drainer.evaluationWriter = new EvaluationWriter(null, new EvaluationConfig()) {
+            @Override
+            public int pending() {
+                return 0;
+            }
+        };
+        drainer.applicationAvailability = new ApplicationAvailabilityBean();
+        drainer.meterRegistry = meterRegistry;
+        drainer.recognitionExecutor = executor;
+        drainer.rabbitListenerEndpointRegistry =
+                new StaticListableBeanFactory().getBeanProvider(RabbitListenerEndpointRegistry.class);
+        drainer.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void stopRejectsNewRequestsAndWaitsForTheRunningOnes() throws Exception {
+        assertTrue(admissionController.tryAcquire(Priority.NORMAL));
+        hunyuanCalls.set(1);
+
+        CompletableFuture<Void> stop = CompletableFuture.runAsync(drainer::stop);
+        Thread.sleep(200);
+        assertTrue(drainer.isDraining());
+        assertTrue(admissionController.isDraining());
+        assertFalse(admissionController.tryAcquire(Priority.HIGH));
+        assertFalse(stop.isDone());
+
+        admissionController.release();
+        Thread.sleep(200);
+        assertFalse(stop.isDone());
+        hunyuanCalls.set(0);
+        stop.get(1, TimeUnit.SECONDS);
+        assertFalse(drainer.isRunning());
+    }
+
+    @Test
+    public void stopGivesUpAfterTheDrainTimeout() throws Exception {
+        shutdownConfig.setDrainTimeout(200);
+        hunyuanCalls.set(1);
+
+        long start = System.nanoTime();
+        drainer.stop();
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        assertFalse(drainer.isRunning());
+    }
+
+    @Test
+    public void drainerStopsBeforeListenerContainersAndTheWebServer() {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(new CachingConnectionFactory());
+        RabbitConfig.rabbitListenerPhase().postProcessBeforeInitialization(factory, "rabbitListenerContainerFactory");
+
+        SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+        endpoint.setId("recognition");
+        endpoint.setQueueNames("recognition.jobs");
+        endpoint.setMessageListener(message -> { });
+        RabbitListenerEndpointRegistry registry = new RabbitListenerEndpointRegistry();
+        registry.registerListenerContainer(endpoint, factory, false);
+
+        // 阶段越高越先停止
+        assertEquals(ShutdownDrainer.PHASE - 1, registry.getPhase());
+        assertTrue(drainer.getPhase() > registry.getPhase());
+        assertTrue(registry.getPhase() > WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE);
+    }
+}
@@ -0,0 +1,111 @@
+package io.chenyiax.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.chenyiax.configuration.ProgressConfig;
+import io.chenyiax.configuration.StructuredConfig;
+import io.chenyiax.entity.ChatResult;
+import io.chenyiax.entity.ImgRequest;
+import io.chenyiax.entity.StructuredEvaluation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 测试结构化评测的缓存命中不再调用模型，也不重复计入进度统计。
+ */
+public class StructuredRecognitionServiceTest {
+
+    private static final String OUTPUT = "{\"brushwork\":{\"score\":80,\"comment\":\"起笔有力\"},"
+            + "\"structure\":{\"score\":71,\"comment\":\"重心略偏\"},"
+            + "\"composition\":{\"score\":90,\"comment\":\"行气连贯\"},\"suggestion\":\"多练横画收笔\"}";
+
+    private final AtomicInteger modelCalls = new AtomicInteger();
+    private final AtomicInteger accepted = new AtomicInteger();
+    private final AtomicInteger recorded = new AtomicInteger();
+    private StructuredRecognitionService service;
+
+    @BeforeEach
+    public void setUp() {
+        service = new StructuredRecognitionService();
+        service.hunyuanService = new HunyuanService() {
+            @Override
+            public ChatResult chatForResult(String prompt, String imageData) {
+                modelCalls.incrementAndGet();
+                return new ChatResult(OUTPUT, "hunyuan-vision", 500, 80);
+            }
+        };
+        service.recognitionService = new RecognitionService() {
+            @Override
+            public void record(Integer userId, String imageHash, String model, String promptVersion, String result,
+                               long latencyMs) {
+                recorded.incrementAndGet();
+            }
+        };
+        service.imagePreprocessor = new ImagePreprocessor(null, null) {
+            @Override
+            public String preprocess(String img) {
+                return img;
+            }
+        };
+        service.evaluationCache = new EvaluationCache() {
+            private final Map<String, ChatResult> entries = new HashMap<>();
+
+            @Override
+            public ChatResult get(String key) {
+                return entries.get(key);
+            }
+
+            @Override
+            public void put(String key, ChatResult result) {
+                entries.put(key, result);
+            }
+        };
+        service.tokenUsageService = new TokenUsageService(null, null, null, null) {
+            @Override
+            public void checkQuota(Integer userId) {
+            }
+
+            @Override
+            public void record(Integer userId, ChatResult result) {
+            }
+        };
+        service.progressService = new ProgressService(new ProgressConfig(), null, Clock.systemDefaultZone()) {
+            @Override
+            public void accept(Integer userId, StructuredEvaluation evaluation) {
+                accepted.incrementAndGet();
+            }
+        };
+        service.structuredConfig = new StructuredConfig();
+        service.objectMapper = new ObjectMapper();
+        service.meterRegistry = new SimpleMeterRegistry();
+        service.init();
+    }
+
+    @Test
+    public void resubmittedPhotoIsServedFromCacheAndCountedOnce() {
+        StructuredEvaluation first = service.recognition(request("img"), 1);
+        StructuredEvaluation second = service.recognition(request("img"), 1);
+
+        assertEquals(first, second);
+        assertEquals(1, modelCalls.get());
+        // 评测历史照常记录，进度统计只计入第一次
+        assertEquals(2, recorded.get());
+        assertEquals(1, accepted.get());
+
+        service.recognition(request("other"), 1);
+        assertEquals(2, accepted.get());
+    }
+
+    private static ImgRequest request(String img) {
+        ImgRequest request = new ImgRequest();
+        request.setImg(img);
+        return request;
+    }
+}
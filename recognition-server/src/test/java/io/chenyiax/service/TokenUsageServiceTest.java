@@ -0,0 +1,107 @@
+package io.chenyiax.service;
+
+import io.chenyiax.configuration.UsageConfig;
+import io.chenyiax.entity.ChatResult;
+import io.chenyiax.entity.TokenUsage;
+import io.chenyiax.exception.QuotaExceededException;
+import io.chenyiax.mapper.TokenUsageMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 使用内存中的 TokenUsageMapper 替代数据库测试用量累加和额度检查，两个服务实例模拟两个节点。
+ */
+public class TokenUsageServiceTest {
+
+    private UsageConfig config;
+    private InMemoryTokenUsageMapper mapper;
+
+    @BeforeEach
+    public void setUp() {
+        config = new UsageConfig();
+        config.setDailyQuota(1000);
+        mapper = new InMemoryTokenUsageMapper();
+    }
+
+    @Test
+    public void rejectsOnceLocalUsageReachesQuota() {
+        TokenUsageService service = newService();
+        service.checkQuota(1);
+        service.record(1, new ChatResult("ok", "m", 600, 300));
+        assertDoesNotThrow(() -> service.checkQuota(1));
+        service.record(1, new ChatResult("ok", "m", 100, 0));
+        assertThrows(QuotaExceededException.class, () -> service.checkQuota(1));
+        assertDoesNotThrow(() -> service.checkQuota(2));
+    }
+
+    @Test
+    public void flushPersistsTokensAndRequests() {
+        TokenUsageService service = newService();
+        service.record(1, new ChatResult("ok", "m", 100, 50));
+        service.flush();
+        service.record(1, new ChatResult("ok", "m", 10, 5));
+        service.flush();
+
+        TokenUsage row = mapper.rows.get(1);
+        assertEquals(110, row.getPromptTokens());
+        assertEquals(55, row.getCompletionTokens());
+        assertEquals(2, row.getRequests());
+    }
+
+    @Test
+    public void seesUsageOfOtherNodesAfterFlush() {
+        TokenUsageService first = newService();
+        TokenUsageService second = newService();
+        first.record(1, new ChatResult("ok", "m", 800, 200));
+        first.flush();
+
+        second.checkQuota(1);
+        second.flush();
+        assertThrows(QuotaExceededException.class, () -> second.checkQuota(1));
+    }
+
+    private TokenUsageService newService() {
+        TokenUsageService service = new TokenUsageService(config, mapper, new SimpleMeterRegistry(), Clock.systemDefaultZone());
+        service.init();
+        return service;
+    }
+
+    private static class InMemoryTokenUsageMapper implements TokenUsageMapper {
+        private final Map<Integer, TokenUsage> rows = new HashMap<>();
+
+        @Override
+        public int upsertBatch(List<TokenUsage> usages) {
+            for (TokenUsage u : usages) {
+                rows.merge(u.getUserId(), u, (a, b) -> new TokenUsage(a.getUserId(), a.getUsageDate(),
+                        a.getPromptTokens() + b.getPromptTokens(),
+                        a.getCompletionTokens() + b.getCompletionTokens(),
+                        a.getRequests() + b.getRequests()));
+            }
+            return usages.size();
+        }
+
+        @Override
+        public List<TokenUsage> listByDate(LocalDate date, Collection<Integer> userIds) {
+            List<TokenUsage> result = new ArrayList<>();
+            for (Integer userId : userIds) {
+                if (rows.containsKey(userId)) {
+                    result.add(rows.get(userId));
+                }
+            }
+            return result;
+        }
+    }
+}
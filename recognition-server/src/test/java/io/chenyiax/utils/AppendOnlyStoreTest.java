@@ -0,0 +1,171 @@
+package io.chenyiax.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 测试重新打开时重建索引、截断损坏的末尾记录、覆盖写入的有效字节统计，以及后台压缩。
+ * 键为 3 字节、值为 81 字节时每条记录正好 100 字节。
+ */
+public class AppendOnlyStoreTest {
+
+    private static final int CAPACITY = 1000;
+    private static final Executor SYNC = Runnable::run;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void reopenRestoresTheIndex() throws IOException {
+        AppendOnlyStore store = open(SYNC);
+        store.put("k00", value(1));
+        store.put("k01", value(2));
+        store.put("k00", value(3));
+        store.close();
+        assertNull(store.get("k00"));
+
+        AppendOnlyStore reopened = open(SYNC);
+        assertArrayEquals(value(3), reopened.get("k00"));
+        assertArrayEquals(value(2), reopened.get("k01"));
+        assertEquals(2, reopened.size());
+        assertEquals(300, reopened.usedBytes());
+        assertEquals(200, reopened.liveBytes());
+        reopened.close();
+    }
+
+    @Test
+    public void corruptTailRecordIsDropped() throws IOException {
+        AppendOnlyStore store = open(SYNC);
+        store.put("k00", value(1));
+        store.put("k01", value(2));
+        store.close();
+        // 模拟写入第二条记录时进程退出：记录内容与 CRC 不一致
+        try (FileChannel channel = FileChannel.open(file(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), 100 + 50);
+        }
+
+        AppendOnlyStore reopened = open(SYNC);
+        assertArrayEquals(value(1), reopened.get("k00"));
+        assertNull(reopened.get("k01"));
+        assertEquals(100, reopened.usedBytes());
+
+        // 新记录从损坏记录的位置开始写入
+        assertTrue(reopened.put("k02", value(3)));
+        reopened.close();
+        AppendOnlyStore again = open(SYNC);
+        assertArrayEquals(value(3), again.get("k02"));
+        assertEquals(2, again.size());
+        again.close();
+    }
+
+    @Test
+    public void overwriteOnlyCountsTheNewestRecordAsLive() throws IOException {
+        AppendOnlyStore store = open(SYNC);
+        store.put("k00", value(1));
+        store.put("k00", new byte[31]);
+
+        assertEquals(1, store.size());
+        assertEquals(150, store.usedBytes());
+        assertEquals(50, store.liveBytes());
+        store.close();
+    }
+
+    @Test
+    public void compactionKeepsTheNewestRecords() throws IOException {
+        AppendOnlyStore store = open(SYNC);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(store.put(key(i), value(i)));
+        }
+
+        // 文件已满：本次写入被丢弃，压缩保留最新的 compactRatio * 容量
+        assertFalse(store.put(key(10), value(10)));
+        assertEquals(500, store.usedBytes());
+        assertEquals(500, store.liveBytes());
+        assertNull(store.get(key(4)));
+        for (int i = 5; i < 10; i++) {
+            assertArrayEquals(value(i), store.get(key(i)));
+        }
+
+        assertTrue(store.put(key(10), value(10)));
+        store.close();
+        assertFalse(Files.exists(dir.resolve("cache.dat.compact")));
+
+        AppendOnlyStore reopened = open(SYNC);
+        assertEquals(6, reopened.size());
+        assertArrayEquals(value(5), reopened.get(key(5)));
+        assertArrayEquals(value(10), reopened.get(key(10)));
+        reopened.close();
+    }
+
+    @Test
+    public void storeStaysUsableWhileCompactionIsPending() throws Exception {
+        List<Runnable> queued = new ArrayList<>();
+        AppendOnlyStore store = open(queued::add);
+        for (int i = 0; i < 9; i++) {
+            store.put(key(i), value(i));
+        }
+
+        // 放不下的记录提交一次压缩，请求线程不等待压缩
+        assertFalse(store.put("big", new byte[150]));
+        assertFalse(store.put("big", new byte[150]));
+        assertEquals(1, queued.size());
+        // 读取和剩余空间内的写入照常进行
+        assertArrayEquals(value(0), store.get(key(0)));
+        assertTrue(store.put(key(9), value(9)));
+
+        // 关闭时等待压缩完成
+        CompletableFuture<Void> close = CompletableFuture.runAsync(() -> {
+            try {
+                store.close();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        assertFalse(close.isDone());
+        queued.get(0).run();
+        close.get(1, TimeUnit.SECONDS);
+
+        AppendOnlyStore reopened = open(SYNC);
+        assertEquals(5, reopened.size());
+        assertArrayEquals(value(9), reopened.get(key(9)));
+        reopened.close();
+    }
+
+    private AppendOnlyStore open(Executor compactor) throws IOException {
+        return new AppendOnlyStore(file(), CAPACITY, 0.5, compactor);
+    }
+
+    private Path file() {
+        return dir.resolve("cache.dat");
+    }
+
+    private static String key(int i) {
+        return String.format("k%02d", i);
+    }
+
+    private static byte[] value(int i) {
+        byte[] value = new byte[81];
+        Arrays.fill(value, (byte) i);
+        return value;
+    }
+}
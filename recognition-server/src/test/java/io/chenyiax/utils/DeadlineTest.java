@@ -0,0 +1,88 @@
+package io.chenyiax.utils;
+
+import io.chenyiax.exception.DeadlineExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DeadlineTest {
+
+    @AfterEach
+    public void tearDown() {
+        DeadlineContext.clear();
+    }
+
+    @Test
+    public void remainingTimeCountsDown() throws InterruptedException {
+        Deadline deadline = Deadline.after(1000);
+        assertTrue(deadline.remainingMillis() > 900 && deadline.remainingMillis() <= 1000);
+        assertFalse(deadline.isExpired());
+
+        Deadline expired = Deadline.after(10);
+        Thread.sleep(20);
+        assertTrue(expired.isExpired());
+        assertTrue(expired.remainingMillis() <= 0);
+    }
+
+    @Test
+    public void epochMillisRoundTrip() {
+        Deadline deadline = Deadline.after(5000);
+        Deadline copy = Deadline.atEpochMilli(deadline.toEpochMilli());
+        assertEquals(deadline.remainingMillis(), copy.remainingMillis(), 20);
+    }
+
+    @Test
+    public void cancelExpiresImmediately() {
+        Deadline deadline = Deadline.after(60000);
+        deadline.cancel();
+        assertTrue(deadline.isExpired());
+        assertEquals(0, deadline.remainingMillis());
+    }
+
+    @Test
+    public void remainingMillisTightensLimitsAndThrowsOnceExpired() {
+        assertEquals(500, DeadlineContext.remainingMillis(500));
+        DeadlineContext.check();
+
+        DeadlineContext.set(Deadline.after(1000));
+        assertEquals(500, DeadlineContext.remainingMillis(500));
+        assertTrue(DeadlineContext.remainingMillis(5000) <= 1000);
+
+        DeadlineContext.current().cancel();
+        assertThrows(DeadlineExceededException.class, () -> DeadlineContext.remainingMillis(500));
+        assertThrows(DeadlineExceededException.class, DeadlineContext::check);
+    }
+
+    @Test
+    public void wrapCarriesTheSubmittersDeadlineAndRestoresTheWorkersOwn() throws Exception {
+        Deadline submitter = Deadline.after(1000);
+        Deadline worker = Deadline.after(2000);
+        AtomicReference<Deadline> seen = new AtomicReference<>();
+
+        DeadlineContext.set(submitter);
+        Runnable task = DeadlineContext.wrap(() -> seen.set(DeadlineContext.current()));
+        DeadlineContext.set(worker);
+        task.run();
+        assertSame(submitter, seen.get());
+        assertSame(worker, DeadlineContext.current());
+
+        // 没有截止时间时不包装
+        DeadlineContext.clear();
+        Runnable plain = () -> { };
+        assertSame(plain, DeadlineContext.wrap(plain));
+
+        Deadline section = Deadline.after(100);
+        Callable<Deadline> callable = DeadlineContext.wrap(section, DeadlineContext::current);
+        assertSame(section, callable.call());
+        assertNull(DeadlineContext.current());
+    }
+}
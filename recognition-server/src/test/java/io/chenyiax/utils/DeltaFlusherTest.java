@@ -0,0 +1,68 @@
+package io.chenyiax.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 测试只写入自上次刷新以来的增量，以及写入失败的批次留到下次刷新时重试。
+ */
+public class DeltaFlusherTest {
+
+    private final DeltaFlusher<String, String> flusher =
+            new DeltaFlusher<>("test", (key, delta) -> key + "+" + delta[0] + "/" + delta[1]);
+    private final Map<String, DeltaCounter> counters = new LinkedHashMap<>();
+    private final List<List<String>> writes = new ArrayList<>();
+
+    @Test
+    public void flushWritesOnlyDeltas() {
+        add("a", 1, 80);
+        flush(10);
+        flush(10);
+        assertTrue(counters.get("a").isFlushed());
+
+        add("a", 1, 82);
+        add("b", 1, 60);
+        flush(10);
+
+        assertEquals(List.of(List.of("a+1/80"), List.of("a+1/82", "b+1/60")), writes);
+        assertEquals(2, counters.get("a").flushed(0));
+        assertEquals(162, counters.get("a").flushed(1));
+    }
+
+    @Test
+    public void failedBatchIsRetriedWithoutRewritingTheOthers() {
+        add("a", 1, 80);
+        add("b", 1, 60);
+        flusher.flush(counters, 1, rows -> {
+            if (rows.contains("b+1/60")) {
+                throw new IllegalStateException("database unavailable");
+            }
+            writes.add(List.copyOf(rows));
+        });
+        assertTrue(counters.get("a").isFlushed());
+        assertFalse(counters.get("b").isFlushed());
+
+        // 失败后新增的部分与未写入的增量合并写入
+        add("b", 1, 70);
+        flush(1);
+        assertEquals(List.of(List.of("a+1/80"), List.of("b+2/130")), writes);
+    }
+
+    private void add(String key, long count, long sum) {
+        DeltaCounter counter = counters.computeIfAbsent(key, k -> new DeltaCounter(2));
+        counter.add(0, count);
+        counter.add(1, sum);
+    }
+
+    private void flush(int batchSize) {
+        flusher.flush(counters, batchSize, rows -> writes.add(List.copyOf(rows)));
+    }
+}
@@ -0,0 +1,52 @@
+package io.chenyiax.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.chenyiax.entity.EvaluationDimension;
+import io.chenyiax.entity.StructuredEvaluation;
+import io.chenyiax.exception.JsonException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class EvaluationJsonParserTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private static final String OUTPUT = """
+            ```json
+            {"brushwork":{"score":80,"comment":"起笔有力"},"structure":{"score":71,"comment":"重心略偏"},
+             "composition":{"score":90,"comment":"行气连贯"},"suggestion":"多练横画收笔"}
+            ```""";
+
+    @Test
+    public void parsesOutputWrappedInCodeFence() {
+        StructuredEvaluation evaluation = EvaluationJsonParser.parse(OUTPUT, mapper, 50);
+        assertEquals(3, evaluation.getScores().size());
+        assertEquals(EvaluationDimension.BRUSHWORK, evaluation.getScores().get(0).getDimension());
+        assertEquals(80, evaluation.getOverall());
+        assertEquals("多练横画收笔", evaluation.getSuggestion());
+    }
+
+    @Test
+    public void truncatesLongComments() {
+        StructuredEvaluation evaluation = EvaluationJsonParser.parse(OUTPUT, mapper, 2);
+        assertEquals("起笔…", evaluation.getScores().get(0).getComment());
+    }
+
+    @Test
+    public void formatRoundTrips() {
+        StructuredEvaluation evaluation = EvaluationJsonParser.parse(OUTPUT, mapper, 50);
+        String json = EvaluationJsonParser.format(evaluation, mapper);
+        assertEquals(evaluation, EvaluationJsonParser.parse(json, mapper, 50));
+    }
+
+    @Test
+    public void rejectsInvalidOutput() {
+        assertThrows(JsonException.class, () -> EvaluationJsonParser.parse("笔法很好", mapper, 50));
+        assertThrows(JsonException.class, () -> EvaluationJsonParser.parse(
+                OUTPUT.replace("\"score\":80", "\"score\":180"), mapper, 50));
+        assertThrows(JsonException.class, () -> EvaluationJsonParser.parse(
+                OUTPUT.replace("\"suggestion\":\"多练横画收笔\"", "\"other\":1"), mapper, 50));
+    }
+}
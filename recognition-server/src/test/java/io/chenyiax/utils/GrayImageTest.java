@@ -0,0 +1,65 @@
+package io.chenyiax.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GrayImageTest {
+
+    @Test
+    public void convertsToLuma() {
+        BufferedImage image = new BufferedImage(2, 1, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, 0xffffff);
+        image.setRGB(1, 0, 0xff0000);
+        GrayImage gray = GrayImage.of(image);
+
+        assertEquals(255, gray.get(0, 0));
+        assertEquals(76, gray.get(1, 0));
+        assertEquals((255 + 76) / 2.0, gray.mean());
+    }
+
+    @Test
+    public void otsuSeparatesInkFromPaper() {
+        GrayImage gray = GrayImage.of(Worksheets.sheet(200, 200, new Rectangle(50, 50, 100, 100)));
+        int threshold = gray.otsuThreshold();
+
+        // 墨迹灰度约为 20，纸张约为 243
+        assertTrue(threshold >= 20 && threshold < 243, "threshold " + threshold);
+        int[] histogram = gray.histogram();
+        assertEquals(200 * 200, Arrays.stream(histogram).sum());
+    }
+
+    @Test
+    public void otsuOfAUniformImageKeepsEverythingInOneClass() {
+        GrayImage gray = GrayImage.of(Worksheets.sheet(50, 50, null));
+        assertEquals(0, gray.otsuThreshold());
+    }
+
+    @Test
+    public void blurLowersTheStrongestEdges() {
+        BufferedImage sharp = Worksheets.sheet(300, 300, new Rectangle(50, 50, 200, 200));
+        double sharpEdges = GrayImage.of(sharp).laplacianTopMean(0.005);
+        double blurredEdges = GrayImage.of(Worksheets.blur(sharp, 4)).laplacianTopMean(0.005);
+
+        assertTrue(sharpEdges > 200, "sharp " + sharpEdges);
+        assertTrue(blurredEdges < sharpEdges / 4, "blurred " + blurredEdges);
+    }
+
+    @Test
+    public void strongestEdgesDoNotDependOnTheAmountOfInk() {
+        double few = GrayImage.of(Worksheets.sheet(300, 300, new Rectangle(100, 100, 60, 60))).laplacianTopMean(0.001);
+        double many = GrayImage.of(Worksheets.sheet(300, 300, new Rectangle(20, 20, 260, 260))).laplacianTopMean(0.001);
+
+        assertEquals(few, many, few * 0.25);
+    }
+
+    @Test
+    public void tinyImagesHaveNoEdges() {
+        assertEquals(0, GrayImage.of(new BufferedImage(2, 2, BufferedImage.TYPE_INT_RGB)).laplacianTopMean(0.5));
+    }
+}
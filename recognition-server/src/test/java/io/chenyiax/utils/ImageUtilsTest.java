@@ -0,0 +1,69 @@
+package io.chenyiax.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ImageUtilsTest {
+
+    private final byte[] jpeg = Worksheets.jpeg(Worksheets.sheet(64, 48, new Rectangle(16, 12, 32, 24)));
+
+    @Test
+    public void readsOrientationInBothByteOrders() {
+        assertEquals(6, ImageUtils.exifOrientation(Worksheets.withExif(jpeg, Worksheets.orientationTiff(8, 6))));
+
+        byte[] littleEndian = {
+                'I', 'I', 42, 0, 8, 0, 0, 0,
+                1, 0,
+                0x12, 0x01, 3, 0, 1, 0, 0, 0, 8, 0, 0, 0,
+                0, 0, 0, 0
+        };
+        assertEquals(8, ImageUtils.exifOrientation(Worksheets.withExif(jpeg, littleEndian)));
+    }
+
+    @Test
+    public void missingOrInvalidOrientationMeansUpright() {
+        assertEquals(1, ImageUtils.exifOrientation(jpeg));
+        assertEquals(1, ImageUtils.exifOrientation(Worksheets.png(new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB))));
+        assertEquals(1, ImageUtils.exifOrientation(Worksheets.withExif(jpeg, Worksheets.orientationTiff(8, 9))));
+        assertEquals(1, ImageUtils.exifOrientation(new byte[]{(byte) 0xFF, (byte) 0xD8}));
+    }
+
+    @Test
+    public void malformedOffsetsAreIgnored() {
+        // 负数、超出 Exif 段以及指回 TIFF 头内部的 IFD 偏移量都不能导致越界读取
+        for (int offset : new int[]{0xFFFFFFF0, Integer.MIN_VALUE, -6, 0x7FFFFFFF, 1000, 2}) {
+            assertEquals(1, ImageUtils.exifOrientation(Worksheets.withExif(jpeg, Worksheets.orientationTiff(offset, 6))),
+                    "offset " + offset);
+        }
+    }
+
+    @Test
+    public void truncatedExifIsIgnored() {
+        byte[] tiff = Worksheets.orientationTiff(8, 6);
+        byte[] data = Worksheets.withExif(jpeg, tiff);
+        // Exif 段声明的长度超过文件末尾
+        byte[] truncated = new byte[2 + 4 + 6 + 12];
+        System.arraycopy(data, 0, truncated, 0, truncated.length);
+        assertEquals(1, ImageUtils.exifOrientation(truncated));
+    }
+
+    @Test
+    public void readsDimensionsAndRegions() throws IOException {
+        byte[] png = Worksheets.png(Worksheets.sheet(400, 300, null));
+        assertEquals(new Dimension(400, 300), ImageUtils.dimensions(png));
+
+        BufferedImage region = ImageUtils.readRegion(png, new Rectangle(100, 50, 200, 100), 50);
+        assertEquals(50, region.getWidth());
+        assertEquals(25, region.getHeight());
+
+        BufferedImage sampled = ImageUtils.readSubsampled(png, 128);
+        assertTrue(sampled.getWidth() >= 128 && sampled.getWidth() < 256, "width " + sampled.getWidth());
+    }
+}
@@ -0,0 +1,138 @@
+package io.chenyiax.utils;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ConvolveOp;
+import java.awt.image.Kernel;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * 测试用的合成练字照片：白纸上在指定区域内画几笔粗黑笔画，可以整体调暗或模糊。
+ */
+public final class Worksheets {
+
+    private Worksheets() {
+    }
+
+    /**
+     * @param width 图片宽度。
+     * @param height 图片高度。
+     * @param ink 笔画所在区域，为 null 时是一张白纸。
+     * @return 合成照片。
+     */
+    public static BufferedImage sheet(int width, int height, Rectangle ink) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(new Color(245, 243, 235));
+        graphics.fillRect(0, 0, width, height);
+        if (ink != null) {
+            graphics.setColor(new Color(20, 20, 20));
+            graphics.setStroke(new BasicStroke(Math.max(4, ink.width / 30f)));
+            // 横、竖、撇、捺四笔，端点都落在区域边界上
+            int midX = ink.x + ink.width / 2;
+            int midY = ink.y + ink.height / 2;
+            graphics.drawLine(ink.x, midY, ink.x + ink.width, midY);
+            graphics.drawLine(midX, ink.y, midX, ink.y + ink.height);
+            graphics.drawLine(midX, midY, ink.x, ink.y + ink.height);
+            graphics.drawLine(midX, midY, ink.x + ink.width, ink.y + ink.height);
+        }
+        graphics.dispose();
+        return image;
+    }
+
+    /**
+     * 以 radius 为半径做方框模糊，模拟手抖或失焦。
+     */
+    public static BufferedImage blur(BufferedImage image, int radius) {
+        int size = 2 * radius + 1;
+        float[] kernel = new float[size * size];
+        Arrays.fill(kernel, 1f / kernel.length);
+        return new ConvolveOp(new Kernel(size, size, kernel), ConvolveOp.EDGE_NO_OP, null).filter(image, null);
+    }
+
+    /**
+     * 把每个像素的亮度乘以 factor，模拟光线不足。
+     */
+    public static BufferedImage darken(BufferedImage image, double factor) {
+        BufferedImage dark = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int p = image.getRGB(x, y);
+                int r = (int) (((p >> 16) & 0xff) * factor);
+                int g = (int) (((p >> 8) & 0xff) * factor);
+                int b = (int) ((p & 0xff) * factor);
+                dark.setRGB(x, y, (r << 16) | (g << 8) | b);
+            }
+        }
+        return dark;
+    }
+
+    public static byte[] png(BufferedImage image) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toByteArray();
+    }
+
+    public static byte[] jpeg(BufferedImage image) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "jpeg", output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * 在 JPEG 的 SOI 之后插入一个 APP1 Exif 段。
+     *
+     * @param jpeg JPEG 数据。
+     * @param tiff Exif 段中 "Exif\0\0" 之后的 TIFF 结构。
+     * @return 带 Exif 段的 JPEG 数据。
+     */
+    public static byte[] withExif(byte[] jpeg, byte[] tiff) {
+        int length = 2 + 6 + tiff.length;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.write(jpeg, 0, 2);
+        output.write(0xFF);
+        output.write(0xE1);
+        output.write(length >> 8);
+        output.write(length & 0xff);
+        output.writeBytes(new byte[]{'E', 'x', 'i', 'f', 0, 0});
+        output.writeBytes(tiff);
+        output.write(jpeg, 2, jpeg.length - 2);
+        return output.toByteArray();
+    }
+
+    /**
+     * 构造只有一个 IFD、其中只有方向标记的大端 TIFF 结构。
+     *
+     * @param ifdOffset 写入文件头的第一个 IFD 偏移量，正常值为 8。
+     * @param orientation 方向值。
+     */
+    public static byte[] orientationTiff(int ifdOffset, int orientation) {
+        return new byte[]{
+                'M', 'M', 0, 42,
+                (byte) (ifdOffset >> 24), (byte) (ifdOffset >> 16), (byte) (ifdOffset >> 8), (byte) ifdOffset,
+                0, 1,
+                0x01, 0x12, 0, 3, 0, 0, 0, 1, (byte) (orientation >> 8), (byte) orientation, 0, 0,
+                0, 0, 0, 0
+        };
+    }
+
+    public static String base64(byte[] data) {
+        return Base64.getEncoder().encodeToString(data);
+    }
+}